@@ -1,44 +1,66 @@
 package com.trazabilidad.ayni.alerta;
 
 import com.trazabilidad.ayni.alerta.dto.AlertaActividadResponse;
-import com.trazabilidad.ayni.proyecto.ActividadProyecto;
-import com.trazabilidad.ayni.proyecto.ActividadProyectoRepository;
-import com.trazabilidad.ayni.proyecto.Proyecto;
 import com.trazabilidad.ayni.proyecto.ProyectoLifecycleService;
-import com.trazabilidad.ayni.proyecto.ProyectoRepository;
 import com.trazabilidad.ayni.shared.dto.PaginatedResponse;
 import com.trazabilidad.ayni.shared.enums.EstadoProyecto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Comparator;
 import java.util.List;
 
+/**
+ * Alertas de tareas sin cambio de estado y de proyectos archivados. Los umbrales se evalúan en SQL
+ * sobre el índice parcial de tareas abiertas, de modo que el costo depende de cuántas alertas hay
+ * y no del total de actividades.
+ */
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class AlertaActividadService {
 
-    private final ActividadProyectoRepository actividadProyectoRepository;
-    private final ProyectoRepository proyectoRepository;
-    private final ProyectoLifecycleService proyectoLifecycleService;
+    private static final String BASE = "coalesce(a.fecha_cambio_estado, cast(a.fecha_fin as timestamp), cast(a.fecha_inicio as timestamp))";
+    private static final String ESTADO = "lower(coalesce(a.estado_actividad, 'Pendiente'))";
+    private static final long HORAS_MINIMAS = 24;
+
+    private static final String ALERTAS_SQL = "select origen, proyecto_id, proyecto_nombre, nodo_id, nombre_actividad, estado, horas, critica from ("
+            + "select 1 origen, a.proyecto_id, p.nombre_proyecto proyecto_nombre, a.id nodo_id, a.nombre nombre_actividad, "
+            + "coalesce(a.estado_actividad, 'Pendiente') estado, "
+            + "cast(floor(extract(epoch from (cast(:ahora as timestamp) - " + BASE + ")) / 3600) as bigint) horas, "
+            + "case when " + ESTADO + " like '%pendiente%' then 48 when " + ESTADO + " like '%proceso%' or " + ESTADO + " like '%progreso%' then 72 else 24 end advertencia, "
+            + "case when " + ESTADO + " like '%pendiente%' then 120 when " + ESTADO + " like '%proceso%' or " + ESTADO + " like '%progreso%' then 168 else 24 end critica "
+            + "from actividades_proyecto a join proyectos p on p.id = a.proyecto_id "
+            + "where lower(a.tipo) = 'tarea' and (" + ESTADO + " like '%pendiente%' or " + ESTADO + " like '%proceso%' or "
+            + ESTADO + " like '%progreso%' or " + ESTADO + " like '%retras%') "
+            + "and " + BASE + " <= :corteMinimo and p.estado <> :archivado "
+            + "union all "
+            + "select 0, p.id, p.nombre_proyecto, 0, null, null, "
+            + "greatest(cast(floor(extract(epoch from (cast(:ahora as timestamp) - coalesce(p.fecha_actualizacion, cast(:ahora as timestamp)))) / 3600) as bigint), :horasArchivado), 0, null "
+            + "from proyectos p where p.estado = :archivado"
+            + ") alertas where horas >= advertencia";
+
+    private final EntityManager entityManager;
 
     public PaginatedResponse<AlertaActividadResponse> listarAlertasPaginadas(Integer page, Integer size) {
         int pageValue = page != null && page >= 0 ? page : 0;
         int sizeValue = size != null && size > 0 ? size : 100;
-        List<AlertaActividadResponse> alertas = listarAlertas();
-        int totalElementos = alertas.size();
+        LocalDateTime ahora = LocalDateTime.now();
+        long totalElementos = ((Number) parametros(entityManager.createNativeQuery("select count(*) from (" + ALERTAS_SQL + ") total"), ahora)
+                .getSingleResult()).longValue();
         int totalPaginas = (int) Math.ceil((double) totalElementos / sizeValue);
         int paginaActual = Math.min(pageValue, Math.max(totalPaginas - 1, 0));
-        int inicio = Math.min(paginaActual * sizeValue, totalElementos);
-        int fin = Math.min(inicio + sizeValue, totalElementos);
+
+        List<AlertaActividadResponse> content = totalElementos == 0
+                ? List.of()
+                : consultar(ahora, (long) paginaActual * sizeValue, sizeValue);
 
         return PaginatedResponse.<AlertaActividadResponse>builder()
-                .content(alertas.subList(inicio, fin))
-                .totalElements((long) totalElementos)
+                .content(content)
+                .totalElements(totalElementos)
                 .totalPages(totalPaginas)
                 .page(paginaActual)
                 .size(sizeValue)
@@ -46,64 +68,58 @@ public class AlertaActividadService {
     }
 
     public List<AlertaActividadResponse> listarAlertas() {
-        proyectoLifecycleService.archivarProyectosInactivos();
-
-        List<AlertaActividadResponse> alertasActividad = actividadProyectoRepository.findAll().stream()
-                .map(this::mapAlertaActividad)
-                .filter(java.util.Objects::nonNull)
-                .toList();
-
-        List<AlertaActividadResponse> alertasArchivado = proyectoRepository.findAll().stream()
-                .map(this::mapAlertaArchivado)
-                .filter(java.util.Objects::nonNull)
-                .toList();
-
-        return java.util.stream.Stream.concat(alertasArchivado.stream(), alertasActividad.stream())
-                .sorted(Comparator.comparingLong(AlertaActividadResponse::getHorasSinCambio).reversed())
-                .toList();
+        return consultar(LocalDateTime.now(), null, null);
     }
 
-    private AlertaActividadResponse mapAlertaActividad(ActividadProyecto actividad) {
-        if (actividad == null || !"tarea".equalsIgnoreCase(actividad.getTipo())) {
-            return null;
-        }
-        if (actividad.getProyecto() != null && actividad.getProyecto().getEstado() == EstadoProyecto.ARCHIVADO) {
-            return null;
-        }
-
-        String estado = actividad.getEstadoActividad() == null ? "Pendiente" : actividad.getEstadoActividad();
-        Umbral umbral = getUmbral(estado);
-        if (umbral == null) {
-            return null;
+    private List<AlertaActividadResponse> consultar(LocalDateTime ahora, Long offset, Integer limit) {
+        String sql = ALERTAS_SQL + " order by horas desc, origen, proyecto_id, nodo_id"
+                + (limit != null ? " limit :limit offset :offset" : "");
+        Query query = parametros(entityManager.createNativeQuery(sql), ahora);
+        if (limit != null) {
+            query.setParameter("limit", limit);
+            query.setParameter("offset", offset);
         }
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        return rows.stream().map(this::mapAlerta).toList();
+    }
 
-        LocalDateTime base = actividad.getFechaCambioEstado();
-        if (base == null && actividad.getFechaFin() != null) {
-            base = actividad.getFechaFin().atStartOfDay();
-        }
-        if (base == null && actividad.getFechaInicio() != null) {
-            base = actividad.getFechaInicio().atStartOfDay();
-        }
-        if (base == null) {
-            return null;
-        }
+    private Query parametros(Query query, LocalDateTime ahora) {
+        return query.setParameter("ahora", ahora)
+                .setParameter("corteMinimo", ahora.minusHours(HORAS_MINIMAS))
+                .setParameter("archivado", EstadoProyecto.ARCHIVADO.name())
+                .setParameter("horasArchivado", ProyectoLifecycleService.DIAS_INACTIVIDAD_ARCHIVADO * 24);
+    }
 
-        long horas = Math.max(Duration.between(base, LocalDateTime.now()).toHours(), 0);
-        if (horas < umbral.advertenciaHoras) {
-            return null;
+    private AlertaActividadResponse mapAlerta(Object[] row) {
+        boolean archivado = ((Number) row[0]).intValue() == 0;
+        Long proyectoId = row[1] != null ? ((Number) row[1]).longValue() : null;
+        long horas = ((Number) row[6]).longValue();
+        if (archivado) {
+            return AlertaActividadResponse.builder()
+                    .proyectoId(proyectoId)
+                    .proyectoNombre((String) row[2])
+                    .nodoId(0L)
+                    .nombreActividad("Proyecto archivado automaticamente")
+                    .estado(EstadoProyecto.ARCHIVADO.getDisplayName())
+                    .nivel("media")
+                    .horasSinCambio(horas)
+                    .mensaje("Atencion: proyecto archivado automaticamente por mas de 30 dias sin cambios")
+                    .build();
         }
 
-        String nivel = horas >= umbral.criticaHoras ? "alta" : "media";
+        String estado = (String) row[5];
+        String nivel = horas >= ((Number) row[7]).longValue() ? "alta" : "media";
         String prefijo = "alta".equals(nivel) ? "Urgente:" : "Atencion:";
         String mensaje = "Retrasado".equalsIgnoreCase(estado)
                 ? prefijo + " " + formatearDuracion(horas) + " sin cambio de estado a Completado o Cancelado"
                 : prefijo + " " + formatearDuracion(horas) + " sin cambio de estado";
 
         return AlertaActividadResponse.builder()
-                .proyectoId(actividad.getProyecto() != null ? actividad.getProyecto().getId() : null)
-                .proyectoNombre(actividad.getProyecto() != null ? actividad.getProyecto().getNombreProyecto() : null)
-                .nodoId(actividad.getId())
-                .nombreActividad(actividad.getNombre() != null ? actividad.getNombre() : "Actividad sin nombre")
+                .proyectoId(proyectoId)
+                .proyectoNombre((String) row[2])
+                .nodoId(((Number) row[3]).longValue())
+                .nombreActividad(row[4] != null ? (String) row[4] : "Actividad sin nombre")
                 .estado(estado)
                 .nivel(nivel)
                 .horasSinCambio(horas)
@@ -111,29 +127,6 @@ public class AlertaActividadService {
                 .build();
     }
 
-    private AlertaActividadResponse mapAlertaArchivado(Proyecto proyecto) {
-        if (proyecto == null || proyecto.getEstado() != EstadoProyecto.ARCHIVADO) {
-            return null;
-        }
-
-        long horasSinCambio = Math.max(
-                Duration.between(
-                        proyecto.getFechaActualizacion() != null ? proyecto.getFechaActualizacion() : LocalDateTime.now(),
-                        LocalDateTime.now()).toHours(),
-                ProyectoLifecycleService.DIAS_INACTIVIDAD_ARCHIVADO * 24);
-
-        return AlertaActividadResponse.builder()
-                .proyectoId(proyecto.getId())
-                .proyectoNombre(proyecto.getNombreProyecto())
-                .nodoId(0L)
-                .nombreActividad("Proyecto archivado automaticamente")
-                .estado(proyecto.getEstado().getDisplayName())
-                .nivel("media")
-                .horasSinCambio(horasSinCambio)
-                .mensaje("Atencion: proyecto archivado automaticamente por mas de 30 dias sin cambios")
-                .build();
-    }
-
     private String formatearDuracion(long horas) {
         long dias = horas / 24;
         long horasRestantes = horas % 24;
@@ -142,20 +135,4 @@ public class AlertaActividadService {
         }
         return horas + "h";
     }
-
-    private Umbral getUmbral(String estadoRaw) {
-        String estado = estadoRaw == null ? "" : estadoRaw.toLowerCase();
-        if (estado.contains("pendiente")) {
-            return new Umbral(48, 120);
-        }
-        if (estado.contains("proceso") || estado.contains("progreso")) {
-            return new Umbral(72, 168);
-        }
-        if (estado.contains("retras")) {
-            return new Umbral(24, 24);
-        }
-        return null;
-    }
-
-    private record Umbral(long advertenciaHoras, long criticaHoras) {}
 }
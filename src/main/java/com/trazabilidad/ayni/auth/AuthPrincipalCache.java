@@ -0,0 +1,70 @@
+package com.trazabilidad.ayni.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.trazabilidad.ayni.shared.util.AfterCommit;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Caché acotada (tamaño y TTL) de principales autenticados, indexada por el subject del token.
+ * Evita recargar usuario, roles, permisos y acciones en cada request autenticado.
+ * Las métricas de aciertos/fallos se publican como {@code cache.*{cache="auth.principal"}}.
+ */
+@Component
+public class AuthPrincipalCache {
+
+    static final String CACHE_NAME = "auth.principal";
+
+    private final boolean enabled;
+    private final Cache<String, CustomUserDetails> cache;
+
+    public AuthPrincipalCache(
+            @Value("${app.security.principal-cache.enabled:true}") boolean enabled,
+            @Value("${app.security.principal-cache.max-size:1000}") long maxSize,
+            @Value("${app.security.principal-cache.ttl:5m}") Duration ttl,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME));
+    }
+
+    public CustomUserDetails obtener(String username, Function<String, CustomUserDetails> loader) {
+        if (!enabled) {
+            return loader.apply(username);
+        }
+        return cache.get(username, loader);
+    }
+
+    /**
+     * Descarta las entradas del usuario (por username o email) al confirmar la transacción en curso.
+     */
+    public void invalidarUsuario(Long usuarioId) {
+        if (usuarioId == null) {
+            return;
+        }
+        AfterCommit.run(() -> cache.asMap().values().removeIf(details -> usuarioId.equals(details.getId())));
+    }
+
+    /**
+     * Descarta todos los principales; se usa cuando cambian roles o permisos compartidos.
+     */
+    public void invalidarTodos() {
+        AfterCommit.run(cache::invalidateAll);
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+}
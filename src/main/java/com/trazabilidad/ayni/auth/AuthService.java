@@ -135,7 +135,7 @@ public class AuthService {
                         throw new BadRequestException("El refresh token ha expirado");
                 }
 
-                String newAccessToken = tokenProvider.generateTokenFromUsername(username, jwtExpirationMs);
+                String newAccessToken = tokenProvider.generateAccessToken(new CustomUserDetails(usuario), jwtExpirationMs);
 
                 log.info("Token refrescado para usuario: {}", username);
 
@@ -2,25 +2,55 @@ package com.trazabilidad.ayni.auth;
 
 import com.trazabilidad.ayni.usuario.Usuario;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
- * Implementación de UserDetails para integrar Usuario con Spring Security
+ * Implementación de UserDetails para integrar Usuario con Spring Security.
+ * Las authorities se calculan una sola vez porque la instancia puede reutilizarse entre requests.
  */
 @Getter
-@RequiredArgsConstructor
 public class CustomUserDetails implements UserDetails {
 
     private final Usuario usuario;
+    private final Set<GrantedAuthority> authorities;
+
+    public CustomUserDetails(Usuario usuario) {
+        this(usuario, resolverAuthorities(usuario));
+    }
+
+    private CustomUserDetails(Usuario usuario, Set<GrantedAuthority> authorities) {
+        this.usuario = usuario;
+        this.authorities = Set.copyOf(authorities);
+    }
+
+    /**
+     * Principal reconstruido desde los claims del token: solo contiene id, username y authorities.
+     */
+    public static CustomUserDetails desdeClaims(Long id, String username, List<String> authorities) {
+        Usuario usuario = Usuario.builder().id(id).username(username).activo(true).build();
+        return new CustomUserDetails(usuario, authorities.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toSet()));
+    }
+
+    public boolean tieneRol(String nombreRol) {
+        return authorities.stream()
+                .anyMatch(authority -> authority.getAuthority().equalsIgnoreCase("ROLE_" + nombreRol));
+    }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    private static Set<GrantedAuthority> resolverAuthorities(Usuario usuario) {
         return usuario.getRoles().stream()
                 .flatMap(rol -> {
                     var authorities = rol.getPermisos().stream()
@@ -1,5 +1,6 @@
 package com.trazabilidad.ayni.auth;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,10 +27,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsServiceImpl userDetailsService;
+    private final AuthPrincipalCache principalCache;
 
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserDetailsServiceImpl userDetailsService) {
+    public JwtAuthenticationFilter(
+            JwtTokenProvider tokenProvider,
+            UserDetailsServiceImpl userDetailsService,
+            AuthPrincipalCache principalCache) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -41,8 +47,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = getJwtFromRequest(request);
 
             if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                Claims claims = tokenProvider.getClaimsFromToken(jwt);
+                String username = claims.getSubject();
+                UserDetails userDetails = tokenProvider.getPrincipalFromClaims(claims);
+                if (userDetails == null) {
+                    userDetails = principalCache.obtener(username,
+                            key -> (CustomUserDetails) userDetailsService.loadUserByUsername(key));
+                }
 
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails,
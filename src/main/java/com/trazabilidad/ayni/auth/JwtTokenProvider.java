@@ -2,22 +2,34 @@ package com.trazabilidad.ayni.auth;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.List;
 
 /**
- * Proveedor de tokens JWT para generar y validar tokens de autenticación
+ * Proveedor de tokens JWT para generar y validar tokens de autenticación.
+ * Con {@code app.security.jwt-claims.enabled} los access tokens incluyen id, authorities y
+ * versión de seguridad del usuario para autenticar sin consultar la base de datos.
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class JwtTokenProvider {
 
+    static final String CLAIM_USUARIO_ID = "uid";
+    static final String CLAIM_AUTHORITIES = "auth";
+    static final String CLAIM_VERSION = "sv";
+
+    private final SecurityVersionRegistry securityVersionRegistry;
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -27,13 +39,16 @@ public class JwtTokenProvider {
     @Value("${jwt.refresh-expiration}")
     private long jwtRefreshExpirationMs;
 
+    @Value("${app.security.jwt-claims.enabled:false}")
+    private boolean claimsEnabled;
+
     private SecretKey getSigningKey() {
         return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
     }
 
     public String generateToken(Authentication authentication) {
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-        return generateTokenFromUsername(userDetails.getUsername(), jwtExpirationMs);
+        return generateAccessToken(userDetails, jwtExpirationMs);
     }
 
     public String generateRefreshToken(Authentication authentication) {
@@ -41,6 +56,31 @@ public class JwtTokenProvider {
         return generateTokenFromUsername(userDetails.getUsername(), jwtRefreshExpirationMs);
     }
 
+    /**
+     * Access token para el usuario; embebe sus authorities si el modo claims está activo.
+     */
+    public String generateAccessToken(CustomUserDetails userDetails, long expiration) {
+        if (!claimsEnabled) {
+            return generateTokenFromUsername(userDetails.getUsername(), expiration);
+        }
+
+        Date now = new Date();
+        List<String> authorities = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .sorted()
+                .toList();
+
+        return Jwts.builder()
+                .setSubject(userDetails.getUsername())
+                .claim(CLAIM_USUARIO_ID, userDetails.getId())
+                .claim(CLAIM_AUTHORITIES, authorities)
+                .claim(CLAIM_VERSION, securityVersionRegistry.version(userDetails.getId()))
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + expiration))
+                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
     public String generateTokenFromUsername(String username, long expiration) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
@@ -53,6 +93,30 @@ public class JwtTokenProvider {
                 .compact();
     }
 
+    public Claims getClaimsFromToken(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(getSigningKey())
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    /**
+     * Principal construido solo con los claims, o {@code null} si el token no los trae
+     * o su versión de seguridad ya no es la vigente.
+     */
+    public CustomUserDetails getPrincipalFromClaims(Claims claims) {
+        Number usuarioId = claims.get(CLAIM_USUARIO_ID, Number.class);
+        Number version = claims.get(CLAIM_VERSION, Number.class);
+        List<?> authorities = claims.get(CLAIM_AUTHORITIES, List.class);
+        if (usuarioId == null || version == null || authorities == null
+                || !securityVersionRegistry.esVigente(usuarioId.longValue(), version.longValue())) {
+            return null;
+        }
+        return CustomUserDetails.desdeClaims(usuarioId.longValue(), claims.getSubject(),
+                authorities.stream().map(String::valueOf).toList());
+    }
+
     public String getUsernameFromToken(String token) {
         Claims claims = Jwts.parserBuilder()
                 .setSigningKey(getSigningKey())
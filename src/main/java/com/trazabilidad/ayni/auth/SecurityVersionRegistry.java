@@ -0,0 +1,78 @@
+package com.trazabilidad.ayni.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.trazabilidad.ayni.shared.util.AfterCommit;
+import com.trazabilidad.ayni.usuario.UsuarioRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Versión de seguridad usada para revocar las authorities embebidas en los JWT. Se guarda por usuario
+ * en {@code usuarios.version_seguridad} y se incrementa en la transacción del cambio (estado del usuario, o
+ * un rol o permiso, que incrementan solo la de los usuarios con ese rol); si esa transacción se revierte,
+ * la versión no cambia.
+ * Las lecturas se cachean con un TTL corto: otra instancia ve el cambio a más tardar al vencer su entrada,
+ * esta al confirmar la transacción.
+ */
+@Component
+public class SecurityVersionRegistry {
+
+    private static final int MAX_IDS_POR_CONSULTA = 1000;
+
+    private final UsuarioRepository usuarioRepository;
+    private final Cache<Long, Long> versiones;
+
+    public SecurityVersionRegistry(
+            UsuarioRepository usuarioRepository,
+            @Value("${app.security.version-cache.max-size:1000}") long maxSize,
+            @Value("${app.security.version-cache.ttl:5s}") Duration ttl) {
+        this.usuarioRepository = usuarioRepository;
+        this.versiones = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public long version(Long usuarioId) {
+        if (usuarioId == null) {
+            return 0L;
+        }
+        return versiones.get(usuarioId, id -> usuarioRepository.findVersionSeguridad(id).orElse(0L));
+    }
+
+    public boolean esVigente(Long usuarioId, long version) {
+        return usuarioId != null && version(usuarioId) == version;
+    }
+
+    public void incrementarUsuario(Long usuarioId) {
+        if (usuarioId == null) {
+            return;
+        }
+        usuarioRepository.incrementarVersionSeguridad(usuarioId);
+        AfterCommit.run(() -> versiones.invalidate(usuarioId));
+    }
+
+    public void incrementarPorRol(Long rolId) {
+        incrementar(usuarioRepository.findIdsByRolId(rolId));
+    }
+
+    /** Debe llamarse antes de borrar el permiso, mientras sus roles aún lo referencian. */
+    public void incrementarPorPermiso(Long permisoId) {
+        incrementar(usuarioRepository.findIdsByPermisoId(permisoId));
+    }
+
+    private void incrementar(List<Long> usuarioIds) {
+        if (usuarioIds.isEmpty()) {
+            return;
+        }
+        for (int desde = 0; desde < usuarioIds.size(); desde += MAX_IDS_POR_CONSULTA) {
+            usuarioRepository.incrementarVersionSeguridadDeUsuarios(
+                    usuarioIds.subList(desde, Math.min(usuarioIds.size(), desde + MAX_IDS_POR_CONSULTA)));
+        }
+        AfterCommit.run(() -> versiones.invalidateAll(usuarioIds));
+    }
+}
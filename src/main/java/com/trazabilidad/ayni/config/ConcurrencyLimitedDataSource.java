@@ -0,0 +1,110 @@
+package com.trazabilidad.ayni.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Deja pasar al pool como máximo {@code permisos} pedidos de conexión a la vez; el resto espera en una cola
+ * justa (orden de llegada) y el permiso se devuelve al cerrar la conexión. Con hilos virtuales Tomcat deja de
+ * acotar las peticiones concurrentes y, sin este límite, cientos de hilos competirían dentro de Hikari hasta
+ * agotar su connection-timeout.
+ */
+final class ConcurrencyLimitedDataSource extends DelegatingDataSource {
+
+    private final Semaphore permisos;
+    private final int maxPermisos;
+    private final long timeoutMillis;
+
+    ConcurrencyLimitedDataSource(DataSource target, int permisos, Duration timeout) {
+        super(target);
+        this.maxPermisos = Math.max(1, permisos);
+        this.permisos = new Semaphore(maxPermisos, true);
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return limitar(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return limitar(() -> super.getConnection(username, password));
+    }
+
+    int getMaxPermisos() {
+        return maxPermisos;
+    }
+
+    int getEnUso() {
+        return maxPermisos - permisos.availablePermits();
+    }
+
+    int getEnEspera() {
+        return permisos.getQueueLength();
+    }
+
+    private Connection limitar(Apertura apertura) throws SQLException {
+        boolean adquirido;
+        try {
+            adquirido = permisos.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrumpido mientras esperaba una conexion", ex);
+        }
+        if (!adquirido) {
+            throw new SQLTransientConnectionException("No hubo una conexion disponible en " + timeoutMillis
+                    + "ms (" + getEnEspera() + " pedidos en espera)");
+        }
+
+        try {
+            return liberarAlCerrar(apertura.abrir());
+        } catch (SQLException | RuntimeException ex) {
+            permisos.release();
+            throw ex;
+        }
+    }
+
+    private Connection liberarAlCerrar(Connection connection) {
+        AtomicBoolean liberado = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, metodo, args) -> switch (metodo.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "close" -> {
+                        try {
+                            yield invocar(connection, metodo, args);
+                        } finally {
+                            if (liberado.compareAndSet(false, true)) {
+                                permisos.release();
+                            }
+                        }
+                    }
+                    default -> invocar(connection, metodo, args);
+                });
+    }
+
+    private static Object invocar(Connection connection, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(connection, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Apertura {
+        Connection abrir() throws SQLException;
+    }
+}
@@ -0,0 +1,62 @@
+package com.trazabilidad.ayni.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Envuelve el DataSource en un {@link ConcurrencyLimitedDataSource} cuando
+ * {@code app.datasource.concurrency-limit.enabled} está activo (por defecto, junto con los hilos virtuales).
+ * Los permisos y la espera máxima toman el tamaño y el connection-timeout de Hikari si no se configuran.
+ */
+@Configuration
+public class DataSourceConcurrencyConfig {
+
+    @Bean
+    static BeanPostProcessor dataSourceConcurrencyLimiter(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitedDataSource
+                        || !environment.getProperty("app.datasource.concurrency-limit.enabled", Boolean.class, false)) {
+                    return bean;
+                }
+                HikariDataSource hikari = bean instanceof HikariDataSource pool ? pool : null;
+                int permisos = environment.getProperty("app.datasource.concurrency-limit.permits", Integer.class, 0);
+                Duration timeout = environment.getProperty("app.datasource.concurrency-limit.acquire-timeout", Duration.class, Duration.ZERO);
+                if (permisos <= 0) {
+                    permisos = hikari != null ? hikari.getMaximumPoolSize() : 10;
+                }
+                if (timeout.isZero() || timeout.isNegative()) {
+                    timeout = Duration.ofMillis(hikari != null ? hikari.getConnectionTimeout() : 30_000);
+                }
+                return new ConcurrencyLimitedDataSource(dataSource, permisos, timeout);
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder dataSourceConcurrencyMetrics(DataSource dataSource) {
+        return registry -> {
+            if (!(dataSource instanceof ConcurrencyLimitedDataSource limitado)) {
+                return;
+            }
+            Gauge.builder("db.connections.limiter.waiting", limitado, ConcurrencyLimitedDataSource::getEnEspera)
+                    .description("Pedidos de conexion en espera de un permiso")
+                    .register(registry);
+            Gauge.builder("db.connections.limiter.in-use", limitado, ConcurrencyLimitedDataSource::getEnUso)
+                    .description("Permisos de conexion en uso")
+                    .register(registry);
+            Gauge.builder("db.connections.limiter.max", limitado, ConcurrencyLimitedDataSource::getMaxPermisos)
+                    .description("Permisos de conexion configurados")
+                    .register(registry);
+        };
+    }
+}
@@ -2,6 +2,7 @@ package com.trazabilidad.ayni.costo;
 
 import com.trazabilidad.ayni.proyecto.Proyecto;
 import com.trazabilidad.ayni.shared.util.Auditable;
+import com.trazabilidad.ayni.shared.util.Constants;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -18,7 +19,8 @@ import lombok.*;
 public class CostoAdicionalCategoria extends Auditable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "costos_adicional_categoria_id_seq")
+    @SequenceGenerator(name = "costos_adicional_categoria_id_seq", sequenceName = "costos_adicional_categoria_id_seq", allocationSize = Constants.Persistence.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, length = 120)
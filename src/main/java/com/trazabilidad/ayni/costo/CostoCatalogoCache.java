@@ -0,0 +1,101 @@
+package com.trazabilidad.ayni.costo;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.trazabilidad.ayni.shared.util.AfterCommit;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Caché de los catálogos de costos (tipos de material, oficios y categorías de adicionales por proyecto).
+ * Cada entrada guarda la lista y un ETag derivado de su contenido; {@link CostoService} la invalida al
+ * confirmar cualquier cambio que pueda alterar el catálogo y el TTL cubre los cambios hechos fuera de la API.
+ * Las métricas se publican como {@code cache.*{cache="costos.catalogos"}}.
+ */
+@Component
+public class CostoCatalogoCache {
+
+    static final String CACHE_NAME = "costos.catalogos";
+
+    static final String TIPOS_MATERIAL = "tipos-material";
+    static final String TIPOS_MATERIAL_REGISTRO = "tipos-material-registro";
+    static final String OFICIOS = "oficios";
+    static final String OFICIOS_REGISTRO = "oficios-registro";
+    private static final String CATEGORIAS = "categorias:";
+    private static final String CATEGORIAS_REGISTRO = "categorias-registro:";
+
+    /** Catálogo en caché con el ETag de su contenido. */
+    public record Catalogo<T>(List<T> items, String etag) {
+    }
+
+    private final boolean enabled;
+    private final Cache<String, Catalogo<?>> cache;
+
+    public CostoCatalogoCache(
+            @Value("${app.costos.catalogos.cache.enabled:true}") boolean enabled,
+            @Value("${app.costos.catalogos.cache.max-size:1000}") long maxSize,
+            @Value("${app.costos.catalogos.cache.ttl:10m}") Duration ttl,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME));
+    }
+
+    static String categorias(Long proyectoId) {
+        return CATEGORIAS + proyectoId;
+    }
+
+    static String categoriasRegistro(Long proyectoId) {
+        return CATEGORIAS_REGISTRO + proyectoId;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Catalogo<T> obtener(String clave, Supplier<List<T>> loader) {
+        if (!enabled) {
+            return catalogo(loader.get());
+        }
+        return (Catalogo<T>) cache.get(clave, ignored -> catalogo(loader.get()));
+    }
+
+    public void invalidarTiposMaterial() {
+        AfterCommit.run(() -> cache.invalidateAll(List.of(TIPOS_MATERIAL, TIPOS_MATERIAL_REGISTRO)));
+    }
+
+    public void invalidarOficios() {
+        AfterCommit.run(() -> cache.invalidateAll(List.of(OFICIOS, OFICIOS_REGISTRO)));
+    }
+
+    public void invalidarCategorias(Long proyectoId) {
+        AfterCommit.run(() -> cache.invalidateAll(List.of(categorias(proyectoId), categoriasRegistro(proyectoId))));
+    }
+
+    private static <T> Catalogo<T> catalogo(List<T> items) {
+        List<T> copia = List.copyOf(items);
+        return new Catalogo<>(copia, etag(copia));
+    }
+
+    /** ETag fuerte: hash del contenido, igual en todas las instancias para el mismo catálogo. */
+    static String etag(List<?> items) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(items.toString().getBytes(StandardCharsets.UTF_8));
+            return '"' + HexFormat.of().formatHex(hash, 0, 16) + '"';
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
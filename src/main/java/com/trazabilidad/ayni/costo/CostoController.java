@@ -7,9 +7,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 
@@ -23,9 +26,11 @@ import java.util.List;
 public class CostoController {
 
     private final CostoService costoService;
+    private final CostoImportService costoImportService;
 
-    public CostoController(CostoService costoService) {
+    public CostoController(CostoService costoService, CostoImportService costoImportService) {
         this.costoService = costoService;
+        this.costoImportService = costoImportService;
     }
 
     // ==================== Resumen ====================
@@ -59,13 +64,13 @@ public class CostoController {
     @GetMapping("/materiales/tipos")
     @Operation(summary = "Listar tipos de materiales", description = "Obtiene los tipos de material disponibles del proyecto")
     public ResponseEntity<List<String>> obtenerTiposMaterial(@PathVariable Long proyectoId) {
-        return ResponseEntity.ok(costoService.obtenerTiposMaterial(proyectoId));
+        return catalogo(costoService.obtenerTiposMaterial(proyectoId));
     }
 
     @GetMapping("/materiales/tipos-registro")
     @Operation(summary = "Listar tipos de materiales persistidos", description = "Obtiene los tipos registrados aunque no tengan items")
     public ResponseEntity<List<CostoCatalogoResponse>> obtenerTiposMaterialPersistidos(@PathVariable Long proyectoId) {
-        return ResponseEntity.ok(costoService.obtenerTiposMaterialPersistidos(proyectoId));
+        return catalogo(costoService.obtenerTiposMaterialPersistidos(proyectoId));
     }
 
     @PostMapping("/materiales/tipos-registro")
@@ -167,13 +172,13 @@ public class CostoController {
     @GetMapping("/mano-obra/oficios")
     @Operation(summary = "Listar oficios", description = "Obtiene los oficios disponibles de mano de obra del proyecto")
     public ResponseEntity<List<String>> obtenerOficiosManoObra(@PathVariable Long proyectoId) {
-        return ResponseEntity.ok(costoService.obtenerOficiosManoObra(proyectoId));
+        return catalogo(costoService.obtenerOficiosManoObra(proyectoId));
     }
 
     @GetMapping("/mano-obra/oficios-registro")
     @Operation(summary = "Listar oficios persistidos", description = "Obtiene los oficios registrados aunque no tengan items")
     public ResponseEntity<List<CostoCatalogoResponse>> obtenerOficiosManoObraPersistidos(@PathVariable Long proyectoId) {
-        return ResponseEntity.ok(costoService.obtenerOficiosManoObraPersistidos(proyectoId));
+        return catalogo(costoService.obtenerOficiosManoObraPersistidos(proyectoId));
     }
 
     @PostMapping("/mano-obra/oficios-registro")
@@ -280,15 +285,14 @@ public class CostoController {
     })
     public ResponseEntity<List<String>> obtenerCategorias(
             @Parameter(description = "ID del proyecto") @PathVariable Long proyectoId) {
-        List<String> categorias = costoService.obtenerCategorias(proyectoId);
-        return ResponseEntity.ok(categorias);
+        return catalogo(costoService.obtenerCategorias(proyectoId));
     }
 
     @GetMapping("/adicionales/categorias-registro")
     @Operation(summary = "Listar categorías persistidas", description = "Obtiene categorías de costos adicionales aunque no tengan items")
     public ResponseEntity<List<CostoAdicionalCategoriaResponse>> obtenerCategoriasPersistidas(
             @PathVariable Long proyectoId) {
-        return ResponseEntity.ok(costoService.obtenerCategoriasPersistidas(proyectoId));
+        return catalogo(costoService.obtenerCategoriasPersistidas(proyectoId));
     }
 
     @PostMapping("/adicionales/categorias-registro")
@@ -363,4 +367,32 @@ public class CostoController {
         costoService.eliminarAdicional(proyectoId, id);
         return ResponseEntity.noContent().build();
     }
+
+    // ==================== Importación ====================
+
+    @PostMapping(value = "/importar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Importar costos desde Excel", description = "Registra los costos de las hojas Materiales, Mano de obra y Otros costos de un archivo .xlsx. "
+            + "Con parcial=true guarda las filas válidas; si no, cualquier error cancela la importación")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Archivo procesado; ver errores por fila"),
+            @ApiResponse(responseCode = "400", description = "Archivo inválido o sin hojas reconocidas"),
+            @ApiResponse(responseCode = "404", description = "Proyecto no encontrado")
+    })
+    public ResponseEntity<ImportacionCostosResponse> importar(
+            @Parameter(description = "ID del proyecto") @PathVariable Long proyectoId,
+            @RequestParam("archivo") MultipartFile archivo,
+            @RequestParam(defaultValue = "false") boolean parcial) {
+        return ResponseEntity.ok(costoImportService.importar(proyectoId, archivo, parcial));
+    }
+
+    /**
+     * Respuesta de catálogo con ETag: si el cliente envía el mismo valor en If-None-Match,
+     * Spring responde 304 sin cuerpo. {@code no-cache} obliga a revalidar en cada uso.
+     */
+    private <T> ResponseEntity<List<T>> catalogo(CostoCatalogoCache.Catalogo<T> catalogo) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(catalogo.etag())
+                .body(catalogo.items());
+    }
 }
@@ -0,0 +1,121 @@
+package com.trazabilidad.ayni.costo;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lee un libro XLSX con el parser SAX de POI ({@link XSSFReader}): las filas se entregan una a una
+ * al {@link Lector} y nunca se arma el libro en memoria. Los números llegan sin formato
+ * ("1234.5") y las celdas con formato de fecha como fecha ISO ("2024-03-05").
+ */
+final class CostoExcelReader {
+
+    /** Recibe las hojas y sus filas en el orden del archivo. */
+    interface Lector {
+        /** Devuelve false para saltar la hoja completa. */
+        boolean hoja(String nombre);
+
+        /** Fila con datos; {@code numeroFila} es el número que ve el usuario en Excel. */
+        void fila(int numeroFila, List<String> celdas);
+    }
+
+    private CostoExcelReader() {
+    }
+
+    /**
+     * Las excepciones declaradas son las de un archivo que no es un XLSX legible; cualquier otra es un error
+     * del lector o del {@link Lector} y se propaga tal cual.
+     */
+    static void leer(Path archivo, Lector lector) throws IOException, OpenXML4JException, SAXException {
+        try (OPCPackage paquete = OPCPackage.open(archivo.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(paquete);
+            ReadOnlySharedStringsTable textos = new ReadOnlySharedStringsTable(paquete, false);
+            StylesTable estilos = reader.getStylesTable();
+            XSSFReader.SheetIterator hojas = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (hojas.hasNext()) {
+                try (InputStream hoja = hojas.next()) {
+                    if (!lector.hoja(hojas.getSheetName())) {
+                        continue;
+                    }
+                    XMLReader parser = nuevoParser();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(estilos, null, textos, new Filas(lector),
+                            new ValorCrudoFormatter(), false));
+                    parser.parse(new InputSource(hoja));
+                }
+            }
+        }
+    }
+
+    private static XMLReader nuevoParser() throws SAXException {
+        try {
+            return XMLHelper.newXMLReader();
+        } catch (ParserConfigurationException ex) {
+            throw new IllegalStateException("No se pudo configurar el parser XML", ex);
+        }
+    }
+
+    private static final class Filas implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final Lector lector;
+        private final List<String> celdas = new ArrayList<>();
+        private int siguienteColumna;
+
+        private Filas(Lector lector) {
+            this.lector = lector;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            celdas.clear();
+            siguienteColumna = 0;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (celdas.stream().anyMatch(valor -> valor != null && !valor.isBlank())) {
+                lector.fila(rowNum + 1, celdas);
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int columna = cellReference != null ? new CellReference(cellReference).getCol() : siguienteColumna;
+            while (celdas.size() < columna) {
+                celdas.add(null);
+            }
+            celdas.add(formattedValue != null ? formattedValue.trim() : null);
+            siguienteColumna = columna + 1;
+        }
+    }
+
+    /** Entrega el valor crudo de las celdas numéricas en vez de aplicar el formato de la hoja. */
+    private static final class ValorCrudoFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value, use1904Windowing).toLocalDate().toString();
+            }
+            return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+        }
+    }
+}
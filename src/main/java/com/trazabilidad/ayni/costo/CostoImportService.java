@@ -0,0 +1,550 @@
+package com.trazabilidad.ayni.costo;
+
+import com.trazabilidad.ayni.costo.GastoDiarioService.Movimiento;
+import com.trazabilidad.ayni.costo.dto.ImportacionCostosResponse;
+import com.trazabilidad.ayni.costo.dto.ImportacionCostosResponse.ErrorFila;
+import com.trazabilidad.ayni.proyecto.ProyectoLifecycleService;
+import com.trazabilidad.ayni.proyecto.ProyectoRepository;
+import com.trazabilidad.ayni.shared.audit.Auditable;
+import com.trazabilidad.ayni.shared.exception.BadRequestException;
+import com.trazabilidad.ayni.shared.exception.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.UnsupportedFileFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Importa costos de un proyecto desde un libro XLSX con hojas "Materiales", "Mano de obra" y
+ * "Otros costos" (o "Adicionales"). El libro se lee por SAX con {@link CostoExcelReader} y las filas
+ * válidas se insertan en lotes JDBC, así la memoria depende del tamaño de lote y no del archivo.
+ * Sin {@code parcial} el libro se valida completo antes de escribir: un solo error y no se guarda nada.
+ */
+@Slf4j
+@Service
+public class CostoImportService {
+
+    private static final String INSERT_MATERIAL_SQL = "insert into costos_material (material, tipo, tipo_material_id, unidad, "
+            + "cantidad, costo_unitario, costo_total, fecha, nro_comprobante, encargado, proyecto_id, fecha_creacion, "
+            + "fecha_actualizacion) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int[] TIPOS_MATERIAL = { Types.VARCHAR, Types.VARCHAR, Types.BIGINT, Types.VARCHAR, Types.NUMERIC,
+            Types.NUMERIC, Types.NUMERIC, Types.DATE, Types.VARCHAR, Types.VARCHAR, Types.BIGINT, Types.TIMESTAMP,
+            Types.TIMESTAMP };
+
+    private static final String INSERT_MANO_OBRA_SQL = "insert into costos_mano_obra (trabajador, funcion, horas_trabajadas, "
+            + "costo_hora, costo_total, proyecto_id, fecha_creacion, fecha_actualizacion) values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int[] TIPOS_MANO_OBRA = { Types.VARCHAR, Types.VARCHAR, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
+            Types.BIGINT, Types.TIMESTAMP, Types.TIMESTAMP };
+
+    private static final String INSERT_ADICIONAL_SQL = "insert into costos_adicional (categoria, tipo_gasto, descripcion, "
+            + "cantidad, costo_unitario, monto, fecha, encargado, proyecto_id, fecha_creacion, fecha_actualizacion) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int[] TIPOS_ADICIONAL = { Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.NUMERIC, Types.NUMERIC,
+            Types.NUMERIC, Types.DATE, Types.VARCHAR, Types.BIGINT, Types.TIMESTAMP, Types.TIMESTAMP };
+
+    /** Límites de las columnas NUMERIC(8,2), NUMERIC(10,2) y NUMERIC(12,2). */
+    private static final BigDecimal MAX_8_2 = new BigDecimal("1000000");
+    private static final BigDecimal MAX_10_2 = new BigDecimal("100000000");
+    private static final BigDecimal MAX_12_2 = new BigDecimal("10000000000");
+
+    private static final DateTimeFormatter FECHA_DMY = DateTimeFormatter.ofPattern("d/M/uuuu");
+
+    /** Hojas reconocidas: nombres aceptados, columnas (alias normalizado -> campo) y columnas obligatorias. */
+    enum TipoHoja {
+        MATERIALES(Set.of("materiales", "material"),
+                Map.ofEntries(Map.entry("fecha", "fecha"), Map.entry("comprobante", "comprobante"),
+                        Map.entry("nro comprobante", "comprobante"), Map.entry("tipo", "tipo"),
+                        Map.entry("producto", "producto"), Map.entry("material", "producto"),
+                        Map.entry("unidad", "unidad"), Map.entry("cantidad", "cantidad"),
+                        Map.entry("costo unitario", "costoUnitario"), Map.entry("precio unitario", "costoUnitario"),
+                        Map.entry("encargado", "encargado")),
+                Set.of("producto", "costoUnitario")),
+        MANO_OBRA(Set.of("mano de obra", "mano obra"),
+                Map.of("trabajador", "trabajador", "oficio", "oficio", "cargo", "oficio", "funcion", "oficio",
+                        "dias", "dias", "dias trabajados", "dias", "dias trabajando", "dias",
+                        "costo por dia", "costoPorDia", "costo dia", "costoPorDia", "jornal", "costoPorDia"),
+                Set.of("trabajador", "costoPorDia")),
+        ADICIONALES(Set.of("otros costos", "adicionales", "costos adicionales"),
+                Map.of("fecha", "fecha", "categoria", "categoria", "descripcion", "descripcion",
+                        "cantidad", "cantidad", "costo unitario", "costoUnitario", "precio unitario", "costoUnitario",
+                        "encargado", "encargado"),
+                Set.of("categoria", "cantidad", "costoUnitario"));
+
+        private final Set<String> nombres;
+        private final Map<String, String> columnas;
+        private final Set<String> requeridas;
+
+        TipoHoja(Set<String> nombres, Map<String, String> columnas, Set<String> requeridas) {
+            this.nombres = nombres;
+            this.columnas = columnas;
+            this.requeridas = requeridas;
+        }
+
+        static TipoHoja de(String nombreHoja) {
+            String nombre = normalizar(nombreHoja);
+            for (TipoHoja tipo : values()) {
+                if (tipo.nombres.contains(nombre)) {
+                    return tipo;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProyectoRepository proyectoRepository;
+    private final ProyectoLifecycleService proyectoLifecycleService;
+    private final CostoMaterialTipoRepository costoMaterialTipoRepository;
+    private final CostoManoObraOficioRepository costoManoObraOficioRepository;
+    private final CostoAdicionalCategoriaRepository costoAdicionalCategoriaRepository;
+    private final GastoDiarioService gastoDiarioService;
+    private final ProyectoCostoTotalesService proyectoCostoTotalesService;
+    private final CostoCatalogoCache costoCatalogoCache;
+    private final int batchSize;
+    private final int maxErrores;
+
+    public CostoImportService(
+            JdbcTemplate jdbcTemplate,
+            ProyectoRepository proyectoRepository,
+            ProyectoLifecycleService proyectoLifecycleService,
+            CostoMaterialTipoRepository costoMaterialTipoRepository,
+            CostoManoObraOficioRepository costoManoObraOficioRepository,
+            CostoAdicionalCategoriaRepository costoAdicionalCategoriaRepository,
+            GastoDiarioService gastoDiarioService,
+            ProyectoCostoTotalesService proyectoCostoTotalesService,
+            CostoCatalogoCache costoCatalogoCache,
+            @Value("${app.costos.import.batch-size:500}") int batchSize,
+            @Value("${app.costos.import.max-errores:1000}") int maxErrores) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.proyectoRepository = proyectoRepository;
+        this.proyectoLifecycleService = proyectoLifecycleService;
+        this.costoMaterialTipoRepository = costoMaterialTipoRepository;
+        this.costoManoObraOficioRepository = costoManoObraOficioRepository;
+        this.costoAdicionalCategoriaRepository = costoAdicionalCategoriaRepository;
+        this.gastoDiarioService = gastoDiarioService;
+        this.proyectoCostoTotalesService = proyectoCostoTotalesService;
+        this.costoCatalogoCache = costoCatalogoCache;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxErrores = Math.max(1, maxErrores);
+    }
+
+    /**
+     * Importa el libro en el proyecto. Con {@code parcial} se guardan las filas válidas y se informan las demás;
+     * sin él, cualquier error deja el proyecto sin cambios.
+     */
+    @Transactional
+    @Auditable(accion = "IMPORTAR", entidad = "Costo")
+    public ImportacionCostosResponse importar(Long proyectoId, MultipartFile archivo, boolean parcial) {
+        if (!proyectoRepository.existsById(proyectoId)) {
+            throw new EntityNotFoundException("Proyecto", proyectoId);
+        }
+        if (archivo == null || archivo.isEmpty()) {
+            throw new BadRequestException("Debe adjuntar un archivo Excel (.xlsx)");
+        }
+
+        Catalogos catalogos = cargarCatalogos(proyectoId);
+        Path temporal = null;
+        try {
+            temporal = Files.createTempFile("ayni-costos-", ".xlsx");
+            archivo.transferTo(temporal);
+
+            Importacion importacion;
+            if (parcial) {
+                importacion = leer(temporal, new Importacion(proyectoId, catalogos, true));
+            } else {
+                importacion = leer(temporal, new Importacion(proyectoId, catalogos, false));
+                if (importacion.filasConError == 0) {
+                    importacion = leer(temporal, new Importacion(proyectoId, catalogos, true));
+                }
+            }
+
+            boolean guardado = importacion.escribir && importacion.filasGuardadas() > 0;
+            if (guardado) {
+                proyectoLifecycleService.marcarProyectoComoModificado(proyectoId);
+                costoCatalogoCache.invalidarTiposMaterial();
+                costoCatalogoCache.invalidarOficios();
+                costoCatalogoCache.invalidarCategorias(proyectoId);
+            }
+            log.info("Importacion de costos del proyecto {}: {} materiales, {} mano de obra, {} adicionales, {} filas con error",
+                    proyectoId, importacion.cantidades.get(TipoHoja.MATERIALES), importacion.cantidades.get(TipoHoja.MANO_OBRA),
+                    importacion.cantidades.get(TipoHoja.ADICIONALES), importacion.filasConError);
+            return ImportacionCostosResponse.builder()
+                    .materialesImportados(importacion.cantidades.get(TipoHoja.MATERIALES))
+                    .manoObraImportada(importacion.cantidades.get(TipoHoja.MANO_OBRA))
+                    .adicionalesImportados(importacion.cantidades.get(TipoHoja.ADICIONALES))
+                    .filasConError(importacion.filasConError)
+                    .guardado(guardado)
+                    .errores(importacion.errores)
+                    .build();
+        } catch (IOException ex) {
+            throw new BadRequestException("No se pudo leer el archivo: " + ex.getMessage());
+        } finally {
+            if (temporal != null) {
+                try {
+                    Files.deleteIfExists(temporal);
+                } catch (IOException ex) {
+                    log.debug("No se pudo eliminar temporal {}", temporal, ex);
+                }
+            }
+        }
+    }
+
+    private Importacion leer(Path temporal, Importacion importacion) {
+        try {
+            CostoExcelReader.leer(temporal, importacion);
+        } catch (IOException | OpenXML4JException | SAXException | UnsupportedFileFormatException ex) {
+            throw new BadRequestException("El archivo no es un libro Excel (.xlsx) valido", ex);
+        }
+        if (!importacion.hojaReconocida) {
+            throw new BadRequestException("El libro no tiene hojas de Materiales, Mano de obra u Otros costos");
+        }
+        importacion.vaciar();
+        return importacion;
+    }
+
+    /** Catálogos del sistema y del proyecto indexados por nombre, cargados una vez por importación. */
+    private Catalogos cargarCatalogos(Long proyectoId) {
+        return new Catalogos(
+                porNombre(costoMaterialTipoRepository.findAllByOrderByNombreAsc(), CostoMaterialTipo::getNombre),
+                porNombre(costoManoObraOficioRepository.findAllByOrderByNombreAsc(), CostoManoObraOficio::getNombre),
+                porNombre(costoAdicionalCategoriaRepository.findByProyectoIdOrderByNombreAsc(proyectoId),
+                        CostoAdicionalCategoria::getNombre));
+    }
+
+    private static <T> Map<String, T> porNombre(List<T> items, Function<T, String> nombre) {
+        return items.stream().collect(Collectors.toMap(item -> nombre.apply(item).trim().toLowerCase(Locale.ROOT),
+                Function.identity(), (primero, segundo) -> primero));
+    }
+
+    private record Catalogos(Map<String, CostoMaterialTipo> tiposMaterial,
+            Map<String, CostoManoObraOficio> oficios,
+            Map<String, CostoAdicionalCategoria> categorias) {
+    }
+
+    /** Estado de una pasada sobre el libro; con {@code escribir} en false solo valida. */
+    private final class Importacion implements CostoExcelReader.Lector {
+        private final Long proyectoId;
+        private final Catalogos catalogos;
+        private final boolean escribir;
+        private final Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        private final LocalDate hoy = ahora.toLocalDateTime().toLocalDate();
+        private final Map<TipoHoja, Lote> lotes = new EnumMap<>(TipoHoja.class);
+        private final Map<TipoHoja, Integer> cantidades = new EnumMap<>(TipoHoja.class);
+        private final List<ErrorFila> errores = new ArrayList<>();
+        private int filasConError;
+        private boolean hojaReconocida;
+
+        private String hoja;
+        private TipoHoja tipo;
+        private Map<String, Integer> columnas;
+
+        private Importacion(Long proyectoId, Catalogos catalogos, boolean escribir) {
+            this.proyectoId = proyectoId;
+            this.catalogos = catalogos;
+            this.escribir = escribir;
+            lotes.put(TipoHoja.MATERIALES, new Lote(INSERT_MATERIAL_SQL, TIPOS_MATERIAL));
+            lotes.put(TipoHoja.MANO_OBRA, new Lote(INSERT_MANO_OBRA_SQL, TIPOS_MANO_OBRA));
+            lotes.put(TipoHoja.ADICIONALES, new Lote(INSERT_ADICIONAL_SQL, TIPOS_ADICIONAL));
+            for (TipoHoja tipoHoja : TipoHoja.values()) {
+                cantidades.put(tipoHoja, 0);
+            }
+        }
+
+        @Override
+        public boolean hoja(String nombre) {
+            hoja = nombre;
+            tipo = TipoHoja.de(nombre);
+            columnas = null;
+            hojaReconocida |= tipo != null;
+            return tipo != null;
+        }
+
+        @Override
+        public void fila(int numeroFila, List<String> celdas) {
+            if (columnas == null) {
+                leerCabecera(numeroFila, celdas);
+                return;
+            }
+            if (columnas.isEmpty()) {
+                return;
+            }
+            Fila fila = new Fila(celdas);
+            switch (tipo) {
+                case MATERIALES -> material(fila);
+                case MANO_OBRA -> manoObra(fila);
+                case ADICIONALES -> adicional(fila);
+            }
+            if (fila.errores.isEmpty()) {
+                cantidades.merge(tipo, 1, Integer::sum);
+            } else {
+                registrarError(numeroFila, String.join("; ", fila.errores));
+            }
+        }
+
+        private void leerCabecera(int numeroFila, List<String> celdas) {
+            columnas = new HashMap<>();
+            for (int i = 0; i < celdas.size(); i++) {
+                String campo = tipo.columnas.get(normalizar(celdas.get(i)));
+                if (campo != null) {
+                    columnas.putIfAbsent(campo, i);
+                }
+            }
+            List<String> faltantes = tipo.requeridas.stream()
+                    .filter(campo -> !columnas.containsKey(campo))
+                    .sorted()
+                    .toList();
+            if (!faltantes.isEmpty()) {
+                registrarError(numeroFila, "Faltan columnas obligatorias: " + String.join(", ", faltantes));
+                columnas = Map.of();
+            }
+        }
+
+        private void material(Fila fila) {
+            String producto = fila.texto("producto", "Producto", 200, true);
+            String tipoTexto = fila.texto("tipo", "Tipo", 120, false);
+            String unidad = fila.texto("unidad", "Unidad", 50, false);
+            BigDecimal cantidad = fila.decimal("cantidad", "Cantidad", MAX_10_2, false);
+            BigDecimal costoUnitario = fila.decimal("costoUnitario", "Costo unitario", MAX_12_2, true);
+            LocalDate fecha = fila.fecha("fecha", "Fecha");
+            String comprobante = fila.texto("comprobante", "Comprobante", 100, false);
+            String encargado = fila.texto("encargado", "Encargado", 200, false);
+            if (cantidad == null) {
+                cantidad = BigDecimal.ONE.setScale(2);
+            }
+            BigDecimal total = fila.total(cantidad, costoUnitario);
+            if (!fila.errores.isEmpty() || !escribir) {
+                return;
+            }
+
+            CostoMaterialTipo tipoMaterial = tipoTexto != null ? catalogos.tiposMaterial().get(tipoTexto.toLowerCase(Locale.ROOT)) : null;
+            lotes.get(TipoHoja.MATERIALES).agregar(new Object[] { producto,
+                    tipoMaterial != null ? tipoMaterial.getNombre() : tipoTexto, tipoMaterial != null ? tipoMaterial.getId() : null,
+                    unidad, cantidad, costoUnitario, total, fecha, comprobante, encargado, proyectoId, ahora, ahora },
+                    new Movimiento(proyectoId, GastoDiarioService.MATERIALES, fecha != null ? fecha : hoy, total, 1));
+        }
+
+        private void manoObra(Fila fila) {
+            String trabajador = fila.texto("trabajador", "Trabajador", 200, true);
+            String oficioTexto = fila.texto("oficio", "Oficio", 150, false);
+            // Los días son opcionales como en el formulario: sin ellos el costo total queda en cero
+            BigDecimal dias = fila.decimal("dias", "Dias", MAX_8_2, false);
+            BigDecimal costoPorDia = fila.decimal("costoPorDia", "Costo por dia", MAX_10_2, true);
+            BigDecimal total = dias != null ? fila.total(dias, costoPorDia) : BigDecimal.ZERO.setScale(2);
+            if (!fila.errores.isEmpty() || !escribir) {
+                return;
+            }
+
+            CostoManoObraOficio oficio = oficioTexto != null ? catalogos.oficios().get(oficioTexto.toLowerCase(Locale.ROOT)) : null;
+            lotes.get(TipoHoja.MANO_OBRA).agregar(new Object[] { trabajador,
+                    oficio != null ? oficio.getNombre() : oficioTexto, dias, costoPorDia, total, proyectoId, ahora, ahora },
+                    new Movimiento(proyectoId, GastoDiarioService.MANO_OBRA, hoy, total, 1));
+        }
+
+        private void adicional(Fila fila) {
+            String categoriaTexto = fila.texto("categoria", "Categoria", 100, true);
+            String descripcion = fila.texto("descripcion", "Descripcion", Integer.MAX_VALUE, false);
+            BigDecimal cantidad = fila.decimal("cantidad", "Cantidad", MAX_10_2, true);
+            BigDecimal costoUnitario = fila.decimal("costoUnitario", "Costo unitario", MAX_12_2, true);
+            LocalDate fecha = fila.fecha("fecha", "Fecha");
+            String encargado = fila.texto("encargado", "Encargado", 200, false);
+            BigDecimal monto = fila.total(cantidad, costoUnitario);
+            if (!fila.errores.isEmpty() || !escribir) {
+                return;
+            }
+
+            CostoAdicionalCategoria categoria = catalogos.categorias().get(categoriaTexto.toLowerCase(Locale.ROOT));
+            String nombreCategoria = categoria != null ? categoria.getNombre() : categoriaTexto;
+            lotes.get(TipoHoja.ADICIONALES).agregar(new Object[] { nombreCategoria, nombreCategoria, descripcion,
+                    cantidad, costoUnitario, monto, fecha, encargado, proyectoId, ahora, ahora },
+                    new Movimiento(proyectoId, GastoDiarioService.OTROS_COSTOS, fecha != null ? fecha : hoy, monto, 1));
+        }
+
+        private void registrarError(int numeroFila, String mensaje) {
+            filasConError++;
+            if (errores.size() < maxErrores) {
+                errores.add(new ErrorFila(hoja, numeroFila, mensaje));
+            }
+        }
+
+        private int filasGuardadas() {
+            return cantidades.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        private void vaciar() {
+            lotes.values().forEach(Lote::vaciar);
+        }
+
+        /** Acceso a las celdas de una fila por campo, acumulando los errores de validación. */
+        private final class Fila {
+            private final List<String> celdas;
+            private final List<String> errores = new ArrayList<>();
+
+            private Fila(List<String> celdas) {
+                this.celdas = celdas;
+            }
+
+            private String valor(String campo) {
+                Integer indice = columnas.get(campo);
+                if (indice == null || indice >= celdas.size()) {
+                    return null;
+                }
+                String valor = celdas.get(indice);
+                return valor == null || valor.isBlank() ? null : valor.trim();
+            }
+
+            private String texto(String campo, String etiqueta, int maximo, boolean requerido) {
+                String valor = valor(campo);
+                if (valor == null) {
+                    if (requerido) {
+                        errores.add(etiqueta + " es obligatorio");
+                    }
+                    return null;
+                }
+                if (valor.length() > maximo) {
+                    errores.add(etiqueta + " supera " + maximo + " caracteres");
+                    return null;
+                }
+                return valor;
+            }
+
+            private BigDecimal decimal(String campo, String etiqueta, BigDecimal limite, boolean requerido) {
+                String valor = valor(campo);
+                if (valor == null) {
+                    if (requerido) {
+                        errores.add(etiqueta + " es obligatorio");
+                    }
+                    return null;
+                }
+                BigDecimal numero = numero(valor);
+                if (numero == null) {
+                    errores.add(etiqueta + " no es un numero: " + valor);
+                    return null;
+                }
+                numero = numero.setScale(2, RoundingMode.HALF_UP);
+                if (numero.signum() <= 0) {
+                    errores.add(etiqueta + " debe ser mayor a cero");
+                    return null;
+                }
+                if (numero.compareTo(limite) >= 0) {
+                    errores.add(etiqueta + " excede el maximo permitido");
+                    return null;
+                }
+                return numero;
+            }
+
+            private LocalDate fecha(String campo, String etiqueta) {
+                String valor = valor(campo);
+                if (valor == null) {
+                    return null;
+                }
+                try {
+                    return valor.indexOf('/') >= 0 ? LocalDate.parse(valor, FECHA_DMY) : LocalDate.parse(valor);
+                } catch (DateTimeParseException ex) {
+                    errores.add(etiqueta + " no es una fecha valida (dd/mm/aaaa): " + valor);
+                    return null;
+                }
+            }
+
+            private BigDecimal total(BigDecimal cantidad, BigDecimal precio) {
+                if (cantidad == null || precio == null) {
+                    return null;
+                }
+                BigDecimal total = cantidad.multiply(precio).setScale(2, RoundingMode.HALF_UP);
+                if (total.compareTo(MAX_12_2) >= 0) {
+                    errores.add("El total excede el maximo permitido");
+                    return null;
+                }
+                return total;
+            }
+        }
+    }
+
+    /** Filas pendientes de insertar y sus movimientos de gasto; se envían al llegar a {@code batchSize}. */
+    private final class Lote {
+        private final String sql;
+        private final int[] tipos;
+        private final List<Object[]> filas = new ArrayList<>();
+        private final List<Movimiento> movimientos = new ArrayList<>();
+
+        private Lote(String sql, int[] tipos) {
+            this.sql = sql;
+            this.tipos = tipos;
+        }
+
+        private void agregar(Object[] fila, Movimiento movimiento) {
+            filas.add(fila);
+            movimientos.add(movimiento);
+            if (filas.size() >= batchSize) {
+                vaciar();
+            }
+        }
+
+        private void vaciar() {
+            if (filas.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate(sql, filas, tipos);
+            gastoDiarioService.aplicar(movimientos);
+            proyectoCostoTotalesService.aplicar(movimientos);
+            filas.clear();
+            movimientos.clear();
+        }
+    }
+
+    /**
+     * Acepta "1234.5", "1234,5", "1,234.50" y "1.234,50"; devuelve null si el texto no es un número.
+     */
+    static BigDecimal numero(String texto) {
+        String limpio = texto.replace("S/", "").replace(" ", "").replace(" ", "");
+        int coma = limpio.lastIndexOf(',');
+        int punto = limpio.lastIndexOf('.');
+        if (coma >= 0 && punto >= 0) {
+            limpio = coma > punto ? limpio.replace(".", "").replace(',', '.') : limpio.replace(",", "");
+        } else if (coma >= 0) {
+            limpio = limpio.replace(',', '.');
+        }
+        try {
+            return new BigDecimal(limpio);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /** Minúsculas sin tildes ni signos: "Días Trabajados" y "dias_trabajados" son la misma cabecera. */
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        return Normalizer.normalize(texto, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z0-9]+", " ")
+                .trim();
+    }
+}
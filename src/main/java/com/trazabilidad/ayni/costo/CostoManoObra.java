@@ -2,6 +2,7 @@ package com.trazabilidad.ayni.costo;
 
 import com.trazabilidad.ayni.proyecto.Proyecto;
 import com.trazabilidad.ayni.shared.util.Auditable;
+import com.trazabilidad.ayni.shared.util.Constants;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -26,7 +27,8 @@ import java.math.BigDecimal;
 public class CostoManoObra extends Auditable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "costos_mano_obra_id_seq")
+    @SequenceGenerator(name = "costos_mano_obra_id_seq", sequenceName = "costos_mano_obra_id_seq", allocationSize = Constants.Persistence.ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "El trabajador es obligatorio")
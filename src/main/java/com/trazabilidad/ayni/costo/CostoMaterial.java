@@ -2,6 +2,7 @@ package com.trazabilidad.ayni.costo;
 
 import com.trazabilidad.ayni.proyecto.Proyecto;
 import com.trazabilidad.ayni.shared.util.Auditable;
+import com.trazabilidad.ayni.shared.util.Constants;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -27,7 +28,8 @@ import java.time.LocalDate;
 public class CostoMaterial extends Auditable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "costos_material_id_seq")
+    @SequenceGenerator(name = "costos_material_id_seq", sequenceName = "costos_material_id_seq", allocationSize = Constants.Persistence.ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "El material es obligatorio")
@@ -1,6 +1,7 @@
 package com.trazabilidad.ayni.costo;
 
 import com.trazabilidad.ayni.shared.util.Auditable;
+import com.trazabilidad.ayni.shared.util.Constants;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -15,7 +16,8 @@ import lombok.*;
 public class CostoMaterialTipo extends Auditable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "costos_material_tipo_id_seq")
+    @SequenceGenerator(name = "costos_material_tipo_id_seq", sequenceName = "costos_material_tipo_id_seq", allocationSize = Constants.Persistence.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, length = 120)
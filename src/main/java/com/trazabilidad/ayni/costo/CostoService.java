@@ -33,6 +33,9 @@ public class CostoService {
     private final CostoManoObraOficioRepository costoManoObraOficioRepository;
     private final ProyectoRepository proyectoRepository;
     private final ProyectoLifecycleService proyectoLifecycleService;
+    private final GastoDiarioService gastoDiarioService;
+    private final ProyectoCostoTotalesService proyectoCostoTotalesService;
+    private final CostoCatalogoCache costoCatalogoCache;
 
     // ==================== CostoMaterial ====================
 
@@ -46,23 +49,29 @@ public class CostoService {
         return CostoMapper.toMaterialResponseList(materiales);
     }
 
+    /**
+     * Tipos de material del catálogo más los usados en materiales registrados; se sirve desde {@link CostoCatalogoCache}.
+     */
     @Transactional(readOnly = true)
-    public List<String> obtenerTiposMaterial(Long proyectoId) {
+    public CostoCatalogoCache.Catalogo<String> obtenerTiposMaterial(Long proyectoId) {
         validarProyectoExiste(proyectoId);
-        List<String> tiposPersistidos = costoMaterialTipoRepository.findAllByOrderByNombreAsc().stream()
-                .map(CostoMaterialTipo::getNombre)
-                .toList();
-        List<String> tiposRelacionados = costoMaterialRepository.findDistinctTiposRelacionados();
-        List<String> tiposLegacy = costoMaterialRepository.findDistinctTipos();
-        return combinarNombresCatalogo(tiposPersistidos, combinarNombresCatalogo(tiposRelacionados, tiposLegacy));
+        return costoCatalogoCache.obtener(CostoCatalogoCache.TIPOS_MATERIAL, () -> {
+            List<String> tiposPersistidos = costoMaterialTipoRepository.findAllByOrderByNombreAsc().stream()
+                    .map(CostoMaterialTipo::getNombre)
+                    .toList();
+            List<String> tiposRelacionados = costoMaterialRepository.findDistinctTiposRelacionados();
+            List<String> tiposLegacy = costoMaterialRepository.findDistinctTipos();
+            return combinarNombresCatalogo(tiposPersistidos, combinarNombresCatalogo(tiposRelacionados, tiposLegacy));
+        });
     }
 
     @Transactional(readOnly = true)
-    public List<CostoCatalogoResponse> obtenerTiposMaterialPersistidos(Long proyectoId) {
+    public CostoCatalogoCache.Catalogo<CostoCatalogoResponse> obtenerTiposMaterialPersistidos(Long proyectoId) {
         validarProyectoExiste(proyectoId);
-        return costoMaterialTipoRepository.findAllByOrderByNombreAsc().stream()
-                .map(this::toCatalogoResponse)
-                .toList();
+        return costoCatalogoCache.obtener(CostoCatalogoCache.TIPOS_MATERIAL_REGISTRO,
+                () -> costoMaterialTipoRepository.findAllByOrderByNombreAsc().stream()
+                        .map(this::toCatalogoResponse)
+                        .toList());
     }
 
     @Auditable(accion = "CREAR", entidad = "TipoMaterial")
@@ -75,6 +84,7 @@ public class CostoService {
                         .nombre(nombre)
                         .build()));
 
+        costoCatalogoCache.invalidarTiposMaterial();
         proyectoLifecycleService.marcarProyectoComoModificado(proyecto);
         return toCatalogoResponse(tipo);
     }
@@ -93,6 +103,7 @@ public class CostoService {
                 });
         tipo.setNombre(nombreNuevo);
         tipo = costoMaterialTipoRepository.save(tipo);
+        costoCatalogoCache.invalidarTiposMaterial();
         proyectoLifecycleService.marcarProyectoComoModificado(proyectoId);
         return toCatalogoResponse(tipo);
     }
@@ -110,6 +121,7 @@ public class CostoService {
             costoMaterialRepository.saveAll(materialesRelacionados);
         }
         costoMaterialTipoRepository.delete(tipo);
+        costoCatalogoCache.invalidarTiposMaterial();
         proyectoLifecycleService.marcarProyectoComoModificado(proyectoId);
     }
 
@@ -123,6 +135,7 @@ public class CostoService {
         CostoMaterial material = CostoMapper.toMaterialEntity(request, proyecto);
         asignarTipoMaterial(material, proyecto, request);
         material = costoMaterialRepository.save(material);
+        registrarMovimientos(List.of(GastoDiarioService.material(material, 1)));
 
         proyectoLifecycleService.marcarProyectoComoModificado(proyecto);
         return CostoMapper.toMaterialResponse(material);
@@ -144,6 +157,7 @@ public class CostoService {
                 .toList();
 
         materiales = costoMaterialRepository.saveAll(materiales);
+        registrarMovimientos(materiales.stream().map(material -> GastoDiarioService.material(material, 1)).toList());
 
         proyectoLifecycleService.marcarProyectoComoModificado(proyecto);
         return CostoMapper.toMaterialResponseList(materiales);
@@ -160,9 +174,11 @@ public class CostoService {
             throw new EntityNotFoundException("CostoMaterial", id);
         }
 
+        GastoDiarioService.Movimiento anterior = GastoDiarioService.material(material, -1);
         CostoMapper.updateMaterialEntity(material, request);
         asignarTipoMaterial(material, material.getProyecto(), request);
-        material = costoMaterialRepository.save(material);
+        material = costoMaterialRepository.saveAndFlush(material);
+        registrarMovimientos(List.of(anterior, GastoDiarioService.material(material, 1)));
 
         proyectoLifecycleService.marcarProyectoComoModificado(material.getProyecto());
         return CostoMapper.toMaterialResponse(material);
@@ -179,6 +195,7 @@ public class CostoService {
             throw new EntityNotFoundException("CostoMaterial", id);
         }
         costoMaterialRepository.delete(material);
+        registrarMovimientos(List.of(GastoDiarioService.material(material, -1)));
         proyectoLifecycleService.marcarProyectoComoModificado(proyectoId);
     }
 
@@ -195,21 +212,24 @@ public class CostoService {
     }
 
     @Transactional(readOnly = true)
-    public List<String> obtenerOficiosManoObra(Long proyectoId) {
+    public CostoCatalogoCache.Catalogo<String> obtenerOficiosManoObra(Long proyectoId) {
         validarProyectoExiste(proyectoId);
-        List<String> oficiosPersistidos = costoManoObraOficioRepository.findAllByOrderByNombreAsc().stream()
-                .map(CostoManoObraOficio::getNombre)
-                .toList();
-        List<String> oficiosRegistrados = costoManoObraRepository.findDistinctOficios();
-        return combinarNombresCatalogo(oficiosPersistidos, oficiosRegistrados);
+        return costoCatalogoCache.obtener(CostoCatalogoCache.OFICIOS, () -> {
+            List<String> oficiosPersistidos = costoManoObraOficioRepository.findAllByOrderByNombreAsc().stream()
+                    .map(CostoManoObraOficio::getNombre)
+                    .toList();
+            List<String> oficiosRegistrados = costoManoObraRepository.findDistinctOficios();
+            return combinarNombresCatalogo(oficiosPersistidos, oficiosRegistrados);
+        });
     }
 
     @Transactional(readOnly = true)
-    public List<CostoCatalogoResponse> obtenerOficiosManoObraPersistidos(Long proyectoId) {
+    public CostoCatalogoCache.Catalogo<CostoCatalogoResponse> obtenerOficiosManoObraPersistidos(Long proyectoId) {
         validarProyectoExiste(proyectoId);
-        return costoManoObraOficioRepository.findAllByOrderByNombreAsc().stream()
-                .map(this::toCatalogoResponse)
-                .toList();
+        return costoCatalogoCache.obtener(CostoCatalogoCache.OFICIOS_REGISTRO,
+                () -> costoManoObraOficioRepository.findAllByOrderByNombreAsc().stream()
+                        .map(this::toCatalogoResponse)
+                        .toList());
     }
 
     @Auditable(accion = "CREAR", entidad = "Oficio")
@@ -222,6 +242,7 @@ public class CostoService {
                         .nombre(nombre)
                         .build()));
 
+        costoCatalogoCache.invalidarOficios();
         proyectoLifecycleService.marcarProyectoComoModificado(proyecto);
         return toCatalogoResponse(oficio);
     }
@@ -240,6 +261,7 @@ public class CostoService {
                 });
         oficio.setNombre(nombreNuevo);
         oficio = costoManoObraOficioRepository.save(oficio);
+        costoCatalogoCache.invalidarOficios();
         proyectoLifecycleService.marcarProyectoComoModificado(proyectoId);
         return toCatalogoResponse(oficio);
     }
@@ -250,6 +272,7 @@ public class CostoService {
         CostoManoObraOficio oficio = costoManoObraOficioRepository.findById(oficioId)
                 .orElseThrow(() -> new EntityNotFoundException("CostoManoObraOficio", oficioId));
         costoManoObraOficioRepository.delete(oficio);
+        costoCatalogoCache.invalidarOficios();
         proyectoLifecycleService.marcarProyectoComoModificado(proyectoId);
     }
 
@@ -262,6 +285,7 @@ public class CostoService {
 
         CostoManoObra manoObra = CostoMapper.toManoObraEntity(request, proyecto);
         manoObra = costoManoObraRepository.save(manoObra);
+        registrarMovimientos(List.of(GastoDiarioService.manoObra(manoObra, 1)));
 
         proyectoLifecycleService.marcarProyectoComoModificado(proyecto);
         return CostoMapper.toManoObraResponse(manoObra);
@@ -279,6 +303,7 @@ public class CostoService {
                 .toList();
 
         manoObras = costoManoObraRepository.saveAll(manoObras);
+        registrarMovimientos(manoObras.stream().map(manoObra -> GastoDiarioService.manoObra(manoObra, 1)).toList());
 
         proyectoLifecycleService.marcarProyectoComoModificado(proyecto);
         return CostoMapper.toManoObraResponseList(manoObras);
@@ -295,8 +320,10 @@ public class CostoService {
             throw new EntityNotFoundException("CostoManoObra", id);
         }
 
+        GastoDiarioService.Movimiento anterior = GastoDiarioService.manoObra(manoObra, -1);
         CostoMapper.updateManoObraEntity(manoObra, request);
-        manoObra = costoManoObraRepository.save(manoObra);
+        manoObra = costoManoObraRepository.saveAndFlush(manoObra);
+        registrarMovimientos(List.of(anterior, GastoDiarioService.manoObra(manoObra, 1)));
 
         proyectoLifecycleService.marcarProyectoComoModificado(manoObra.getProyecto());
         return CostoMapper.toManoObraResponse(manoObra);
@@ -313,6 +340,7 @@ public class CostoService {
             throw new EntityNotFoundException("CostoManoObra", id);
         }
         costoManoObraRepository.delete(manoObra);
+        registrarMovimientos(List.of(GastoDiarioService.manoObra(manoObra, -1)));
         proyectoLifecycleService.marcarProyectoComoModificado(proyectoId);
     }
 
@@ -332,26 +360,29 @@ public class CostoService {
      * Obtiene categorías únicas de costos adicionales de un proyecto.
      */
     @Transactional(readOnly = true)
-    public List<String> obtenerCategorias(Long proyectoId) {
+    public CostoCatalogoCache.Catalogo<String> obtenerCategorias(Long proyectoId) {
         validarProyectoExiste(proyectoId);
-        List<String> categoriasItems = costoAdicionalRepository.findDistinctCategoriasByProyectoId(proyectoId);
-        List<String> categoriasPersistidas = costoAdicionalCategoriaRepository.findByProyectoIdOrderByNombreAsc(proyectoId)
-                .stream()
-                .map(CostoAdicionalCategoria::getNombre)
-                .toList();
+        return costoCatalogoCache.obtener(CostoCatalogoCache.categorias(proyectoId), () -> {
+            List<String> categoriasItems = costoAdicionalRepository.findDistinctCategoriasByProyectoId(proyectoId);
+            List<String> categoriasPersistidas = costoAdicionalCategoriaRepository.findByProyectoIdOrderByNombreAsc(proyectoId)
+                    .stream()
+                    .map(CostoAdicionalCategoria::getNombre)
+                    .toList();
 
-        return combinarNombresCatalogo(categoriasPersistidas, categoriasItems);
+            return combinarNombresCatalogo(categoriasPersistidas, categoriasItems);
+        });
     }
 
     @Transactional(readOnly = true)
-    public List<CostoAdicionalCategoriaResponse> obtenerCategoriasPersistidas(Long proyectoId) {
+    public CostoCatalogoCache.Catalogo<CostoAdicionalCategoriaResponse> obtenerCategoriasPersistidas(Long proyectoId) {
         validarProyectoExiste(proyectoId);
-        return costoAdicionalCategoriaRepository.findByProyectoIdOrderByNombreAsc(proyectoId).stream()
-                .map(categoria -> CostoAdicionalCategoriaResponse.builder()
-                        .id(categoria.getId())
-                        .nombre(categoria.getNombre())
-                        .build())
-                .toList();
+        return costoCatalogoCache.obtener(CostoCatalogoCache.categoriasRegistro(proyectoId),
+                () -> costoAdicionalCategoriaRepository.findByProyectoIdOrderByNombreAsc(proyectoId).stream()
+                        .map(categoria -> CostoAdicionalCategoriaResponse.builder()
+                                .id(categoria.getId())
+                                .nombre(categoria.getNombre())
+                                .build())
+                        .toList());
     }
 
     @Auditable(accion = "CREAR", entidad = "CategoriaCosto")
@@ -366,6 +397,7 @@ public class CostoService {
                         .nombre(nombre)
                         .build()));
 
+        costoCatalogoCache.invalidarCategorias(proyectoId);
         proyectoLifecycleService.marcarProyectoComoModificado(proyecto);
         return CostoAdicionalCategoriaResponse.builder()
                 .id(categoria.getId())
@@ -381,9 +413,11 @@ public class CostoService {
         List<CostoAdicional> relacionados = costoAdicionalRepository.findByProyectoIdAndCategoria(proyectoId, categoria.getNombre());
         if (!relacionados.isEmpty()) {
             costoAdicionalRepository.deleteAll(relacionados);
+            registrarMovimientos(relacionados.stream().map(adicional -> GastoDiarioService.adicional(adicional, -1)).toList());
         }
 
         costoAdicionalCategoriaRepository.delete(categoria);
+        costoCatalogoCache.invalidarCategorias(proyectoId);
         proyectoLifecycleService.marcarProyectoComoModificado(proyectoId);
     }
 
@@ -396,6 +430,7 @@ public class CostoService {
 
         CostoAdicional adicional = CostoMapper.toAdicionalEntity(request, proyecto);
         adicional = costoAdicionalRepository.save(adicional);
+        registrarMovimientos(List.of(GastoDiarioService.adicional(adicional, 1)));
 
         proyectoLifecycleService.marcarProyectoComoModificado(proyecto);
         return CostoMapper.toAdicionalResponse(adicional);
@@ -413,6 +448,7 @@ public class CostoService {
                 .toList();
 
         adicionales = costoAdicionalRepository.saveAll(adicionales);
+        registrarMovimientos(adicionales.stream().map(adicional -> GastoDiarioService.adicional(adicional, 1)).toList());
 
         proyectoLifecycleService.marcarProyectoComoModificado(proyecto);
         return CostoMapper.toAdicionalResponseList(adicionales);
@@ -429,8 +465,10 @@ public class CostoService {
             throw new EntityNotFoundException("CostoAdicional", id);
         }
 
+        GastoDiarioService.Movimiento anterior = GastoDiarioService.adicional(adicional, -1);
         CostoMapper.updateAdicionalEntity(adicional, request);
-        adicional = costoAdicionalRepository.save(adicional);
+        adicional = costoAdicionalRepository.saveAndFlush(adicional);
+        registrarMovimientos(List.of(anterior, GastoDiarioService.adicional(adicional, 1)));
 
         proyectoLifecycleService.marcarProyectoComoModificado(adicional.getProyecto());
         return CostoMapper.toAdicionalResponse(adicional);
@@ -447,6 +485,7 @@ public class CostoService {
             throw new EntityNotFoundException("CostoAdicional", id);
         }
         costoAdicionalRepository.delete(adicional);
+        registrarMovimientos(List.of(GastoDiarioService.adicional(adicional, -1)));
         proyectoLifecycleService.marcarProyectoComoModificado(proyectoId);
     }
 
@@ -454,19 +493,16 @@ public class CostoService {
 
     /**
      * Obtiene el resumen completo de costos de un proyecto.
-     * Usa queries SUM en BD para eficiencia (no carga todas las entidades).
+     * Lee la fila de proyecto_costo_totales en lugar de sumar las tablas de costos.
      */
     @Transactional(readOnly = true)
     public ResumenCostoResponse obtenerResumen(Long proyectoId) {
         Proyecto proyecto = obtenerProyecto(proyectoId);
+        ProyectoCostoTotales totales = proyectoCostoTotalesService.obtener(proyectoId);
 
-        BigDecimal totalMateriales = costoMaterialRepository.sumCostoTotalByProyectoId(proyectoId);
-        BigDecimal totalManoObra = costoManoObraRepository.sumCostoTotalByProyectoId(proyectoId);
-        BigDecimal totalAdicionales = costoAdicionalRepository.sumCostoTotalByProyectoId(proyectoId);
-
-        long cantidadMateriales = costoMaterialRepository.countByProyectoId(proyectoId);
-        long cantidadManoObra = costoManoObraRepository.countByProyectoId(proyectoId);
-        long cantidadAdicionales = costoAdicionalRepository.countByProyectoId(proyectoId);
+        BigDecimal totalMateriales = totales.getTotalMateriales();
+        BigDecimal totalManoObra = totales.getTotalManoObra();
+        BigDecimal totalAdicionales = totales.getTotalAdicionales();
 
         BigDecimal costoTotal = totalMateriales.add(totalManoObra).add(totalAdicionales);
         BigDecimal presupuesto = proyecto.getCosto();
@@ -479,9 +515,9 @@ public class CostoService {
                 .costoTotalProyecto(costoTotal)
                 .presupuestoOriginal(presupuesto)
                 .diferencia(diferencia)
-                .cantidadItemsMateriales((int) cantidadMateriales)
-                .cantidadItemsManoObra((int) cantidadManoObra)
-                .cantidadItemsAdicionales((int) cantidadAdicionales)
+                .cantidadItemsMateriales(totales.getCantidadMateriales())
+                .cantidadItemsManoObra(totales.getCantidadManoObra())
+                .cantidadItemsAdicionales(totales.getCantidadAdicionales())
                 .proyectoId(proyecto.getId())
                 .proyectoNombre(proyecto.getNombreProyecto())
                 .build();
@@ -489,6 +525,28 @@ public class CostoService {
 
     // ==================== Helpers ====================
 
+    /**
+     * Aplica los movimientos de costos al resumen diario y a los totales del proyecto
+     * dentro de la transacción actual. Los catálogos incluyen los nombres usados en los costos,
+     * así que también se invalidan los de las categorías afectadas.
+     */
+    private void registrarMovimientos(List<GastoDiarioService.Movimiento> movimientos) {
+        gastoDiarioService.aplicar(movimientos);
+        proyectoCostoTotalesService.aplicar(movimientos);
+        invalidarCatalogos(movimientos);
+    }
+
+    private void invalidarCatalogos(List<GastoDiarioService.Movimiento> movimientos) {
+        movimientos.stream().map(GastoDiarioService.Movimiento::categoria).distinct().forEach(categoria -> {
+            switch (categoria) {
+                case GastoDiarioService.MATERIALES -> costoCatalogoCache.invalidarTiposMaterial();
+                case GastoDiarioService.MANO_OBRA -> costoCatalogoCache.invalidarOficios();
+                default -> movimientos.stream().map(GastoDiarioService.Movimiento::proyectoId).distinct()
+                        .forEach(costoCatalogoCache::invalidarCategorias);
+            }
+        });
+    }
+
     private void validarProyectoExiste(Long proyectoId) {
         if (!proyectoRepository.existsById(proyectoId)) {
             throw new EntityNotFoundException("Proyecto", proyectoId);
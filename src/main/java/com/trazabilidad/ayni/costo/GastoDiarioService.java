@@ -0,0 +1,148 @@
+package com.trazabilidad.ayni.costo;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Mantiene la tabla {@code gasto_diario}: el total de costos por proyecto, categoría del tablero y día.
+ * Cada escritura de costos aplica su delta con un upsert atómico; la reconstrucción completa
+ * sirve para el backfill y para corregir cualquier desviación.
+ */
+@Slf4j
+@Service
+@Transactional
+public class GastoDiarioService {
+
+    public static final String MATERIALES = "Materiales";
+    public static final String MANO_OBRA = "Mano de Obra";
+    public static final String OTROS_COSTOS = "Otros Costos";
+
+    private static final String UPSERT_SQL = "insert into gasto_diario (proyecto_id, categoria, fecha, monto, cantidad) "
+            + "values (:proyectoId, :categoria, :fecha, :monto, :cantidad) "
+            + "on conflict (proyecto_id, categoria, fecha) do update "
+            + "set monto = gasto_diario.monto + excluded.monto, cantidad = gasto_diario.cantidad + excluded.cantidad";
+
+    private static final String LIMPIAR_SQL = "delete from gasto_diario "
+            + "where proyecto_id = :proyectoId and categoria = :categoria and fecha = :fecha and cantidad <= 0";
+
+    /**
+     * Bloquea los deltas concurrentes mientras se reconstruye: las escrituras de costos ya aplicadas se
+     * confirman antes y entran en la reconstrucción; las siguientes esperan y aplican su delta después.
+     */
+    private static final String BLOQUEAR_SQL = "lock table gasto_diario in share row exclusive mode";
+
+    private static final String RECONSTRUIR_SQL = "insert into gasto_diario (proyecto_id, categoria, fecha, monto, cantidad) "
+            + "select proyecto_id, categoria, fecha, sum(monto), count(*) from ("
+            + "select m.proyecto_id, '" + MATERIALES + "' categoria, coalesce(m.fecha, cast(m.fecha_creacion as date)) fecha, coalesce(m.costo_total, 0) monto from costos_material m"
+            + " union all select mo.proyecto_id, '" + MANO_OBRA + "', cast(mo.fecha_creacion as date), coalesce(mo.costo_total, 0) from costos_mano_obra mo"
+            + " union all select a.proyecto_id, '" + OTROS_COSTOS + "', coalesce(a.fecha, cast(a.fecha_creacion as date)), coalesce(a.monto, 0) from costos_adicional a"
+            + ") gastos where fecha is not null group by proyecto_id, categoria, fecha";
+
+    /** Variación de un día de gasto; las bajas llevan monto y cantidad negativos. */
+    public record Movimiento(Long proyectoId, String categoria, LocalDate fecha, BigDecimal monto, int cantidad) {
+    }
+
+    private final EntityManager entityManager;
+    private final boolean reconstruccionProgramada;
+
+    public GastoDiarioService(
+            EntityManager entityManager,
+            @Value("${app.dashboard.gasto-diario.rebuild-enabled:true}") boolean reconstruccionProgramada) {
+        this.entityManager = entityManager;
+        this.reconstruccionProgramada = reconstruccionProgramada;
+    }
+
+    public static Movimiento material(CostoMaterial material, int signo) {
+        LocalDate fecha = material.getFecha() != null ? material.getFecha() : fechaCreacion(material.getFechaCreacion());
+        return movimiento(material.getProyecto().getId(), MATERIALES, fecha, material.getCostoTotal(), signo);
+    }
+
+    public static Movimiento manoObra(CostoManoObra manoObra, int signo) {
+        return movimiento(manoObra.getProyecto().getId(), MANO_OBRA, fechaCreacion(manoObra.getFechaCreacion()),
+                manoObra.getCostoTotal(), signo);
+    }
+
+    public static Movimiento adicional(CostoAdicional adicional, int signo) {
+        LocalDate fecha = adicional.getFecha() != null ? adicional.getFecha() : fechaCreacion(adicional.getFechaCreacion());
+        return movimiento(adicional.getProyecto().getId(), OTROS_COSTOS, fecha, adicional.getMonto(), signo);
+    }
+
+    /**
+     * Aplica los movimientos agrupados por día; un alta y una baja del mismo día se compensan
+     * sin tocar la tabla.
+     */
+    public void aplicar(Collection<Movimiento> movimientos) {
+        Map<Movimiento, Movimiento> agrupados = new LinkedHashMap<>();
+        for (Movimiento movimiento : movimientos) {
+            if (movimiento.fecha() == null) {
+                continue;
+            }
+            Movimiento clave = new Movimiento(movimiento.proyectoId(), movimiento.categoria(), movimiento.fecha(), null, 0);
+            agrupados.merge(clave, movimiento, (actual, nuevo) -> new Movimiento(actual.proyectoId(), actual.categoria(),
+                    actual.fecha(), actual.monto().add(nuevo.monto()), actual.cantidad() + nuevo.cantidad()));
+        }
+
+        for (Movimiento movimiento : agrupados.values()) {
+            if (movimiento.cantidad() == 0 && movimiento.monto().signum() == 0) {
+                continue;
+            }
+            entityManager.createNativeQuery(UPSERT_SQL)
+                    .setParameter("proyectoId", movimiento.proyectoId())
+                    .setParameter("categoria", movimiento.categoria())
+                    .setParameter("fecha", movimiento.fecha())
+                    .setParameter("monto", movimiento.monto())
+                    .setParameter("cantidad", movimiento.cantidad())
+                    .executeUpdate();
+            if (movimiento.cantidad() < 0) {
+                entityManager.createNativeQuery(LIMPIAR_SQL)
+                        .setParameter("proyectoId", movimiento.proyectoId())
+                        .setParameter("categoria", movimiento.categoria())
+                        .setParameter("fecha", movimiento.fecha())
+                        .executeUpdate();
+            }
+        }
+    }
+
+    @Scheduled(cron = "${app.dashboard.gasto-diario.rebuild-cron:0 15 3 * * SUN}")
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void reconstruirProgramado() {
+        if (reconstruccionProgramada) {
+            reconstruir();
+        }
+    }
+
+    /**
+     * Recalcula toda la tabla desde las tablas de costos en una sola transacción.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int reconstruir() {
+        entityManager.createNativeQuery(BLOQUEAR_SQL).executeUpdate();
+        entityManager.createNativeQuery("delete from gasto_diario").executeUpdate();
+        int filas = entityManager.createNativeQuery(RECONSTRUIR_SQL).executeUpdate();
+        log.info("Resumen diario de gastos reconstruido: {} filas", filas);
+        return filas;
+    }
+
+    private static Movimiento movimiento(Long proyectoId, String categoria, LocalDate fecha, BigDecimal monto, int signo) {
+        // costo_total se guarda con dos decimales; el delta debe coincidir con lo que queda en la tabla
+        BigDecimal valor = monto != null ? monto.setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+        return new Movimiento(proyectoId, categoria, fecha, signo < 0 ? valor.negate() : valor, signo < 0 ? -1 : 1);
+    }
+
+    private static LocalDate fechaCreacion(LocalDateTime fechaCreacion) {
+        return fechaCreacion != null ? fechaCreacion.toLocalDate() : LocalDate.now();
+    }
+}
@@ -0,0 +1,52 @@
+package com.trazabilidad.ayni.costo;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Totales acumulados de costos de un proyecto (suma y cantidad por categoría).
+ * Solo lectura desde JPA: las escrituras son upserts de {@link ProyectoCostoTotalesService}.
+ */
+@Entity
+@Table(name = "proyecto_costo_totales")
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProyectoCostoTotales {
+
+    @Id
+    @Column(name = "proyecto_id")
+    private Long proyectoId;
+
+    @Builder.Default
+    @Column(name = "total_materiales", nullable = false, precision = 16, scale = 2)
+    private BigDecimal totalMateriales = BigDecimal.ZERO;
+
+    @Column(name = "cantidad_materiales", nullable = false)
+    private int cantidadMateriales;
+
+    @Builder.Default
+    @Column(name = "total_mano_obra", nullable = false, precision = 16, scale = 2)
+    private BigDecimal totalManoObra = BigDecimal.ZERO;
+
+    @Column(name = "cantidad_mano_obra", nullable = false)
+    private int cantidadManoObra;
+
+    @Builder.Default
+    @Column(name = "total_adicionales", nullable = false, precision = 16, scale = 2)
+    private BigDecimal totalAdicionales = BigDecimal.ZERO;
+
+    @Column(name = "cantidad_adicionales", nullable = false)
+    private int cantidadAdicionales;
+
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+
+    public BigDecimal getCostoTotal() {
+        return totalMateriales.add(totalManoObra).add(totalAdicionales);
+    }
+}
@@ -0,0 +1,15 @@
+package com.trazabilidad.ayni.costo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+
+/**
+ * Repositorio de lectura de los totales de costos por proyecto.
+ */
+public interface ProyectoCostoTotalesRepository extends JpaRepository<ProyectoCostoTotales, Long> {
+
+    @Query("SELECT COALESCE(SUM(t.totalMateriales + t.totalManoObra + t.totalAdicionales), 0) FROM ProyectoCostoTotales t")
+    BigDecimal sumCostoTotalGlobal();
+}
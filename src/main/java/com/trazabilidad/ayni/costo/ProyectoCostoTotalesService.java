@@ -0,0 +1,160 @@
+package com.trazabilidad.ayni.costo;
+
+import com.trazabilidad.ayni.costo.GastoDiarioService.Movimiento;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Mantiene la tabla {@code proyecto_costo_totales}: suma y cantidad de costos por categoría de cada proyecto.
+ * Los movimientos de {@link CostoService} se aplican con un upsert atómico en su misma transacción,
+ * así el resumen de un proyecto y el total global son lecturas de una fila.
+ */
+@Slf4j
+@Service
+@Transactional
+public class ProyectoCostoTotalesService {
+
+    private static final String UPSERT_SQL = "insert into proyecto_costo_totales (proyecto_id, total_materiales, cantidad_materiales, "
+            + "total_mano_obra, cantidad_mano_obra, total_adicionales, cantidad_adicionales, fecha_actualizacion) "
+            + "values (:proyectoId, :totalMateriales, :cantidadMateriales, :totalManoObra, :cantidadManoObra, "
+            + ":totalAdicionales, :cantidadAdicionales, current_timestamp) "
+            + "on conflict (proyecto_id) do update set "
+            + "total_materiales = proyecto_costo_totales.total_materiales + excluded.total_materiales, "
+            + "cantidad_materiales = proyecto_costo_totales.cantidad_materiales + excluded.cantidad_materiales, "
+            + "total_mano_obra = proyecto_costo_totales.total_mano_obra + excluded.total_mano_obra, "
+            + "cantidad_mano_obra = proyecto_costo_totales.cantidad_mano_obra + excluded.cantidad_mano_obra, "
+            + "total_adicionales = proyecto_costo_totales.total_adicionales + excluded.total_adicionales, "
+            + "cantidad_adicionales = proyecto_costo_totales.cantidad_adicionales + excluded.cantidad_adicionales, "
+            + "fecha_actualizacion = excluded.fecha_actualizacion";
+
+    /** Bloquea las escrituras de totales mientras se comparan con las tablas de costos. */
+    private static final String BLOQUEAR_SQL = "lock table proyecto_costo_totales in share row exclusive mode";
+
+    /** Recalcula desde las tablas de costos y solo reescribe las filas que no coinciden. */
+    private static final String RECONCILIAR_SQL = "insert into proyecto_costo_totales (proyecto_id, total_materiales, cantidad_materiales, "
+            + "total_mano_obra, cantidad_mano_obra, total_adicionales, cantidad_adicionales, fecha_actualizacion) "
+            + "select p.id, coalesce(m.total, 0), coalesce(m.cantidad, 0), coalesce(mo.total, 0), coalesce(mo.cantidad, 0), "
+            + "coalesce(a.total, 0), coalesce(a.cantidad, 0), current_timestamp from proyectos p "
+            + "left join (select proyecto_id, sum(coalesce(costo_total, 0)) total, count(*) cantidad from costos_material group by proyecto_id) m on m.proyecto_id = p.id "
+            + "left join (select proyecto_id, sum(coalesce(costo_total, 0)) total, count(*) cantidad from costos_mano_obra group by proyecto_id) mo on mo.proyecto_id = p.id "
+            + "left join (select proyecto_id, sum(coalesce(monto, 0)) total, count(*) cantidad from costos_adicional group by proyecto_id) a on a.proyecto_id = p.id "
+            + "on conflict (proyecto_id) do update set "
+            + "total_materiales = excluded.total_materiales, cantidad_materiales = excluded.cantidad_materiales, "
+            + "total_mano_obra = excluded.total_mano_obra, cantidad_mano_obra = excluded.cantidad_mano_obra, "
+            + "total_adicionales = excluded.total_adicionales, cantidad_adicionales = excluded.cantidad_adicionales, "
+            + "fecha_actualizacion = excluded.fecha_actualizacion "
+            + "where (proyecto_costo_totales.total_materiales, proyecto_costo_totales.cantidad_materiales, "
+            + "proyecto_costo_totales.total_mano_obra, proyecto_costo_totales.cantidad_mano_obra, "
+            + "proyecto_costo_totales.total_adicionales, proyecto_costo_totales.cantidad_adicionales) is distinct from "
+            + "(excluded.total_materiales, excluded.cantidad_materiales, excluded.total_mano_obra, excluded.cantidad_mano_obra, "
+            + "excluded.total_adicionales, excluded.cantidad_adicionales)";
+
+    private final EntityManager entityManager;
+    private final ProyectoCostoTotalesRepository proyectoCostoTotalesRepository;
+    private final boolean reconciliacionProgramada;
+
+    public ProyectoCostoTotalesService(
+            EntityManager entityManager,
+            ProyectoCostoTotalesRepository proyectoCostoTotalesRepository,
+            @Value("${app.costos.totales.reconcile-enabled:true}") boolean reconciliacionProgramada) {
+        this.entityManager = entityManager;
+        this.proyectoCostoTotalesRepository = proyectoCostoTotalesRepository;
+        this.reconciliacionProgramada = reconciliacionProgramada;
+    }
+
+    /**
+     * Aplica los movimientos agrupados por proyecto: un solo upsert por proyecto aunque el lote traiga muchos costos.
+     */
+    public void aplicar(Collection<Movimiento> movimientos) {
+        Map<Long, Totales> porProyecto = new LinkedHashMap<>();
+        for (Movimiento movimiento : movimientos) {
+            porProyecto.computeIfAbsent(movimiento.proyectoId(), id -> new Totales()).sumar(movimiento);
+        }
+
+        porProyecto.forEach((proyectoId, totales) -> {
+            if (totales.vacio()) {
+                return;
+            }
+            entityManager.createNativeQuery(UPSERT_SQL)
+                    .setParameter("proyectoId", proyectoId)
+                    .setParameter("totalMateriales", totales.montos[0])
+                    .setParameter("cantidadMateriales", totales.cantidades[0])
+                    .setParameter("totalManoObra", totales.montos[1])
+                    .setParameter("cantidadManoObra", totales.cantidades[1])
+                    .setParameter("totalAdicionales", totales.montos[2])
+                    .setParameter("cantidadAdicionales", totales.cantidades[2])
+                    .executeUpdate();
+        });
+    }
+
+    /** Totales del proyecto; un proyecto sin costos registrados devuelve todo en cero. */
+    @Transactional(readOnly = true)
+    public ProyectoCostoTotales obtener(Long proyectoId) {
+        return proyectoCostoTotalesRepository.findById(proyectoId)
+                .orElseGet(() -> ProyectoCostoTotales.builder().proyectoId(proyectoId).build());
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal totalGlobal() {
+        return proyectoCostoTotalesRepository.sumCostoTotalGlobal();
+    }
+
+    @Scheduled(cron = "${app.costos.totales.reconcile-cron:0 45 3 * * *}")
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void reconciliarProgramado() {
+        if (reconciliacionProgramada) {
+            reconciliar();
+        }
+    }
+
+    /**
+     * Compara los totales con las tablas de costos y corrige las filas desviadas; devuelve cuántas corrigió.
+     * El bloqueo espera a las transacciones de costos en curso y detiene las nuevas hasta terminar,
+     * de modo que ningún delta se pierde ni se cuenta dos veces.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int reconciliar() {
+        entityManager.createNativeQuery(BLOQUEAR_SQL).executeUpdate();
+        int corregidas = entityManager.createNativeQuery(RECONCILIAR_SQL).executeUpdate();
+        if (corregidas > 0) {
+            log.warn("Totales de costos reconciliados: {} proyectos tenian diferencias", corregidas);
+        } else {
+            log.info("Totales de costos verificados sin diferencias");
+        }
+        return corregidas;
+    }
+
+    private static final class Totales {
+        private final BigDecimal[] montos = { BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO };
+        private final int[] cantidades = new int[3];
+
+        private void sumar(Movimiento movimiento) {
+            int indice = switch (movimiento.categoria()) {
+                case GastoDiarioService.MATERIALES -> 0;
+                case GastoDiarioService.MANO_OBRA -> 1;
+                default -> 2;
+            };
+            montos[indice] = montos[indice].add(movimiento.monto());
+            cantidades[indice] += movimiento.cantidad();
+        }
+
+        private boolean vacio() {
+            for (int i = 0; i < montos.length; i++) {
+                if (montos[i].signum() != 0 || cantidades[i] != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
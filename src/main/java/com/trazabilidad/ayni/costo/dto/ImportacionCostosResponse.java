@@ -0,0 +1,36 @@
+package com.trazabilidad.ayni.costo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de response para la importación de costos desde Excel.
+ * Los contadores son las filas válidas de cada hoja; si {@code guardado} es false no se registró ninguna.
+ * {@code errores} se corta en el máximo configurado y {@code filasConError} lleva la cuenta completa.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportacionCostosResponse {
+
+    private int materialesImportados;
+    private int manoObraImportada;
+    private int adicionalesImportados;
+    private int filasConError;
+    private boolean guardado;
+    private List<ErrorFila> errores;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ErrorFila {
+        private String hoja;
+        private int fila;
+        private String mensaje;
+    }
+}
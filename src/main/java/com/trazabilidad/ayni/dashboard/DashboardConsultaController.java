@@ -2,6 +2,7 @@ package com.trazabilidad.ayni.dashboard;
 
 import com.trazabilidad.ayni.dashboard.dto.DashboardActividadEncargadoResponse;
 import com.trazabilidad.ayni.dashboard.dto.DashboardCostoDetalleResponse;
+import com.trazabilidad.ayni.dashboard.dto.DashboardCursorResponse;
 import com.trazabilidad.ayni.dashboard.dto.DashboardFiltrosRequest;
 import com.trazabilidad.ayni.dashboard.dto.DashboardPaginaResponse;
 import com.trazabilidad.ayni.dashboard.dto.DashboardResumenTableroResponse;
@@ -9,11 +10,15 @@ import com.trazabilidad.ayni.dashboard.dto.ProyectoIndicadorResponse;
 import java.math.BigDecimal;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/v1/dashboard")
@@ -21,6 +26,8 @@ import org.springframework.web.bind.annotation.RestController;
 public class DashboardConsultaController {
     private final DashboardQueryService queryService;
     private final DashboardGastoQueryService gastoQueryService;
+    private final DashboardGastoExportService gastoExportService;
+    private final DashboardExcelExportService excelExportService;
 
     @GetMapping("/resumen-tablero")
     public ResponseEntity<DashboardResumenTableroResponse> resumen(@ModelAttribute DashboardFiltrosRequest filtros) {
@@ -45,5 +52,42 @@ public class DashboardConsultaController {
     public ResponseEntity<DashboardPaginaResponse<DashboardCostoDetalleResponse>> gastos(@ModelAttribute DashboardFiltrosRequest filtros) {
         return ResponseEntity.ok(gastoQueryService.gastos(filtros));
     }
-}
 
+    @GetMapping(value = "/gastos", params = "cursor")
+    public ResponseEntity<DashboardCursorResponse<DashboardCostoDetalleResponse>> gastosPorCursor(
+            @ModelAttribute DashboardFiltrosRequest filtros,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
+        return ResponseEntity.ok(gastoQueryService.gastosPorCursor(filtros, cursor, incluirTotal));
+    }
+
+    /** Exporta todos los gastos filtrados (sin paginar) como CSV, NDJSON o XLSX, escritos a medida que se leen. */
+    @GetMapping("/gastos/exportar")
+    public ResponseEntity<StreamingResponseBody> exportarGastos(
+            @ModelAttribute DashboardFiltrosRequest filtros,
+            @RequestParam(defaultValue = "csv") String formato) {
+        DashboardGastoExportService.Formato tipo = DashboardGastoExportService.Formato.of(formato);
+        StreamingResponseBody body = salida -> gastoExportService.exportar(filtros, tipo, salida);
+        return ResponseEntity.ok()
+                .contentType(tipo.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(tipo.nombreArchivo()).build().toString())
+                .body(body);
+    }
+
+    @GetMapping("/proyectos-indicadores/exportar")
+    public ResponseEntity<StreamingResponseBody> exportarIndicadoresProyectos() {
+        return xlsx("proyectos-indicadores.xlsx", excelExportService::proyectos);
+    }
+
+    @GetMapping("/tareas-encargados/exportar")
+    public ResponseEntity<StreamingResponseBody> exportarTareasEncargados() {
+        return xlsx("tareas-encargados.xlsx", excelExportService::tareasEncargados);
+    }
+
+    private ResponseEntity<StreamingResponseBody> xlsx(String nombreArchivo, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(DashboardGastoExportService.Formato.XLSX.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(nombreArchivo).build().toString())
+                .body(body);
+    }
+}
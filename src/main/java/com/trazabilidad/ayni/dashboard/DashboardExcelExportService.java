@@ -0,0 +1,191 @@
+package com.trazabilidad.ayni.dashboard;
+
+import com.trazabilidad.ayni.dashboard.dto.DashboardActividadEncargadoResponse;
+import com.trazabilidad.ayni.dashboard.dto.DashboardCostoDetalleResponse;
+import com.trazabilidad.ayni.dashboard.dto.DashboardFiltrosRequest;
+import com.trazabilidad.ayni.dashboard.dto.ProyectoIndicadorResponse;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Exportaciones XLSX del tablero (indicadores de proyectos, gastos y tareas por encargado).
+ * Usa {@link SXSSFWorkbook}: solo las últimas {@code row-window} filas viven en memoria y el resto
+ * se vuelca a un archivo temporal comprimido, mientras las filas llegan por cursor desde la base.
+ */
+@Service
+@Transactional(readOnly = true)
+public class DashboardExcelExportService {
+
+    private static final int MAX_FILAS_POR_HOJA = SpreadsheetVersion.EXCEL2007.getLastRowIndex();
+
+    private static final List<Columna<ProyectoIndicadorResponse>> COLUMNAS_PROYECTOS = List.of(
+            new Columna<>("ID", 8, ProyectoIndicadorResponse::getId),
+            new Columna<>("Proyecto", 40, ProyectoIndicadorResponse::getNombre),
+            new Columna<>("Cliente", 30, ProyectoIndicadorResponse::getCliente),
+            new Columna<>("Responsable", 28, ProyectoIndicadorResponse::getResponsable),
+            new Columna<>("Estado", 14, ProyectoIndicadorResponse::getEstado),
+            new Columna<>("Avance %", 10, ProyectoIndicadorResponse::getAvance),
+            new Columna<>("Tareas completadas", 12, ProyectoIndicadorResponse::getTareasCompletadas),
+            new Columna<>("Tareas totales", 12, ProyectoIndicadorResponse::getTareasTotal),
+            new Columna<>("Inversión", 14, ProyectoIndicadorResponse::getInversion),
+            new Columna<>("Gasto", 14, ProyectoIndicadorResponse::getGasto),
+            new Columna<>("Retorno", 14, ProyectoIndicadorResponse::getRetorno),
+            new Columna<>("Tasa de retorno %", 12, ProyectoIndicadorResponse::getTasaRetorno),
+            new Columna<>("Inicio", 12, ProyectoIndicadorResponse::getDurationStart),
+            new Columna<>("Fin", 12, ProyectoIndicadorResponse::getDurationEnd),
+            new Columna<>("Ubicación", 24, ProyectoIndicadorResponse::getUbicacion),
+            new Columna<>("Áreas", 30, proyecto -> proyecto.getAreas() != null ? String.join(", ", proyecto.getAreas()) : null));
+
+    private static final List<Columna<DashboardCostoDetalleResponse>> COLUMNAS_GASTOS = List.of(
+            new Columna<>("ID", 8, DashboardCostoDetalleResponse::getId),
+            new Columna<>("Fecha", 12, DashboardCostoDetalleResponse::getFecha),
+            new Columna<>("Proyecto", 40, DashboardCostoDetalleResponse::getProyecto),
+            new Columna<>("Categoría", 16, DashboardCostoDetalleResponse::getCategoria),
+            new Columna<>("Descripción", 40, DashboardCostoDetalleResponse::getDescripcion),
+            new Columna<>("Monto", 14, DashboardCostoDetalleResponse::getMonto),
+            new Columna<>("Responsable", 28, DashboardCostoDetalleResponse::getResponsable));
+
+    private static final List<Columna<DashboardActividadEncargadoResponse>> COLUMNAS_TAREAS = List.of(
+            new Columna<>("Responsable", 28, DashboardActividadEncargadoResponse::getResponsable),
+            new Columna<>("Tarea", 40, DashboardActividadEncargadoResponse::getTarea),
+            new Columna<>("Proyecto", 40, DashboardActividadEncargadoResponse::getProyecto),
+            new Columna<>("Etapa", 14, DashboardActividadEncargadoResponse::getEtapa),
+            new Columna<>("Fechas", 24, DashboardActividadEncargadoResponse::getFechas),
+            new Columna<>("Estado", 14, DashboardActividadEncargadoResponse::getEstado));
+
+    /** Columna de una hoja: título, ancho en caracteres y cómo obtener el valor de cada fila. */
+    private record Columna<T>(String titulo, int ancho, Function<T, Object> valor) {
+    }
+
+    private final DashboardIndicadorQueryService indicadorQueryService;
+    private final DashboardGastoQueryService gastoQueryService;
+    private final int ventanaFilas;
+
+    public DashboardExcelExportService(
+            DashboardIndicadorQueryService indicadorQueryService,
+            DashboardGastoQueryService gastoQueryService,
+            @Value("${app.dashboard.export.xlsx.row-window:100}") int ventanaFilas) {
+        this.indicadorQueryService = indicadorQueryService;
+        this.gastoQueryService = gastoQueryService;
+        this.ventanaFilas = Math.max(1, ventanaFilas);
+    }
+
+    public long proyectos(OutputStream salida) throws IOException {
+        return escribir("Proyectos", COLUMNAS_PROYECTOS, indicadorQueryService::recorrerIndicadores, salida);
+    }
+
+    public long gastos(DashboardFiltrosRequest filtros, OutputStream salida) throws IOException {
+        return escribir("Gastos", COLUMNAS_GASTOS, consumidor -> gastoQueryService.recorrerGastos(filtros, consumidor), salida);
+    }
+
+    public long tareasEncargados(OutputStream salida) throws IOException {
+        return escribir("Tareas", COLUMNAS_TAREAS, indicadorQueryService::recorrerTareasEncargados, salida);
+    }
+
+    /**
+     * Vuelca las filas del origen en hojas de hasta el máximo de Excel y escribe el libro en la salida.
+     * Los archivos temporales se borran aunque la escritura falle.
+     */
+    private <T> long escribir(String nombreHoja, List<Columna<T>> columnas, ToLongFunction<Consumer<T>> origen,
+            OutputStream salida) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(null, ventanaFilas, true, false);
+        try {
+            Estilos estilos = new Estilos(workbook);
+            Hoja<T> hoja = new Hoja<>(workbook, nombreHoja, columnas, estilos);
+            long filas = origen.applyAsLong(hoja::agregar);
+            workbook.write(salida);
+            salida.flush();
+            return filas;
+        } finally {
+            workbook.close();
+            workbook.dispose();
+        }
+    }
+
+    private record Estilos(CellStyle cabecera, CellStyle fecha, CellStyle decimal) {
+        Estilos(SXSSFWorkbook workbook) {
+            this(workbook.createCellStyle(), workbook.createCellStyle(), workbook.createCellStyle());
+            Font negrita = workbook.createFont();
+            negrita.setBold(true);
+            cabecera.setFont(negrita);
+            fecha.setDataFormat(workbook.createDataFormat().getFormat("dd/mm/yyyy"));
+            decimal.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+        }
+    }
+
+    /** Hoja en curso; al llenarse abre "Nombre (2)", "Nombre (3)"... con la misma cabecera. */
+    private static final class Hoja<T> {
+        private final SXSSFWorkbook workbook;
+        private final String nombre;
+        private final List<Columna<T>> columnas;
+        private final Estilos estilos;
+        private SXSSFSheet sheet;
+        private int numeroHoja;
+        private int fila;
+
+        private Hoja(SXSSFWorkbook workbook, String nombre, List<Columna<T>> columnas, Estilos estilos) {
+            this.workbook = workbook;
+            this.nombre = nombre;
+            this.columnas = columnas;
+            this.estilos = estilos;
+            nuevaHoja();
+        }
+
+        private void agregar(T item) {
+            if (fila > MAX_FILAS_POR_HOJA) {
+                nuevaHoja();
+            }
+            Row row = sheet.createRow(fila++);
+            for (int i = 0; i < columnas.size(); i++) {
+                escribirCelda(row.createCell(i), columnas.get(i).valor().apply(item));
+            }
+        }
+
+        private void nuevaHoja() {
+            numeroHoja++;
+            sheet = workbook.createSheet(numeroHoja == 1 ? nombre : nombre + " (" + numeroHoja + ")");
+            Row cabecera = sheet.createRow(0);
+            for (int i = 0; i < columnas.size(); i++) {
+                sheet.setColumnWidth(i, columnas.get(i).ancho() * 256);
+                Cell cell = cabecera.createCell(i);
+                cell.setCellValue(columnas.get(i).titulo());
+                cell.setCellStyle(estilos.cabecera());
+            }
+            sheet.createFreezePane(0, 1);
+            fila = 1;
+        }
+
+        private void escribirCelda(Cell cell, Object valor) {
+            if (valor == null) {
+                cell.setBlank();
+            } else if (valor instanceof BigDecimal decimal) {
+                cell.setCellValue(decimal.doubleValue());
+                cell.setCellStyle(estilos.decimal());
+            } else if (valor instanceof Number numero) {
+                cell.setCellValue(numero.doubleValue());
+            } else if (valor instanceof LocalDate fecha) {
+                cell.setCellValue(fecha);
+                cell.setCellStyle(estilos.fecha());
+            } else {
+                cell.setCellValue(valor.toString());
+            }
+        }
+    }
+}
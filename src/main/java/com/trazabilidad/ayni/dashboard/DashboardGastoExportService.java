@@ -0,0 +1,146 @@
+package com.trazabilidad.ayni.dashboard;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trazabilidad.ayni.dashboard.dto.DashboardCostoDetalleResponse;
+import com.trazabilidad.ayni.dashboard.dto.DashboardFiltrosRequest;
+import com.trazabilidad.ayni.shared.exception.BadRequestException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Exporta todos los gastos del tablero como CSV o NDJSON escribiendo fila por fila en la respuesta
+ * (XLSX se delega a {@link DashboardExcelExportService}).
+ * Las escrituras son bloqueantes, así que el cursor de la consulta solo avanza al ritmo en que el cliente
+ * lee: la memoria usada es la misma para cien gastos que para un millón.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardGastoExportService {
+
+    private static final int FILAS_POR_FLUSH = 500;
+    private static final String CABECERA_CSV = "id,proyecto_id,proyecto,categoria,descripcion,monto,fecha,responsable";
+
+    public enum Formato {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson"),
+        XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+        private final String contentType;
+        private final String extension;
+
+        Formato(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public MediaType mediaType() {
+            return MediaType.parseMediaType(this == XLSX ? contentType : contentType + ";charset=UTF-8");
+        }
+
+        public String nombreArchivo() {
+            return "gastos." + extension;
+        }
+
+        public static Formato of(String valor) {
+            try {
+                return valueOf(valor.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException ex) {
+                throw new BadRequestException("Formato de exportacion no soportado: " + valor);
+            }
+        }
+    }
+
+    private final DashboardGastoQueryService gastoQueryService;
+    private final ObjectMapper objectMapper;
+    private final DashboardExcelExportService excelExportService;
+
+    /**
+     * Escribe la exportación completa en {@code salida}. Se ejecuta en una transacción de solo lectura
+     * para que PostgreSQL entregue las filas por cursor en lugar de materializar el resultado.
+     */
+    @Transactional(readOnly = true)
+    public long exportar(DashboardFiltrosRequest filtros, Formato formato, OutputStream salida) throws IOException {
+        if (formato == Formato.XLSX) {
+            return excelExportService.gastos(filtros, salida);
+        }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        if (formato == Formato.CSV) {
+            writer.write(CABECERA_CSV);
+            writer.write("\r\n");
+        }
+        long[] escritas = { 0 };
+        try {
+            gastoQueryService.recorrerGastos(filtros, gasto -> {
+                try {
+                    if (formato == Formato.CSV) {
+                        escribirCsv(writer, gasto);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(gasto));
+                        writer.write('\n');
+                    }
+                    if (++escritas[0] % FILAS_POR_FLUSH == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            log.info("Exportacion de gastos interrumpida tras {} filas: {}", escritas[0], ex.getCause().getMessage());
+            throw ex.getCause();
+        }
+        writer.flush();
+        return escritas[0];
+    }
+
+    private void escribirCsv(Writer writer, DashboardCostoDetalleResponse gasto) throws IOException {
+        writer.write(valor(gasto.getId()));
+        writer.write(',');
+        writer.write(valor(gasto.getProyectoId()));
+        writer.write(',');
+        writer.write(texto(gasto.getProyecto()));
+        writer.write(',');
+        writer.write(texto(gasto.getCategoria()));
+        writer.write(',');
+        writer.write(texto(gasto.getDescripcion()));
+        writer.write(',');
+        writer.write(gasto.getMonto() != null ? gasto.getMonto().toPlainString() : "");
+        writer.write(',');
+        writer.write(valor(gasto.getFecha()));
+        writer.write(',');
+        writer.write(texto(gasto.getResponsable()));
+        writer.write("\r\n");
+    }
+
+    private String valor(Object value) {
+        return value != null ? value.toString() : "";
+    }
+
+    /**
+     * Entrecomilla según RFC 4180 y neutraliza los textos que una hoja de cálculo
+     * interpretaría como fórmula.
+     */
+    static String texto(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        String seguro = "=+-@\t\r".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        if (seguro.indexOf(',') < 0 && seguro.indexOf('"') < 0 && seguro.indexOf('\n') < 0 && seguro.indexOf('\r') < 0) {
+            return seguro;
+        }
+        return '"' + seguro.replace("\"", "\"\"") + '"';
+    }
+}
@@ -5,30 +5,61 @@ import com.trazabilidad.ayni.dashboard.dto.DashboardFiltrosRequest;
 import com.trazabilidad.ayni.dashboard.dto.DashboardGastoResumen;
 import com.trazabilidad.ayni.dashboard.dto.DashboardSerieResponse;
 import com.trazabilidad.ayni.dashboard.dto.DashboardPaginaResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.trazabilidad.ayni.dashboard.dto.DashboardCursorResponse;
+import com.trazabilidad.ayni.shared.exception.BadRequestException;
 import jakarta.persistence.EntityManager;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.sql.Date;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.Month;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.ArrayList;
 import java.util.List;
-import lombok.RequiredArgsConstructor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 /** Consulta nativa paginada de los tres orígenes de costos del tablero. */
 @Service
-@RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class DashboardGastoQueryService {
+    private static final String ORDEN = " order by fecha desc nulls last, proyecto asc, categoria asc, id asc";
+    private static final String SIGUIENTE_EN_FECHA = "(proyecto > :cursorProyecto or (proyecto = :cursorProyecto"
+            + " and (categoria > :cursorCategoria or (categoria = :cursorCategoria and id > :cursorId))))";
+    /** Desde una fila con fecha: las siguientes del mismo día, los días anteriores y al final las sin fecha (nulls last). */
+    private static final String SEEK = " (fecha is null or (fecha <= :cursorFecha and (fecha < :cursorFecha or (fecha = :cursorFecha and "
+            + SIGUIENTE_EN_FECHA + "))))";
+    /** Desde una fila sin fecha: solo quedan las demás sin fecha. */
+    private static final String SEEK_SIN_FECHA = " fecha is null and " + SIGUIENTE_EN_FECHA;
+
     private final EntityManager entityManager;
+    private final Cache<DashboardFiltrosRequest, Long> totalesGastos;
+    private final int exportFetchSize;
+
+    public DashboardGastoQueryService(
+            EntityManager entityManager,
+            @Value("${app.dashboard.gastos.count-cache-ttl:60s}") Duration countCacheTtl,
+            @Value("${app.dashboard.gastos.export.fetch-size:500}") int exportFetchSize) {
+        this.entityManager = entityManager;
+        this.totalesGastos = Caffeine.newBuilder().maximumSize(500).expireAfterWrite(countCacheTtl).build();
+        this.exportFetchSize = Math.max(1, exportFetchSize);
+    }
 
     public DashboardPaginaResponse<DashboardCostoDetalleResponse> gastos(DashboardFiltrosRequest filtros) {
         String union = unionSql(filtros);
         String detalle = filtroDetalle(filtros);
-        String dataSql = "select * from (" + union + ") gastos" + detalle + " order by fecha desc nulls last, proyecto asc limit :limit offset :offset";
+        String dataSql = "select * from (" + union + ") gastos" + detalle + ORDEN + " limit :limit offset :offset";
         String countSql = "select count(*) from (" + union + ") gastos" + detalle;
         var dataQuery = entityManager.createNativeQuery(dataSql);
         var countQuery = entityManager.createNativeQuery(countSql);
@@ -45,6 +76,61 @@ public class DashboardGastoQueryService {
         return new DashboardPaginaResponse<>(content, total, totalPages, filtros.pageOrDefault(), filtros.sizeOrDefault());
     }
 
+    /**
+     * Listado de gastos por cursor (fecha, proyecto, categoría, id): cada página busca desde la última
+     * fila entregada en vez de saltar un OFFSET, y el total solo se calcula si se pide, cacheado por filtros.
+     */
+    public DashboardCursorResponse<DashboardCostoDetalleResponse> gastosPorCursor(DashboardFiltrosRequest filtros, String cursor, boolean incluirTotal) {
+        Cursor desde = Cursor.decode(cursor);
+        String detalle = filtroDetalle(filtros);
+        String seek = desde == null ? "" : (detalle.isEmpty() ? " where" : " and") + (desde.fecha() == null ? SEEK_SIN_FECHA : SEEK);
+        String dataSql = "select * from (" + unionSql(filtros) + ") gastos" + detalle + seek + ORDEN + " limit :limit";
+        var dataQuery = entityManager.createNativeQuery(dataSql);
+        bind(dataQuery, filtros);
+        if (desde != null) {
+            if (desde.fecha() != null) dataQuery.setParameter("cursorFecha", desde.fecha());
+            dataQuery.setParameter("cursorProyecto", desde.proyecto());
+            dataQuery.setParameter("cursorCategoria", desde.categoria());
+            dataQuery.setParameter("cursorId", desde.id());
+        }
+        int size = filtros.sizeOrDefault();
+        dataQuery.setParameter("limit", size + 1);
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = dataQuery.getResultList();
+        boolean hasMore = rows.size() > size;
+        List<DashboardCostoDetalleResponse> content = new ArrayList<>();
+        for (Object[] row : hasMore ? rows.subList(0, size) : rows) content.add(map(row));
+        String nextCursor = null;
+        if (hasMore) {
+            DashboardCostoDetalleResponse ultimo = content.get(content.size() - 1);
+            nextCursor = new Cursor(ultimo.getFecha(), ultimo.getProyecto(), ultimo.getCategoria(), ultimo.getId()).encode();
+        }
+        Long total = incluirTotal ? contarGastos(filtros) : null;
+        return new DashboardCursorResponse<>(content, nextCursor, hasMore, total, size);
+    }
+
+    /**
+     * Recorre todos los gastos filtrados con un cursor de solo avance: el driver trae las filas de a
+     * {@code fetch-size} y cada una se entrega al consumidor sin acumularse. Debe llamarse dentro de una
+     * transacción (PostgreSQL solo usa cursor con autocommit desactivado); devuelve las filas entregadas.
+     */
+    public long recorrerGastos(DashboardFiltrosRequest filtros, Consumer<DashboardCostoDetalleResponse> consumidor) {
+        String sql = "select * from (" + unionSql(filtros) + ") gastos" + filtroDetalle(filtros) + ORDEN;
+        var query = entityManager.createNativeQuery(sql)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, exportFetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        bind(query, filtros);
+        long filas = 0;
+        try (Stream<?> rows = query.getResultStream()) {
+            Iterator<?> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                consumidor.accept(map((Object[]) iterator.next()));
+                filas++;
+            }
+        }
+        return filas;
+    }
+
     public Map<String, BigDecimal> totalesPorCategoria(DashboardFiltrosRequest filtros) {
         DashboardFiltrosRequest sinCategoria = new DashboardFiltrosRequest(filtros.page(), filtros.size(), filtros.metrica(), filtros.empresa(), filtros.lugar(), filtros.area(), filtros.estado(), filtros.fechaDesde(), filtros.fechaHasta(), filtros.mes(), filtros.proyectoId(), null);
         String sql = "select categoria, coalesce(sum(monto), 0) from (" + unionSql(sinCategoria) + ") gastos" + filtroDetalle(sinCategoria) + " group by categoria";
@@ -55,31 +141,50 @@ public class DashboardGastoQueryService {
         for (Object[] row : rows) result.put((String) row[0], (BigDecimal) row[1]);
         return result;
     }
+    /**
+     * Serie mensual y totales de hoy, ayer y el mes actual leídos de {@code gasto_diario},
+     * que ya trae los costos sumados por proyecto, categoría y día.
+     */
     public DashboardGastoResumen resumen(DashboardFiltrosRequest filtros) {
+        LocalDate actual = LocalDate.now(), anterior = actual.minusDays(1);
+        String sql = "select cast(extract(month from fecha) as integer), coalesce(sum(monto), 0), "
+                + "coalesce(sum(case when fecha >= :inicioMes and fecha < :inicioMesSiguiente then monto end), 0), "
+                + "coalesce(sum(case when fecha = :hoy then monto end), 0), "
+                + "coalesce(sum(case when fecha = :ayer then monto end), 0) "
+                + "from (select g.categoria, g.fecha, g.monto from gasto_diario g join proyectos p on p.id = g.proyecto_id"
+                + where(filtros) + ") gastos" + filtroDetalle(filtros) + " group by 1";
+        var query = entityManager.createNativeQuery(sql);
+        bind(query, filtros);
+        query.setParameter("inicioMes", actual.withDayOfMonth(1));
+        query.setParameter("inicioMesSiguiente", actual.withDayOfMonth(1).plusMonths(1));
+        query.setParameter("hoy", actual);
+        query.setParameter("ayer", anterior);
+        @SuppressWarnings("unchecked") List<Object[]> rows = query.getResultList();
+
         Map<Month, BigDecimal> serie = new EnumMap<>(Month.class);
         for (Month month : Month.values()) serie.put(month, BigDecimal.ZERO);
         BigDecimal mes = BigDecimal.ZERO, hoy = BigDecimal.ZERO, ayer = BigDecimal.ZERO;
-        LocalDate actual = LocalDate.now(), anterior = actual.minusDays(1);
-        int page = 0;
-        DashboardPaginaResponse<DashboardCostoDetalleResponse> resultado;
-        do {
-            DashboardFiltrosRequest pagina = new DashboardFiltrosRequest(page++, 1000, filtros.metrica(), filtros.empresa(), filtros.lugar(), filtros.area(), filtros.estado(), filtros.fechaDesde(), filtros.fechaHasta(), filtros.mes(), filtros.proyectoId(), filtros.categoria());
-            resultado = gastos(pagina);
-            for (DashboardCostoDetalleResponse gasto : resultado.content()) {
-                BigDecimal monto = gasto.getMonto() == null ? BigDecimal.ZERO : gasto.getMonto();
-                LocalDate fecha = gasto.getFecha();
-                if (fecha == null) continue;
-                serie.compute(fecha.getMonth(), (key, total) -> total.add(monto));
-                if (fecha.getYear() == actual.getYear() && fecha.getMonth() == actual.getMonth()) mes = mes.add(monto);
-                if (fecha.equals(actual)) hoy = hoy.add(monto);
-                if (fecha.equals(anterior)) ayer = ayer.add(monto);
-            }
-        } while (resultado.page() + 1 < resultado.totalPages());
+        for (Object[] row : rows) {
+            serie.put(Month.of(((Number) row[0]).intValue()), (BigDecimal) row[1]);
+            mes = mes.add((BigDecimal) row[2]);
+            hoy = hoy.add((BigDecimal) row[3]);
+            ayer = ayer.add((BigDecimal) row[4]);
+        }
         List<DashboardSerieResponse> datos = new ArrayList<>();
         String[] nombres = { "Ene", "Feb", "Mar", "Abr", "May", "Jun", "Jul", "Ago", "Sep", "Oct", "Nov", "Dic" };
         for (int index = 1; index <= 12; index++) datos.add(DashboardSerieResponse.builder().name(nombres[index - 1]).value(serie.get(Month.of(index))).build());
         return new DashboardGastoResumen(mes, hoy, ayer, datos);
     }
+
+    private long contarGastos(DashboardFiltrosRequest filtros) {
+        DashboardFiltrosRequest clave = new DashboardFiltrosRequest(null, null, null, filtros.empresa(), filtros.lugar(), filtros.area(), filtros.estado(), filtros.fechaDesde(), filtros.fechaHasta(), filtros.mes(), filtros.proyectoId(), filtros.categoria());
+        return totalesGastos.get(clave, key -> {
+            var countQuery = entityManager.createNativeQuery("select count(*) from (" + unionSql(key) + ") gastos" + filtroDetalle(key));
+            bind(countQuery, key);
+            return ((Number) countQuery.getSingleResult()).longValue();
+        });
+    }
+
     private String unionSql(DashboardFiltrosRequest f) {
         String where = where(f);
         return "select m.id, p.id proyecto_id, p.nombre_proyecto proyecto, 'Materiales' categoria, "
@@ -128,8 +233,24 @@ public class DashboardGastoQueryService {
                 .proyecto((String) row[2]).categoria((String) row[3]).descripcion((String) row[4]).monto((BigDecimal) row[5])
                 .fecha(fecha).responsable((String) row[7]).build();
     }
-}
-
-
 
+    /** Posición de la última fila entregada (fecha vacía si no tiene); viaja al cliente como token opaco en base64. */
+    private record Cursor(LocalDate fecha, String proyecto, String categoria, Long id) {
+        String encode() {
+            String raw = (fecha != null ? fecha.toString() : "") + "\n" + categoria + "\n" + id + "\n" + proyecto;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
 
+        static Cursor decode(String token) {
+            if (token == null || token.isBlank()) return null;
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\n", 4);
+                if (parts.length != 4) throw new IllegalArgumentException();
+                LocalDate fecha = parts[0].isEmpty() ? null : LocalDate.parse(parts[0]);
+                return new Cursor(fecha, parts[3], parts[1], Long.parseLong(parts[2]));
+            } catch (IllegalArgumentException | DateTimeParseException ex) {
+                throw new BadRequestException("Cursor de paginacion invalido");
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.trazabilidad.ayni.dashboard;
+
+import com.trazabilidad.ayni.dashboard.dto.DashboardActividadEncargadoResponse;
+import com.trazabilidad.ayni.dashboard.dto.ProyectoIndicadorResponse;
+import com.trazabilidad.ayni.proyecto.Proyecto;
+import com.trazabilidad.ayni.shared.enums.EstadoProyecto;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Indicadores financieros y de avance de todos los proyectos calculados en base de datos.
+ * Una sola consulta une los totales de costos y agrupa las tareas por proyecto; el costo no crece con el número de proyectos.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class DashboardIndicadorQueryService {
+    private static final int FETCH_SIZE = 500;
+    private static final String INDICADORES_SQL = """
+            select p.id, p.nombre_proyecto, p.cliente, p.estado, p.costo, p.fecha_inicio, p.fecha_finalizacion,
+                   p.descripcion, p.ubicacion, p.responsable_id, concat(u.nombre, ' ', u.apellido) responsable,
+                   coalesce(s.fecha_solicitud, p.fecha_registro, cast(p.fecha_creacion as date)) fecha_registro,
+                   greatest(p.fecha_actualizacion, s.fecha_actualizacion) fecha_actualizacion,
+                   coalesce(c.materiales, 0) materiales, coalesce(c.mano_obra, 0) mano_obra, coalesce(c.adicionales, 0) adicionales,
+                   coalesce(t.total, 0) tareas_total, coalesce(t.completadas, 0) tareas_completadas,
+                   ar.areas
+            from proyectos p
+            left join usuarios u on u.id = p.responsable_id
+            left join solicitudes s on s.id = p.solicitud_id
+            left join (
+                select proyecto_id, total_materiales materiales, total_mano_obra mano_obra, total_adicionales adicionales
+                from proyecto_costo_totales
+            ) c on c.proyecto_id = p.id
+            left join (
+                select proyecto_id, count(*) total,
+                       count(*) filter (where lower(estado_actividad) = 'completado') completadas
+                from actividades_proyecto
+                where lower(tipo) = 'tarea'
+                group by proyecto_id
+            ) t on t.proyecto_id = p.id
+            left join (
+                select proyecto_id, string_agg(area, chr(31)) areas
+                from proyecto_areas
+                where area is not null
+                group by proyecto_id
+            ) ar on ar.proyecto_id = p.id
+            order by p.id
+            """;
+    private static final String SEPARADOR_AREAS = String.valueOf((char) 31);
+    private static final String TAREAS_ENCARGADOS_SQL = """
+            select a.id, p.id proyecto_id, p.nombre_proyecto, p.estado,
+                   coalesce(nullif(trim(a.responsable_nombre), ''), concat(u.nombre, ' ', u.apellido)) responsable,
+                   coalesce(nullif(trim(a.nombre), ''), 'Actividad') tarea,
+                   coalesce(nullif(trim(a.estado_actividad), ''), 'Pendiente') estado_actividad,
+                   coalesce(a.fecha_inicio, cast(a.fecha_registro as date)) inicio,
+                   coalesce(a.fecha_fin, cast(a.fecha_cambio_estado as date)) fin
+            from actividades_proyecto a
+            join proyectos p on p.id = a.proyecto_id
+            left join usuarios u on u.id = a.responsable_id
+            where lower(a.tipo) = 'tarea'
+              and (a.responsable_id is not null or nullif(trim(a.responsable_nombre), '') is not null)
+            order by p.id, a.id
+            """;
+    private static final String RESPONSABLES_SQL = """
+            select p.responsable_id, count(*),
+                   avg(case when t.total > 0 then t.completadas * 100 / t.total else 0 end)
+            from proyectos p
+            left join (
+                select proyecto_id, count(*) total,
+                       count(*) filter (where lower(estado_actividad) = 'completado') completadas
+                from actividades_proyecto
+                where lower(tipo) = 'tarea'
+                group by proyecto_id
+            ) t on t.proyecto_id = p.id
+            where p.responsable_id is not null
+            group by p.responsable_id
+            """;
+
+    private static final String PROGRESO_PROMEDIO_SQL = """
+            select avg(case when t.total > 0 then t.completadas * 100 / t.total else 0 end)
+            from proyectos p
+            left join (
+                select proyecto_id, count(*) total,
+                       count(*) filter (where lower(estado_actividad) = 'completado') completadas
+                from actividades_proyecto
+                where lower(tipo) = 'tarea'
+                group by proyecto_id
+            ) t on t.proyecto_id = p.id
+            """;
+
+    /** Proyectos a cargo de un responsable y el promedio del avance de esos proyectos. */
+    public record ParticipacionResponsable(long proyectos, double avancePromedio) {
+        public static final ParticipacionResponsable VACIA = new ParticipacionResponsable(0, 0);
+    }
+
+    private final EntityManager entityManager;
+
+    public List<ProyectoIndicadorResponse> indicadores() {
+        List<ProyectoIndicadorResponse> result = new ArrayList<>();
+        recorrerIndicadores(result::add);
+        return result;
+    }
+
+    /**
+     * Entrega los indicadores proyecto por proyecto con un cursor de solo avance, sin acumularlos;
+     * pensado para exportaciones dentro de una transacción.
+     */
+    public long recorrerIndicadores(Consumer<ProyectoIndicadorResponse> consumidor) {
+        return recorrer(INDICADORES_SQL, row -> consumidor.accept(map(row)));
+    }
+
+    /** Tareas con responsable de todos los proyectos, ordenadas por proyecto y tarea, leídas por cursor. */
+    public long recorrerTareasEncargados(Consumer<DashboardActividadEncargadoResponse> consumidor) {
+        return recorrer(TAREAS_ENCARGADOS_SQL, row -> consumidor.accept(mapTarea(row)));
+    }
+
+    /**
+     * Avance promedio de todos los proyectos (0 si no hay ninguno), agregado en una sola consulta.
+     */
+    public Double promedioProgreso() {
+        Object promedio = entityManager.createNativeQuery(PROGRESO_PROMEDIO_SQL).getSingleResult();
+        if (promedio == null) {
+            return 0.0;
+        }
+        return new BigDecimal(promedio.toString()).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    /**
+     * Participación y avance promedio agrupados por responsable_id; los usuarios sin proyectos no aparecen.
+     */
+    public Map<Long, ParticipacionResponsable> participacionPorResponsable() {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(RESPONSABLES_SQL).getResultList();
+        Map<Long, ParticipacionResponsable> result = new HashMap<>();
+        for (Object[] row : rows) {
+            result.put(((Number) row[0]).longValue(),
+                    new ParticipacionResponsable(((Number) row[1]).longValue(), row[2] != null ? ((Number) row[2]).doubleValue() : 0));
+        }
+        return result;
+    }
+
+    private long recorrer(String sql, Consumer<Object[]> consumidor) {
+        var query = entityManager.createNativeQuery(sql)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        long filas = 0;
+        try (Stream<?> rows = query.getResultStream()) {
+            Iterator<?> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                consumidor.accept((Object[]) iterator.next());
+                filas++;
+            }
+        }
+        return filas;
+    }
+
+    private ProyectoIndicadorResponse map(Object[] row) {
+        Long id = ((Number) row[0]).longValue();
+        String estado = (String) row[3];
+        BigDecimal inversion = row[4] != null ? (BigDecimal) row[4] : BigDecimal.ZERO;
+        BigDecimal gasto = ((BigDecimal) row[13]).add((BigDecimal) row[14]).add((BigDecimal) row[15]);
+        BigDecimal retorno = inversion.subtract(gasto);
+        int tasaRetorno = inversion.compareTo(BigDecimal.ZERO) > 0
+                ? retorno.multiply(new BigDecimal("100")).divide(inversion, RoundingMode.HALF_UP).intValue()
+                : 0;
+        long tareasTotal = ((Number) row[16]).longValue();
+        long tareasCompletadas = ((Number) row[17]).longValue();
+        int avance = Proyecto.calcularProgreso(tareasTotal, tareasCompletadas);
+        return ProyectoIndicadorResponse.builder().id(id).nombre((String) row[1]).cliente((String) row[2])
+                .responsable(row[10] != null ? (String) row[10] : "N/A").responsableId(row[9] != null ? ((Number) row[9]).longValue() : null)
+                .etapa(estado).estado(estado).avance(avance).eficiencia(avance).tareasCompletadas(tareasCompletadas).tareasTotal(tareasTotal)
+                .inversion(inversion).gasto(gasto).retorno(retorno).tasaRetorno(tasaRetorno)
+                .durationStart(toLocalDate(row[5])).durationEnd(toLocalDate(row[6])).descripcion((String) row[7]).ubicacion((String) row[8])
+                .areas(row[18] != null ? new ArrayList<>(List.of(((String) row[18]).split(SEPARADOR_AREAS))) : new ArrayList<>()).fechaRegistro(toLocalDate(row[11])).fechaActualizacion(toLocalDateTime(row[12]))
+                .build();
+    }
+
+    private DashboardActividadEncargadoResponse mapTarea(Object[] row) {
+        LocalDate inicio = toLocalDate(row[7]);
+        LocalDate fin = toLocalDate(row[8]);
+        String fechas = inicio == null && fin == null ? "" : fin == null ? formatearFecha(inicio) : formatearFecha(inicio) + " - " + formatearFecha(fin);
+        return DashboardActividadEncargadoResponse.builder().id(((Number) row[0]).longValue()).proyectoId(((Number) row[1]).longValue())
+                .proyecto((String) row[2]).etapa(EstadoProyecto.valueOf((String) row[3]).getDisplayName()).responsable((String) row[4])
+                .tarea((String) row[5]).estado((String) row[6]).fechas(fechas).build();
+    }
+
+    private String formatearFecha(LocalDate fecha) {
+        if (fecha == null) return "";
+        return String.format("%02d/%02d/%04d", fecha.getDayOfMonth(), fecha.getMonthValue(), fecha.getYear());
+    }
+
+    private LocalDate toLocalDate(Object value) {
+        if (value instanceof Date date) return date.toLocalDate();
+        return value instanceof LocalDate fecha ? fecha : null;
+    }
+
+    private LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) return timestamp.toLocalDateTime();
+        return value instanceof LocalDateTime fecha ? fecha : null;
+    }
+}
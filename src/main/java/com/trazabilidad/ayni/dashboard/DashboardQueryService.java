@@ -1,8 +1,5 @@
 package com.trazabilidad.ayni.dashboard;
 
-import com.trazabilidad.ayni.costo.CostoAdicionalRepository;
-import com.trazabilidad.ayni.costo.CostoManoObraRepository;
-import com.trazabilidad.ayni.costo.CostoMaterialRepository;
 import com.trazabilidad.ayni.dashboard.dto.DashboardActividadEncargadoResponse;
 import com.trazabilidad.ayni.dashboard.dto.DashboardFiltrosRequest;
 import com.trazabilidad.ayni.dashboard.dto.DashboardGastoResumen;
@@ -13,15 +10,19 @@ import com.trazabilidad.ayni.dashboard.dto.ProyectoIndicadorResponse;
 import com.trazabilidad.ayni.proyecto.ActividadProyecto;
 import com.trazabilidad.ayni.proyecto.ActividadProyectoRepository;
 import com.trazabilidad.ayni.proyecto.Proyecto;
+import com.trazabilidad.ayni.proyecto.ProyectoMetricasService;
+import com.trazabilidad.ayni.proyecto.ProyectoMetricasService.ProyectoMetricas;
 import com.trazabilidad.ayni.proyecto.ProyectoRepository;
 import com.trazabilidad.ayni.shared.enums.EstadoProyecto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
 import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.time.Month;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +33,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
@@ -44,13 +46,16 @@ public class DashboardQueryService {
     private final ProyectoRepository proyectoRepository;
     private final ActividadProyectoRepository actividadRepository;
     private final DashboardGastoQueryService gastoQueryService;
-    private final CostoMaterialRepository costoMaterialRepository;
-    private final CostoManoObraRepository costoManoObraRepository;
-    private final CostoAdicionalRepository costoAdicionalRepository;
+    private final ProyectoMetricasService proyectoMetricasService;
+    private final EntityManager entityManager;
+    private final DashboardSubconsultas subconsultas;
+
+    private record ConteoProyectos(long activos, long finalizados, long[] serieActivos, long[] serieFinalizados) {}
 
     public DashboardPaginaResponse<ProyectoIndicadorResponse> proyectos(DashboardFiltrosRequest filtros) {
         Page<Proyecto> page = proyectoRepository.findAll(proyectoSpec(filtros, true), pageable(filtros, "fechaRegistro"));
-        return pagina(page.map(this::mapProyecto));
+        Map<Long, ProyectoMetricas> metricas = proyectoMetricasService.cargar(page.map(Proyecto::getId).getContent());
+        return pagina(page.map(proyecto -> mapProyecto(proyecto, metricas.getOrDefault(proyecto.getId(), ProyectoMetricas.VACIA))));
     }
 
     public DashboardPaginaResponse<DashboardActividadEncargadoResponse> actividades(DashboardFiltrosRequest filtros) {
@@ -61,28 +66,54 @@ public class DashboardQueryService {
         return pagina(page.map(this::mapActividad));
     }
 
+    /** Conteo de proyectos y resumen de gastos corren en paralelo, cada uno en su transacción. */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public DashboardResumenTableroResponse resumen(DashboardFiltrosRequest filtros) {
-        long activos = proyectoRepository.count(proyectoSpec(withMetric(filtros, "activos"), true));
-        long finalizados = proyectoRepository.count(proyectoSpec(withMetric(filtros, "finalizados"), true));
-        DashboardGastoResumen gastos = gastoQueryService.resumen(filtros);
-        return new DashboardResumenTableroResponse(activos, finalizados, gastos.mes(), gastos.hoy(), gastos.ayer(),
-                serie(withMetric(filtros, "activos")), serie(withMetric(filtros, "finalizados")), gastos.serie());
+        var conteoProyectos = subconsultas.iniciar("conteo de proyectos", () -> conteoPorMes(filtros));
+        var resumenGastos = subconsultas.iniciar("resumen de gastos", () -> gastoQueryService.resumen(filtros));
+        DashboardSubconsultas.esperarTodas(conteoProyectos, resumenGastos);
+        ConteoProyectos conteo = conteoProyectos.resultado();
+        DashboardGastoResumen gastos = resumenGastos.resultado();
+        return new DashboardResumenTableroResponse(conteo.activos(), conteo.finalizados(), gastos.mes(), gastos.hoy(), gastos.ayer(),
+                serie(conteo.serieActivos()), serie(conteo.serieFinalizados()), gastos.serie());
     }
 
-    private List<DashboardSerieResponse> serie(DashboardFiltrosRequest filtros) {
-        Map<Month, BigDecimal> totals = new EnumMap<>(Month.class);
-        Arrays.stream(Month.values()).forEach(month -> totals.put(month, BigDecimal.ZERO));
-        Page<Proyecto> page;
-        int index = 0;
-        do {
-            page = proyectoRepository.findAll(proyectoSpec(filtros, true), PageRequest.of(index++, 1000));
-            for (Proyecto proyecto : page) {
-                LocalDate fecha = "finalizados".equalsIgnoreCase(filtros.metrica()) ? proyecto.getFechaFinalizacion() : proyecto.getFechaInicio();
-                if (fecha != null) totals.compute(fecha.getMonth(), (month, value) -> value.add(BigDecimal.ONE));
+    /**
+     * Cuenta activos y finalizados y arma sus series mensuales (por mes de inicio y de finalización)
+     * con una sola consulta agrupada, usando los mismos filtros de {@link #proyectoPredicate}.
+     */
+    private ConteoProyectos conteoPorMes(DashboardFiltrosRequest filtros) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Proyecto> proyecto = query.from(Proyecto.class);
+        Expression<EstadoProyecto> estado = proyecto.get("estado");
+        Expression<Integer> mesInicio = cb.function("month", Integer.class, proyecto.get("fechaInicio"));
+        Expression<Integer> mesFin = cb.function("month", Integer.class, proyecto.get("fechaFinalizacion"));
+        EnumSet<EstadoProyecto> estados = EnumSet.copyOf(ACTIVOS);
+        estados.addAll(FINALIZADOS);
+        query.multiselect(estado, mesInicio, mesFin, cb.count(proyecto))
+                .where(cb.and(proyectoPredicate(proyecto, cb, filtros, false), estado.in(estados)))
+                .groupBy(estado, mesInicio, mesFin);
+
+        long activos = 0, finalizados = 0;
+        long[] serieActivos = new long[12], serieFinalizados = new long[12];
+        for (Tuple fila : entityManager.createQuery(query).getResultList()) {
+            long cantidad = fila.get(3, Long.class);
+            Integer inicio = fila.get(1, Integer.class), fin = fila.get(2, Integer.class);
+            if (ACTIVOS.contains(fila.get(0, EstadoProyecto.class))) {
+                activos += cantidad;
+                if (inicio != null) serieActivos[inicio - 1] += cantidad;
+            } else {
+                finalizados += cantidad;
+                if (fin != null) serieFinalizados[fin - 1] += cantidad;
             }
-        } while (page.hasNext());
+        }
+        return new ConteoProyectos(activos, finalizados, serieActivos, serieFinalizados);
+    }
+
+    private List<DashboardSerieResponse> serie(long[] totales) {
         List<DashboardSerieResponse> result = new ArrayList<>();
-        for (int i = 1; i <= 12; i++) result.add(DashboardSerieResponse.builder().name(MESES[i - 1]).value(totals.get(Month.of(i))).build());
+        for (int i = 0; i < 12; i++) result.add(DashboardSerieResponse.builder().name(MESES[i]).value(BigDecimal.valueOf(totales[i])).build());
         return result;
     }
 
@@ -111,19 +142,13 @@ public class DashboardQueryService {
         return cb.and(predicates.toArray(new jakarta.persistence.criteria.Predicate[0]));
     }
 
-    private DashboardFiltrosRequest withMetric(DashboardFiltrosRequest f, String metrica) {
-        return new DashboardFiltrosRequest(f.page(), f.size(), metrica, f.empresa(), f.lugar(), f.area(), f.estado(), f.fechaDesde(), f.fechaHasta(), f.mes(), f.proyectoId(), f.categoria());
-    }
     private Pageable pageable(DashboardFiltrosRequest f, String field) { return PageRequest.of(f.pageOrDefault(), f.sizeOrDefault(), Sort.by(Sort.Direction.DESC, field)); }
     private <T> DashboardPaginaResponse<T> pagina(Page<T> page) { return new DashboardPaginaResponse<>(page.getContent(), page.getTotalElements(), page.getTotalPages(), page.getNumber(), page.getSize()); }
 
-    private ProyectoIndicadorResponse mapProyecto(Proyecto p) {
-        BigDecimal gasto = costoMaterialRepository.sumCostoTotalByProyectoId(p.getId())
-                .add(costoManoObraRepository.sumCostoTotalByProyectoId(p.getId()))
-                .add(costoAdicionalRepository.sumCostoTotalByProyectoId(p.getId()));
+    private ProyectoIndicadorResponse mapProyecto(Proyecto p, ProyectoMetricas metricas) {
         return ProyectoIndicadorResponse.builder().id(p.getId()).nombre(p.getNombreProyecto()).cliente(p.getCliente()).responsable(p.getResponsableNombre())
-                .etapa(p.getEstado().name()).estado(p.getEstado().name()).avance(p.calcularProgreso()).inversion(p.getCosto()).gasto(gasto).ubicacion(p.getUbicacion())
-                .areas(p.getAreas()).durationStart(p.getFechaInicio()).durationEnd(p.getFechaFinalizacion()).fechaRegistro(p.getFechaRegistro()).build();
+                .etapa(p.getEstado().name()).estado(p.getEstado().name()).avance(metricas.avance()).inversion(p.getCosto()).gasto(metricas.gastoTotal()).ubicacion(p.getUbicacion())
+                .areas(metricas.areas()).durationStart(p.getFechaInicio()).durationEnd(p.getFechaFinalizacion()).fechaRegistro(p.getFechaRegistro()).build();
     }
     private DashboardActividadEncargadoResponse mapActividad(ActividadProyecto a) {
         Proyecto p = a.getProyecto();
@@ -1,19 +1,16 @@
 package com.trazabilidad.ayni.dashboard;
 
-import com.trazabilidad.ayni.costo.CostoAdicionalRepository;
 import com.trazabilidad.ayni.costo.CostoManoObra;
-import com.trazabilidad.ayni.costo.CostoManoObraRepository;
 import com.trazabilidad.ayni.costo.CostoMaterial;
-import com.trazabilidad.ayni.costo.CostoMaterialRepository;
+import com.trazabilidad.ayni.costo.ProyectoCostoTotalesService;
+import com.trazabilidad.ayni.dashboard.DashboardIndicadorQueryService.ParticipacionResponsable;
 import com.trazabilidad.ayni.dashboard.dto.DashboardActividadEncargadoResponse;
 import com.trazabilidad.ayni.dashboard.dto.DashboardCostoDetalleResponse;
 import com.trazabilidad.ayni.dashboard.dto.DashboardResponse;
 import com.trazabilidad.ayni.dashboard.dto.DashboardSerieResponse;
 import com.trazabilidad.ayni.dashboard.dto.ProyectoIndicadorResponse;
 import com.trazabilidad.ayni.dashboard.dto.ResponsableIndicadorResponse;
-import com.trazabilidad.ayni.proyecto.ActividadProyecto;
 import com.trazabilidad.ayni.proyecto.Proyecto;
-import com.trazabilidad.ayni.proyecto.ProyectoLifecycleService;
 import com.trazabilidad.ayni.proyecto.ProyectoMapper;
 import com.trazabilidad.ayni.proyecto.ProyectoRepository;
 import com.trazabilidad.ayni.rol.Rol;
@@ -24,6 +21,7 @@ import com.trazabilidad.ayni.usuario.Usuario;
 import com.trazabilidad.ayni.usuario.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -54,93 +52,60 @@ public class DashboardService {
 
     private final SolicitudRepository solicitudRepository;
     private final ProyectoRepository proyectoRepository;
-    private final CostoMaterialRepository costoMaterialRepository;
-    private final CostoManoObraRepository costoManoObraRepository;
-    private final CostoAdicionalRepository costoAdicionalRepository;
     private final UsuarioRepository usuarioRepository;
-    private final ProyectoLifecycleService proyectoLifecycleService;
-
+    private final DashboardIndicadorQueryService indicadorQueryService;
+    private final ProyectoCostoTotalesService proyectoCostoTotalesService;
+    private final DashboardSubconsultas subconsultas;
+
+    /**
+     * Las cuatro subconsultas son independientes y corren en paralelo; los conteos por estado salen de un
+     * GROUP BY por tabla en lugar de una consulta por estado.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public DashboardResponse obtenerResumenGeneral() {
-        proyectoLifecycleService.archivarProyectosInactivos();
+        var solicitudes = subconsultas.iniciar("solicitudes por estado", solicitudRepository::contarPorEstado);
+        var proyectos = subconsultas.iniciar("proyectos por estado", proyectoRepository::contarPorEstado);
+        var promedioProgreso = subconsultas.iniciar("progreso de proyectos", indicadorQueryService::promedioProgreso);
+        var costoTotal = subconsultas.iniciar("costo total", proyectoCostoTotalesService::totalGlobal);
+        DashboardSubconsultas.esperarTodas(solicitudes, proyectos, promedioProgreso, costoTotal);
+
+        Map<EstadoSolicitud, Long> solicitudesPorEstado = solicitudes.resultado();
+        Map<EstadoProyecto, Long> proyectosPorEstado = proyectos.resultado();
         return DashboardResponse.builder()
-                .totalSolicitudes(solicitudRepository.count())
-                .totalProyectos(proyectoRepository.count())
+                .totalSolicitudes(total(solicitudesPorEstado))
+                .totalProyectos(total(proyectosPorEstado))
                 .totalTareas(0L)
-                .solicitudesPendientes(solicitudRepository.countByEstado(EstadoSolicitud.PENDIENTE))
-                .proyectosEnProceso(proyectoRepository.countByEstado(EstadoProyecto.EN_PROCESO))
+                .solicitudesPendientes(solicitudesPorEstado.get(EstadoSolicitud.PENDIENTE))
+                .proyectosEnProceso(proyectosPorEstado.get(EstadoProyecto.EN_PROCESO))
                 .tareasRetrasadas(0L)
-                .promedioProgresoProyectos(calcularPromedioProgresoProyectos())
-                .costoTotalGlobal(calcularCostoTotalGlobal())
-                .distribucionEstadosSolicitudes(obtenerDistribucionSolicitudes())
-                .distribucionEstadosProyectos(obtenerDistribucionProyectos())
+                .promedioProgresoProyectos(promedioProgreso.resultado())
+                .costoTotalGlobal(costoTotal.resultado())
+                .distribucionEstadosSolicitudes(distribucion(solicitudesPorEstado))
+                .distribucionEstadosProyectos(distribucion(proyectosPorEstado))
                 .distribucionEstadosTareas(new HashMap<>())
                 .build();
     }
 
-    private Double calcularPromedioProgresoProyectos() {
-        List<Proyecto> proyectos = proyectoRepository.findAll();
-        if (proyectos.isEmpty()) {
-            return 0.0;
-        }
-
-        double suma = proyectos.stream().mapToInt(Proyecto::calcularProgreso).sum();
-        return BigDecimal.valueOf(suma / proyectos.size()).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    private long total(Map<? extends Enum<?>, Long> porEstado) {
+        return porEstado.values().stream().mapToLong(Long::longValue).sum();
     }
 
-    private BigDecimal calcularCostoTotalGlobal() {
-        List<Long> proyectoIds = proyectoRepository.findAll().stream().map(Proyecto::getId).toList();
-        BigDecimal total = BigDecimal.ZERO;
-        for (Long proyectoId : proyectoIds) {
-            BigDecimal totalMateriales = costoMaterialRepository.sumCostoTotalByProyectoId(proyectoId);
-            if (totalMateriales == null)
-                totalMateriales = BigDecimal.ZERO;
-
-            BigDecimal totalManoObra = costoManoObraRepository.sumCostoTotalByProyectoId(proyectoId);
-            if (totalManoObra == null)
-                totalManoObra = BigDecimal.ZERO;
-
-            BigDecimal totalAdicionales = costoAdicionalRepository.sumCostoTotalByProyectoId(proyectoId);
-            if (totalAdicionales == null)
-                totalAdicionales = BigDecimal.ZERO;
-
-            total = total.add(totalMateriales).add(totalManoObra).add(totalAdicionales);
-        }
-        return total;
-    }
-
-    private Map<String, Long> obtenerDistribucionSolicitudes() {
+    private Map<String, Long> distribucion(Map<? extends Enum<?>, Long> porEstado) {
         Map<String, Long> distribucion = new HashMap<>();
-        for (EstadoSolicitud estado : EstadoSolicitud.values()) {
-            distribucion.put(estado.name(), solicitudRepository.countByEstado(estado));
-        }
-        return distribucion;
-    }
-
-    private Map<String, Long> obtenerDistribucionProyectos() {
-        Map<String, Long> distribucion = new HashMap<>();
-        for (EstadoProyecto estado : EstadoProyecto.values()) {
-            distribucion.put(estado.name(), proyectoRepository.countByEstado(estado));
-        }
+        porEstado.forEach((estado, cantidad) -> distribucion.put(estado.name(), cantidad));
         return distribucion;
     }
 
     public List<ResponsableIndicadorResponse> obtenerIndicadoresResponsables() {
-        proyectoLifecycleService.archivarProyectosInactivos();
-        List<Usuario> usuarios = usuarioRepository.findAll();
-        List<Proyecto> proyectos = proyectoRepository.findAll();
-        long totalProyectosGlobal = proyectos.size();
-        List<ResponsableIndicadorResponse> list = new ArrayList<>();
+        List<Usuario> usuarios = usuarioRepository.findAllConRoles();
+        Map<Long, ParticipacionResponsable> participaciones = indicadorQueryService.participacionPorResponsable();
+        long totalProyectosGlobal = proyectoRepository.count();
+        List<ResponsableIndicadorResponse> list = new ArrayList<>(usuarios.size());
 
         for (Usuario u : usuarios) {
-            long participacionProyectos = proyectos.stream()
-                    .filter(p -> p.getResponsable() != null && p.getResponsable().getId().equals(u.getId()))
-                    .count();
-
-            int tareasRealizadasPorcentaje = (int) (proyectos.stream()
-                    .filter(p -> p.getResponsable() != null && p.getResponsable().getId().equals(u.getId()))
-                    .mapToInt(Proyecto::calcularProgreso)
-                    .average()
-                    .orElse(0.0));
+            ParticipacionResponsable participacion = participaciones.getOrDefault(u.getId(), ParticipacionResponsable.VACIA);
+            long participacionProyectos = participacion.proyectos();
+            int tareasRealizadasPorcentaje = (int) participacion.avancePromedio();
 
             int tareasRealizadasTiempo = 0;
             int tareasPorcentajeProyectos = totalProyectosGlobal == 0 ? 0
@@ -186,77 +151,18 @@ public class DashboardService {
     }
 
     public List<ProyectoIndicadorResponse> obtenerIndicadoresProyectos() {
-        proyectoLifecycleService.archivarProyectosInactivos();
-        List<Proyecto> proyectos = proyectoRepository.findAll();
-        List<ProyectoIndicadorResponse> list = new ArrayList<>();
-
-        for (Proyecto p : proyectos) {
-            BigDecimal totalMateriales = costoMaterialRepository.sumCostoTotalByProyectoId(p.getId());
-            if (totalMateriales == null)
-                totalMateriales = BigDecimal.ZERO;
-
-            BigDecimal totalManoObra = costoManoObraRepository.sumCostoTotalByProyectoId(p.getId());
-            if (totalManoObra == null)
-                totalManoObra = BigDecimal.ZERO;
-
-            BigDecimal totalAdicionales = costoAdicionalRepository.sumCostoTotalByProyectoId(p.getId());
-            if (totalAdicionales == null)
-                totalAdicionales = BigDecimal.ZERO;
-
-            BigDecimal gasto = totalMateriales.add(totalManoObra).add(totalAdicionales);
-            BigDecimal inversion = p.getCosto() != null ? p.getCosto() : BigDecimal.ZERO;
-            BigDecimal retorno = inversion.subtract(gasto);
-
-            int tasaRetorno = 0;
-            if (inversion.compareTo(BigDecimal.ZERO) > 0) {
-                tasaRetorno = retorno.multiply(new BigDecimal("100")).divide(inversion, RoundingMode.HALF_UP).intValue();
-            }
-
-            int eficiencia = p.calcularProgreso();
-            String responsableNombre = p.getResponsable() != null ? p.getResponsable().getNombreCompleto() : "N/A";
-            Long responsableId = p.getResponsable() != null ? p.getResponsable().getId() : null;
-
-            list.add(ProyectoIndicadorResponse.builder()
-                    .id(p.getId())
-                    .nombre(p.getNombreProyecto())
-                    .responsable(responsableNombre)
-                    .responsableId(responsableId)
-                    .cliente(p.getCliente())
-                    .etapa(p.getEstado().name())
-                    .estado(p.getEstado().name())
-                    .avance(p.calcularProgreso())
-                    .tareasCompletadas(0L)
-                    .tareasTotal(0L)
-                    .eficiencia(eficiencia)
-                    .inversion(inversion)
-                    .gasto(gasto)
-                    .retorno(retorno)
-                    .durationStart(p.getFechaInicio())
-                    .durationEnd(p.getFechaFinalizacion())
-                    .tasaRetorno(tasaRetorno)
-                    .descripcion(p.getDescripcion())
-                    .ubicacion(p.getUbicacion())
-                    .areas(p.getAreas())
-                    .fechaRegistro(ProyectoMapper.resolveFechaRegistro(p))
-                    .fechaActualizacion(ProyectoMapper.resolveFechaActualizacion(p))
-                    .build());
-        }
-
-        return list;
+        return indicadorQueryService.indicadores();
     }
 
     public List<DashboardSerieResponse> obtenerGraficoActivosPorMes() {
-        proyectoLifecycleService.archivarProyectosInactivos();
         return construirSerieMensualPorProyecto(proyectoRepository.findAll(), ESTADOS_ACTIVOS, false);
     }
 
     public List<DashboardSerieResponse> obtenerGraficoFinalizadosPorMes() {
-        proyectoLifecycleService.archivarProyectosInactivos();
         return construirSerieMensualPorProyecto(proyectoRepository.findAll(), ESTADOS_FINALIZADOS, true);
     }
 
     public List<DashboardSerieResponse> obtenerGraficoGastosPorMes() {
-        proyectoLifecycleService.archivarProyectosInactivos();
         Map<Month, BigDecimal> acumulado = inicializarSerieMensual();
 
         for (Proyecto proyecto : proyectoRepository.findAll()) {
@@ -285,7 +191,6 @@ public class DashboardService {
     }
 
     public List<DashboardCostoDetalleResponse> obtenerGastosProyectos() {
-        proyectoLifecycleService.archivarProyectosInactivos();
         List<DashboardCostoDetalleResponse> gastos = new ArrayList<>();
 
         for (Proyecto proyecto : proyectoRepository.findAll()) {
@@ -336,34 +241,8 @@ public class DashboardService {
     }
 
     public List<DashboardActividadEncargadoResponse> obtenerTareasEncargados() {
-        proyectoLifecycleService.archivarProyectosInactivos();
         List<DashboardActividadEncargadoResponse> actividades = new ArrayList<>();
-
-        for (Proyecto proyecto : proyectoRepository.findAll()) {
-            for (ActividadProyecto actividad : proyecto.getActividades()) {
-                if (!"tarea".equalsIgnoreCase(actividad.getTipo())) {
-                    continue;
-                }
-                if (actividad.getResponsable() == null && (actividad.getResponsableNombre() == null || actividad.getResponsableNombre().isBlank())) {
-                    continue;
-                }
-
-                actividades.add(DashboardActividadEncargadoResponse.builder()
-                        .id(actividad.getId())
-                        .responsable(valorODefault(actividad.getResponsableNombre(), actividad.getResponsable() != null ? actividad.getResponsable().getNombreCompleto() : null))
-                        .tarea(valorODefault(actividad.getNombre(), "Actividad"))
-                        .proyecto(proyecto.getNombreProyecto())
-                        .proyectoId(proyecto.getId())
-                        .etapa(proyecto.getEstado().getDisplayName())
-                        .fechas(formatearRangoActividad(actividad))
-                        .estado(valorODefault(actividad.getEstadoActividad(), "Pendiente"))
-                        .build());
-            }
-        }
-
-        actividades.sort(Comparator
-                .comparing(DashboardActividadEncargadoResponse::getProyectoId, Comparator.nullsLast(Comparator.naturalOrder()))
-                .thenComparing(DashboardActividadEncargadoResponse::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+        indicadorQueryService.recorrerTareasEncargados(actividades::add);
         return actividades;
     }
 
@@ -450,33 +329,6 @@ public class DashboardService {
         return valorODefault(proyecto.getResponsable().getNombreCompleto(), "Sin responsable");
     }
 
-    private String formatearRangoActividad(ActividadProyecto actividad) {
-        LocalDate inicio = actividad.getFechaInicio();
-        LocalDate fin = actividad.getFechaFin();
-
-        if (inicio == null && actividad.getFechaRegistro() != null) {
-            inicio = actividad.getFechaRegistro().toLocalDate();
-        }
-        if (fin == null && actividad.getFechaCambioEstado() != null) {
-            fin = actividad.getFechaCambioEstado().toLocalDate();
-        }
-
-        if (inicio == null && fin == null) {
-            return "";
-        }
-        if (fin == null) {
-            return formatearFecha(inicio);
-        }
-        return formatearFecha(inicio) + " - " + formatearFecha(fin);
-    }
-
-    private String formatearFecha(LocalDate fecha) {
-        if (fecha == null) {
-            return "";
-        }
-        return String.format("%02d/%02d/%04d", fecha.getDayOfMonth(), fecha.getMonthValue(), fecha.getYear());
-    }
-
     private LocalDate toLocalDate(LocalDateTime fecha) {
         return fecha != null ? fecha.toLocalDate() : null;
     }
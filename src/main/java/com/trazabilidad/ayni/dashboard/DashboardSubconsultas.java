@@ -0,0 +1,134 @@
+package com.trazabilidad.ayni.dashboard;
+
+import com.trazabilidad.ayni.shared.util.WorkerThreads;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta en paralelo las subconsultas independientes de un tablero, cada una en su propia transacción de
+ * solo lectura y con tiempo límite, de modo que la latencia total se acerca a la de la consulta más lenta.
+ * El pool es acotado (hilos virtuales si la app los usa) para no tomar más de {@code parallelism} conexiones;
+ * con la cola llena la subconsulta corre en el hilo que la pidió. Quien combina los resultados no debe tener
+ * una transacción abierta: retendría una conexión mientras espera a las demás.
+ */
+@Component
+public class DashboardSubconsultas {
+
+    /** Subconsulta en curso; {@link #resultado()} espera como máximo hasta su plazo y la cancela si lo excede. */
+    public static final class Subconsulta<T> {
+
+        private final String nombre;
+        private final Future<T> future;
+        private final long plazoNanos;
+
+        private Subconsulta(String nombre, Future<T> future, long plazoNanos) {
+            this.nombre = nombre;
+            this.future = future;
+            this.plazoNanos = plazoNanos;
+        }
+
+        public T resultado() {
+            try {
+                return future.get(Math.max(0L, plazoNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                future.cancel(true);
+                throw new QueryTimeoutException("La consulta de " + nombre + " del tablero excedio el tiempo limite");
+            } catch (InterruptedException ex) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Se interrumpio la consulta de " + nombre + " del tablero", ex);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (ex.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException(ex.getCause());
+            }
+        }
+
+        private void cancelar() {
+            future.cancel(true);
+        }
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final TransactionTemplate transaccion;
+    private final Duration timeout;
+
+    public DashboardSubconsultas(
+            PlatformTransactionManager transactionManager,
+            @Value("${app.dashboard.subconsultas.parallelism:4}") int parallelism,
+            @Value("${app.dashboard.subconsultas.queue-capacity:100}") int queueCapacity,
+            @Value("${app.dashboard.subconsultas.timeout:15s}") Duration timeout,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            MeterRegistry meterRegistry) {
+        int poolSize = Math.max(1, parallelism);
+        this.executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                WorkerThreads.factory("dashboard-", virtualThreads),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.timeout = timeout;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.transaccion.setReadOnly(true);
+        this.transaccion.setTimeout((int) Math.max(1L, (timeout.toMillis() + 999) / 1000));
+
+        Gauge.builder("dashboard.subconsultas.queue", executor, pool -> pool.getQueue().size())
+                .description("Subconsultas del tablero en espera")
+                .register(meterRegistry);
+        Gauge.builder("dashboard.subconsultas.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Subconsultas del tablero en ejecucion")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lanza la subconsulta; el plazo corre desde ahora aunque el resultado se pida después.
+     */
+    public <T> Subconsulta<T> iniciar(String nombre, Supplier<T> consulta) {
+        long plazo = System.nanoTime() + timeout.toNanos();
+        Future<T> future = executor.submit(() -> transaccion.execute(status -> consulta.get()));
+        return new Subconsulta<>(nombre, future, plazo);
+    }
+
+    /**
+     * Espera todas las subconsultas; si una falla o excede su plazo cancela las demás (liberando sus conexiones)
+     * y propaga ese error. Después, {@link Subconsulta#resultado()} de cada una responde sin esperar.
+     */
+    public static void esperarTodas(Subconsulta<?>... subconsultas) {
+        try {
+            for (Subconsulta<?> subconsulta : subconsultas) {
+                subconsulta.resultado();
+            }
+        } catch (RuntimeException | Error ex) {
+            for (Subconsulta<?> subconsulta : subconsultas) {
+                subconsulta.cancelar();
+            }
+            throw ex;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
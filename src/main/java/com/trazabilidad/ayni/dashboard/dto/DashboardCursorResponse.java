@@ -0,0 +1,9 @@
+package com.trazabilidad.ayni.dashboard.dto;
+
+import java.util.List;
+
+/**
+ * Página por cursor para listados de scroll infinito. {@code nextCursor} es nulo en la última página
+ * y {@code totalElements} solo viene cuando se pidió el total.
+ */
+public record DashboardCursorResponse<T>(List<T> content, String nextCursor, boolean hasMore, Long totalElements, int size) {}
@@ -1,5 +1,6 @@
 package com.trazabilidad.ayni.firma;
 
+import com.trazabilidad.ayni.shared.util.Constants;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,7 +18,8 @@ import java.time.LocalDateTime;
 public class Firma {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "firmas_id_seq")
+    @SequenceGenerator(name = "firmas_id_seq", sequenceName = "firmas_id_seq", allocationSize = Constants.Persistence.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, length = 200)
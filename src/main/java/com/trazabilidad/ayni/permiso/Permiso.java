@@ -1,6 +1,7 @@
 package com.trazabilidad.ayni.permiso;
 
 import com.trazabilidad.ayni.shared.util.Auditable;
+import com.trazabilidad.ayni.shared.util.Constants;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -24,7 +25,8 @@ import java.util.Set;
 public class Permiso extends Auditable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "permisos_id_seq")
+    @SequenceGenerator(name = "permisos_id_seq", sequenceName = "permisos_id_seq", allocationSize = Constants.Persistence.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 100)
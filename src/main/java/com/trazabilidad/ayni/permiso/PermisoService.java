@@ -1,5 +1,7 @@
 package com.trazabilidad.ayni.permiso;
 
+import com.trazabilidad.ayni.auth.AuthPrincipalCache;
+import com.trazabilidad.ayni.auth.SecurityVersionRegistry;
 import com.trazabilidad.ayni.permiso.dto.PermisoRequest;
 import com.trazabilidad.ayni.permiso.dto.PermisoResponse;
 import com.trazabilidad.ayni.shared.exception.DuplicateEntityException;
@@ -23,6 +25,8 @@ public class PermisoService {
 
     private final PermisoRepository permisoRepository;
     private final PermisoMapper permisoMapper;
+    private final AuthPrincipalCache principalCache;
+    private final SecurityVersionRegistry securityVersionRegistry;
 
     /**
      * Obtiene todos los permisos
@@ -102,6 +106,8 @@ public class PermisoService {
         permisoMapper.updateEntity(permiso, request);
 
         Permiso permisoActualizado = permisoRepository.save(permiso);
+        securityVersionRegistry.incrementarPorPermiso(id);
+        principalCache.invalidarTodos();
         log.info("Permiso actualizado exitosamente con ID: {}", id);
 
         return permisoMapper.toResponse(permisoActualizado);
@@ -118,7 +124,9 @@ public class PermisoService {
             throw new EntityNotFoundException("Permiso", id);
         }
 
+        securityVersionRegistry.incrementarPorPermiso(id);
         permisoRepository.deleteById(id);
+        principalCache.invalidarTodos();
         log.info("Permiso eliminado exitosamente con ID: {}", id);
     }
 }
@@ -1,5 +1,6 @@
 package com.trazabilidad.ayni.proyecto;
 
+import com.trazabilidad.ayni.shared.util.Constants;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,7 +18,8 @@ import lombok.NoArgsConstructor;
 public class ActividadAdjunto {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "actividad_adjuntos_id_seq")
+    @SequenceGenerator(name = "actividad_adjuntos_id_seq", sequenceName = "actividad_adjuntos_id_seq", allocationSize = Constants.Persistence.ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
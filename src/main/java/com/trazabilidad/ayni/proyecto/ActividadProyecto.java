@@ -1,5 +1,6 @@
 package com.trazabilidad.ayni.proyecto;
 
+import com.trazabilidad.ayni.shared.util.Constants;
 import com.trazabilidad.ayni.usuario.Usuario;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -23,7 +24,8 @@ import java.util.List;
 public class ActividadProyecto {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "actividades_proyecto_id_seq")
+    @SequenceGenerator(name = "actividades_proyecto_id_seq", sequenceName = "actividades_proyecto_id_seq", allocationSize = Constants.Persistence.ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
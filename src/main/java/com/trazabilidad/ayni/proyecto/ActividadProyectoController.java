@@ -3,6 +3,7 @@ package com.trazabilidad.ayni.proyecto;
 import com.trazabilidad.ayni.proyecto.dto.ActividadProyectoRequest;
 import com.trazabilidad.ayni.proyecto.dto.FlujoNodoResponse;
 import com.trazabilidad.ayni.shared.dto.PaginatedResponse;
+import com.trazabilidad.ayni.shared.storage.InlineAttachmentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
@@ -22,6 +23,7 @@ import java.util.List;
 public class ActividadProyectoController {
 
     private final ActividadProyectoService actividadProyectoService;
+    private final InlineAttachmentService inlineAttachmentService;
 
     @GetMapping
     public ResponseEntity<?> listar(
@@ -58,7 +60,10 @@ public class ActividadProyectoController {
     public ResponseEntity<FlujoNodoResponse> crear(
             @PathVariable Long proyectoId,
             @Valid @RequestBody ActividadProyectoRequest request) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(actividadProyectoService.crear(proyectoId, request));
+        FlujoNodoResponse response = inlineAttachmentService.prepare()
+                .offload(request.getAdjuntos(), proyectoId, null)
+                .run(() -> actividadProyectoService.crear(proyectoId, request));
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
     @PutMapping("/{actividadId}")
@@ -66,7 +71,9 @@ public class ActividadProyectoController {
             @PathVariable Long proyectoId,
             @PathVariable Long actividadId,
             @Valid @RequestBody ActividadProyectoRequest request) {
-        return ResponseEntity.ok(actividadProyectoService.actualizar(proyectoId, actividadId, request));
+        return ResponseEntity.ok(inlineAttachmentService.prepare()
+                .offload(request.getAdjuntos(), proyectoId, actividadId)
+                .run(() -> actividadProyectoService.actualizar(proyectoId, actividadId, request)));
     }
 
     @DeleteMapping("/{actividadId}")
@@ -79,7 +86,13 @@ public class ActividadProyectoController {
     public ResponseEntity<List<FlujoNodoResponse>> sincronizar(
             @PathVariable Long proyectoId,
             @RequestBody List<ActividadProyectoRequest> requests) {
-        return ResponseEntity.ok(actividadProyectoService.sincronizar(proyectoId, requests));
+        InlineAttachmentService.OffloadBatch adjuntos = inlineAttachmentService.prepare();
+        for (ActividadProyectoRequest request : requests) {
+            if (request != null) {
+                adjuntos.offload(request.getAdjuntos(), proyectoId, request.getId());
+            }
+        }
+        return ResponseEntity.ok(adjuntos.run(() -> actividadProyectoService.sincronizar(proyectoId, requests)));
     }
 
     private boolean tieneFiltros(String search, String estado, Long responsableId, LocalDate fechaDesde, LocalDate fechaHasta) {
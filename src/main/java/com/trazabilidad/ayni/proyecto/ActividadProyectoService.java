@@ -6,6 +6,7 @@ import com.trazabilidad.ayni.shared.dto.PaginatedResponse;
 import com.trazabilidad.ayni.shared.enums.EstadoProyecto;
 import com.trazabilidad.ayni.shared.exception.EntityNotFoundException;
 import com.trazabilidad.ayni.shared.security.CurrentUserService;
+import com.trazabilidad.ayni.shared.storage.InlineAttachmentService;
 import com.trazabilidad.ayni.usuario.Usuario;
 import com.trazabilidad.ayni.usuario.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
@@ -43,6 +44,7 @@ public class ActividadProyectoService {
     private final ComentarioActividadRepository comentarioActividadRepository;
     private final CurrentUserService currentUserService;
     private final ProyectoLifecycleService proyectoLifecycleService;
+    private final InlineAttachmentService inlineAttachmentService;
 
     @Transactional(readOnly = true)
     public List<FlujoNodoResponse> listarPorProyecto(Long proyectoId) {
@@ -299,13 +301,19 @@ public class ActividadProyectoService {
         }
 
         for (ActividadAdjuntoRequest adjunto : adjuntos) {
+            InlineAttachmentService.StoredAttachment almacenado = inlineAttachmentService.store(
+                    adjunto.getObjectKey(),
+                    adjunto.getDataUrl(),
+                    adjunto.getNombre(),
+                    adjunto.getTipo(),
+                    adjunto.getTamano());
             ActividadAdjunto entity = ActividadAdjunto.builder()
                     .actividad(actividad)
-                    .nombre(adjunto.getNombre())
-                    .tipo(adjunto.getTipo())
-                    .tamano(adjunto.getTamano())
-                    .objectKey(adjunto.getObjectKey())
-                    .dataUrl(adjunto.getDataUrl())
+                    .nombre(almacenado.nombre())
+                    .tipo(almacenado.tipo())
+                    .tamano(almacenado.tamano())
+                    .objectKey(almacenado.objectKey())
+                    .dataUrl(almacenado.dataUrl())
                     .build();
             actividad.getAdjuntos().add(entity);
         }
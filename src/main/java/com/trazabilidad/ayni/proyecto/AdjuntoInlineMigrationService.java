@@ -0,0 +1,141 @@
+package com.trazabilidad.ayni.proyecto;
+
+import com.trazabilidad.ayni.shared.storage.InlineAttachmentService;
+import com.trazabilidad.ayni.shared.storage.R2ClientProvider;
+import com.trazabilidad.ayni.shared.storage.R2PresignService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Migra a R2 los adjuntos históricos guardados como data URL base64 en las tablas de adjuntos.
+ * Recorre cada tabla por lotes (keyset por id) y lee el data URL fila a fila, de modo que en
+ * memoria solo hay un archivo a la vez; cada fila migrada queda con object_key y data_url nulo.
+ * Se sube el original sin optimizar ni deduplicar, así el objeto conserva exactamente los bytes y el
+ * tipo registrados y no se comparte con otra fila.
+ */
+@Slf4j
+@Service
+public class AdjuntoInlineMigrationService {
+
+    private static final List<TablaAdjuntos> TABLAS = List.of(
+            new TablaAdjuntos("actividad_adjuntos",
+                    "select t.id, t.nombre, a.proyecto_id, a.id actividad_id from actividad_adjuntos t "
+                            + "join actividades_proyecto a on a.id = t.actividad_id"),
+            new TablaAdjuntos("comentario_actividad_adjuntos",
+                    "select t.id, t.nombre, c.proyecto_id, c.actividad_id from comentario_actividad_adjuntos t "
+                            + "join comentarios_actividad c on c.id = t.comentario_id"),
+            new TablaAdjuntos("orden_compra_adjuntos",
+                    "select t.id, t.nombre, o.proyecto_id, cast(null as bigint) actividad_id from orden_compra_adjuntos t "
+                            + "join ordenes_compra o on o.id = t.orden_compra_id")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InlineAttachmentService inlineAttachmentService;
+    private final R2ClientProvider r2ClientProvider;
+    private final R2PresignService r2PresignService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public AdjuntoInlineMigrationService(
+            JdbcTemplate jdbcTemplate,
+            InlineAttachmentService inlineAttachmentService,
+            R2ClientProvider r2ClientProvider,
+            R2PresignService r2PresignService,
+            @Value("${app.storage.inline-attachments.migration.enabled:false}") boolean enabled,
+            @Value("${app.storage.inline-attachments.migration.batch-size:50}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.inlineAttachmentService = inlineAttachmentService;
+        this.r2ClientProvider = r2ClientProvider;
+        this.r2PresignService = r2PresignService;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(cron = "${app.storage.inline-attachments.migration.cron:0 30 2 * * *}")
+    public void migrarProgramado() {
+        if (enabled) {
+            migrar();
+        }
+    }
+
+    /**
+     * Ejecuta una pasada completa sobre las tres tablas; devuelve el número de adjuntos migrados.
+     * Las filas que fallan se registran y se reintentan en la siguiente pasada.
+     */
+    public int migrar() {
+        if (!r2ClientProvider.isConfigured()) {
+            log.warn("Migracion de adjuntos en linea omitida: R2 no esta configurado");
+            return 0;
+        }
+        if (!running.compareAndSet(false, true)) {
+            log.info("Ya hay una migracion de adjuntos en linea en curso");
+            return 0;
+        }
+
+        try {
+            int total = 0;
+            for (TablaAdjuntos tabla : TABLAS) {
+                total += migrarTabla(tabla);
+            }
+            log.info("Migracion de adjuntos en linea finalizada: {} adjuntos movidos a R2", total);
+            return total;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int migrarTabla(TablaAdjuntos tabla) {
+        String loteSql = tabla.consulta()
+                + " where t.id > ? and t.data_url is not null and t.object_key is null order by t.id limit ?";
+        String dataUrlSql = "select data_url from " + tabla.nombre() + " where id = ?";
+        String actualizarSql = "update " + tabla.nombre()
+                + " set object_key = ?, data_url = null where id = ? and object_key is null";
+
+        int migrados = 0;
+        long ultimoId = 0;
+        while (true) {
+            List<Pendiente> lote = jdbcTemplate.query(loteSql, (rs, rowNum) -> new Pendiente(
+                    rs.getLong("id"),
+                    rs.getString("nombre"),
+                    (Long) rs.getObject("proyecto_id", Long.class),
+                    (Long) rs.getObject("actividad_id", Long.class)), ultimoId, batchSize);
+            if (lote.isEmpty()) {
+                return migrados;
+            }
+
+            for (Pendiente pendiente : lote) {
+                ultimoId = pendiente.id();
+                try {
+                    String dataUrl = jdbcTemplate.queryForObject(dataUrlSql, String.class, pendiente.id());
+                    if (dataUrl == null) {
+                        continue;
+                    }
+                    String objectKey = inlineAttachmentService
+                            .offload(dataUrl, pendiente.nombre(), null, pendiente.proyectoId(), pendiente.actividadId(), false)
+                            .objectKey();
+                    int actualizadas = jdbcTemplate.update(actualizarSql, objectKey, pendiente.id());
+                    if (actualizadas == 0) {
+                        // La fila cambió o se eliminó mientras se subía: el objeto no tiene dueño
+                        r2PresignService.deleteObject(objectKey);
+                    }
+                    migrados += actualizadas;
+                } catch (RuntimeException ex) {
+                    log.warn("No se pudo migrar el adjunto {} de {}: {}", pendiente.id(), tabla.nombre(), ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private record TablaAdjuntos(String nombre, String consulta) {
+    }
+
+    private record Pendiente(long id, String nombre, Long proyectoId, Long actividadId) {
+    }
+}
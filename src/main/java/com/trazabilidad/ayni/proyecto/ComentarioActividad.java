@@ -1,5 +1,6 @@
 package com.trazabilidad.ayni.proyecto;
 
+import com.trazabilidad.ayni.shared.util.Constants;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -23,7 +24,8 @@ import java.util.List;
 public class ComentarioActividad {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comentarios_actividad_id_seq")
+    @SequenceGenerator(name = "comentarios_actividad_id_seq", sequenceName = "comentarios_actividad_id_seq", allocationSize = Constants.Persistence.ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
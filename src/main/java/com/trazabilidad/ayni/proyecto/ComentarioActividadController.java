@@ -2,6 +2,7 @@ package com.trazabilidad.ayni.proyecto;
 
 import com.trazabilidad.ayni.proyecto.dto.ComentarioActividadRequest;
 import com.trazabilidad.ayni.proyecto.dto.ComentarioActividadResponse;
+import com.trazabilidad.ayni.shared.storage.InlineAttachmentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -18,6 +19,7 @@ import java.util.List;
 public class ComentarioActividadController {
 
     private final ComentarioActividadService comentarioActividadService;
+    private final InlineAttachmentService inlineAttachmentService;
 
     @GetMapping
     @Operation(summary = "Listar comentarios por proyecto")
@@ -30,8 +32,10 @@ public class ComentarioActividadController {
     public ResponseEntity<ComentarioActividadResponse> crear(
             @PathVariable Long proyectoId,
             @RequestBody ComentarioActividadRequest request) {
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(comentarioActividadService.crear(proyectoId, request));
+        ComentarioActividadResponse response = inlineAttachmentService.prepare()
+                .offload(request.getAdjuntos(), proyectoId, request.getActividadId())
+                .run(() -> comentarioActividadService.crear(proyectoId, request));
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
     @PutMapping("/{comentarioId}")
@@ -40,7 +44,9 @@ public class ComentarioActividadController {
             @PathVariable Long proyectoId,
             @PathVariable Long comentarioId,
             @RequestBody ComentarioActividadRequest request) {
-        return ResponseEntity.ok(comentarioActividadService.actualizar(proyectoId, comentarioId, request));
+        return ResponseEntity.ok(inlineAttachmentService.prepare()
+                .offload(request.getAdjuntos(), proyectoId, request.getActividadId())
+                .run(() -> comentarioActividadService.actualizar(proyectoId, comentarioId, request)));
     }
 
     @DeleteMapping("/{comentarioId}")
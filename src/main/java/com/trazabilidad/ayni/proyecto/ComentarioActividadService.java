@@ -6,6 +6,7 @@ import com.trazabilidad.ayni.proyecto.dto.ComentarioActividadResponse;
 import com.trazabilidad.ayni.proyecto.dto.FlujoAdjuntoResponse;
 import com.trazabilidad.ayni.shared.audit.Auditable;
 import com.trazabilidad.ayni.shared.exception.EntityNotFoundException;
+import com.trazabilidad.ayni.shared.storage.InlineAttachmentService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,6 +29,7 @@ public class ComentarioActividadService {
     private final ProyectoRepository proyectoRepository;
     private final ComentarioActividadRepository comentarioActividadRepository;
     private final ProyectoLifecycleService proyectoLifecycleService;
+    private final InlineAttachmentService inlineAttachmentService;
 
     @Transactional(readOnly = true)
     public List<ComentarioActividadResponse> listar(Long proyectoId) {
@@ -110,13 +112,19 @@ public class ComentarioActividadService {
         }
 
         for (ActividadAdjuntoRequest adjunto : adjuntos) {
+            InlineAttachmentService.StoredAttachment almacenado = inlineAttachmentService.store(
+                    adjunto.getObjectKey(),
+                    adjunto.getDataUrl(),
+                    adjunto.getNombre(),
+                    adjunto.getTipo(),
+                    adjunto.getTamano());
             comentario.getAdjuntos().add(ComentarioActividadAdjunto.builder()
                     .comentario(comentario)
-                    .nombre(adjunto.getNombre())
-                    .tipo(adjunto.getTipo())
-                    .tamano(adjunto.getTamano())
-                    .objectKey(adjunto.getObjectKey())
-                    .dataUrl(adjunto.getDataUrl())
+                    .nombre(almacenado.nombre())
+                    .tipo(almacenado.tipo())
+                    .tamano(almacenado.tamano())
+                    .objectKey(almacenado.objectKey())
+                    .dataUrl(almacenado.dataUrl())
                     .build());
         }
     }
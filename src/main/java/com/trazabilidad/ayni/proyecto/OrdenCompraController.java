@@ -1,7 +1,9 @@
 package com.trazabilidad.ayni.proyecto;
 
+import com.trazabilidad.ayni.proyecto.dto.ActividadAdjuntoRequest;
 import com.trazabilidad.ayni.proyecto.dto.OrdenCompraRequest;
 import com.trazabilidad.ayni.proyecto.dto.OrdenCompraResponse;
+import com.trazabilidad.ayni.shared.storage.InlineAttachmentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -16,6 +18,7 @@ import java.util.List;
 public class OrdenCompraController {
 
     private final OrdenCompraService ordenCompraService;
+    private final InlineAttachmentService inlineAttachmentService;
 
     @GetMapping
     public ResponseEntity<List<OrdenCompraResponse>> listar(@PathVariable Long proyectoId) {
@@ -25,14 +28,19 @@ public class OrdenCompraController {
     @PostMapping
     public ResponseEntity<OrdenCompraResponse> crear(@PathVariable Long proyectoId,
             @Valid @RequestBody OrdenCompraRequest request) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(ordenCompraService.crear(proyectoId, request));
+        OrdenCompraResponse response = inlineAttachmentService.prepare()
+                .offload(adjuntos(request), proyectoId, null)
+                .run(() -> ordenCompraService.crear(proyectoId, request));
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
     @PutMapping("/{ordenId}")
     public ResponseEntity<OrdenCompraResponse> actualizar(@PathVariable Long proyectoId,
             @PathVariable Long ordenId,
             @Valid @RequestBody OrdenCompraRequest request) {
-        return ResponseEntity.ok(ordenCompraService.actualizar(proyectoId, ordenId, request));
+        return ResponseEntity.ok(inlineAttachmentService.prepare()
+                .offload(adjuntos(request), proyectoId, null)
+                .run(() -> ordenCompraService.actualizar(proyectoId, ordenId, request)));
     }
 
     @DeleteMapping("/{ordenId}")
@@ -45,6 +53,18 @@ public class OrdenCompraController {
     @PutMapping
     public ResponseEntity<List<OrdenCompraResponse>> reemplazarTodas(@PathVariable Long proyectoId,
             @Valid @RequestBody List<OrdenCompraRequest> requests) {
-        return ResponseEntity.ok(ordenCompraService.reemplazarTodas(proyectoId, requests));
+        InlineAttachmentService.OffloadBatch adjuntos = inlineAttachmentService.prepare();
+        requests.forEach(request -> adjuntos.offload(adjuntos(request), proyectoId, null));
+        return ResponseEntity.ok(adjuntos.run(() -> ordenCompraService.reemplazarTodas(proyectoId, requests)));
+    }
+
+    /** Solo los adjuntos con nombre llegan a registrarse; los demás no se suben. */
+    private static List<ActividadAdjuntoRequest> adjuntos(OrdenCompraRequest request) {
+        if (request == null || request.getAdjuntos() == null) {
+            return List.of();
+        }
+        return request.getAdjuntos().stream()
+                .filter(adjunto -> adjunto != null && adjunto.getNombre() != null && !adjunto.getNombre().isBlank())
+                .toList();
     }
 }
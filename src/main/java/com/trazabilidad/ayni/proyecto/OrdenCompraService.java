@@ -6,6 +6,7 @@ import com.trazabilidad.ayni.proyecto.dto.FlujoAdjuntoResponse;
 import com.trazabilidad.ayni.shared.audit.Auditable;
 import com.trazabilidad.ayni.shared.enums.EstadoProyecto;
 import com.trazabilidad.ayni.shared.exception.EntityNotFoundException;
+import com.trazabilidad.ayni.shared.storage.InlineAttachmentService;
 import com.trazabilidad.ayni.shared.storage.StorageUrlResolver;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -28,6 +29,7 @@ public class OrdenCompraService {
     private final OrdenCompraRepository ordenCompraRepository;
     private final StorageUrlResolver storageUrlResolver;
     private final ProyectoLifecycleService proyectoLifecycleService;
+    private final InlineAttachmentService inlineAttachmentService;
 
     @Transactional(readOnly = true)
     public List<OrdenCompraResponse> listar(Long proyectoId) {
@@ -199,13 +201,19 @@ public class OrdenCompraService {
                 continue;
             }
 
+            InlineAttachmentService.StoredAttachment almacenado = inlineAttachmentService.store(
+                    adjunto.getObjectKey(),
+                    adjunto.getDataUrl(),
+                    adjunto.getNombre().trim(),
+                    adjunto.getTipo() != null ? adjunto.getTipo().trim() : "application/octet-stream",
+                    adjunto.getTamano() != null ? adjunto.getTamano() : 0L);
             entity.getAdjuntos().add(OrdenCompraAdjunto.builder()
                     .ordenCompra(entity)
-                    .nombre(adjunto.getNombre().trim())
-                    .tipo(adjunto.getTipo() != null ? adjunto.getTipo().trim() : "application/octet-stream")
-                    .tamano(adjunto.getTamano() != null ? adjunto.getTamano() : 0L)
-                    .objectKey(adjunto.getObjectKey())
-                    .dataUrl(adjunto.getDataUrl())
+                    .nombre(almacenado.nombre())
+                    .tipo(almacenado.tipo())
+                    .tamano(almacenado.tamano())
+                    .objectKey(almacenado.objectKey())
+                    .dataUrl(almacenado.dataUrl())
                     .build());
         }
     }
@@ -6,6 +6,7 @@ import com.trazabilidad.ayni.costo.CostoManoObra;
 import com.trazabilidad.ayni.costo.CostoMaterial;
 import com.trazabilidad.ayni.shared.enums.EstadoProyecto;
 import com.trazabilidad.ayni.shared.util.Auditable;
+import com.trazabilidad.ayni.shared.util.Constants;
 import com.trazabilidad.ayni.solicitud.Solicitud;
 import com.trazabilidad.ayni.usuario.Usuario;
 import jakarta.persistence.*;
@@ -20,6 +21,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -29,7 +31,8 @@ import java.util.List;
         @Index(name = "idx_proyecto_solicitud", columnList = "solicitud_id", unique = true),
         @Index(name = "idx_proyecto_responsable", columnList = "responsable_id"),
         @Index(name = "idx_proyecto_estado", columnList = "estado"),
-        @Index(name = "idx_proyecto_fecha_inicio", columnList = "fecha_inicio")
+        @Index(name = "idx_proyecto_fecha_inicio", columnList = "fecha_inicio"),
+        @Index(name = "idx_proyecto_estado_ultima_actividad", columnList = "estado, ultima_actividad")
 })
 @Data
 @EqualsAndHashCode(callSuper = false)
@@ -39,7 +42,8 @@ import java.util.List;
 public class Proyecto extends Auditable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "proyectos_id_seq")
+    @SequenceGenerator(name = "proyectos_id_seq", sequenceName = "proyectos_id_seq", allocationSize = Constants.Persistence.ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "El nombre del proyecto es obligatorio")
@@ -96,6 +100,13 @@ public class Proyecto extends Auditable {
     @Column(name = "etapa_actual")
     private Integer etapaActual;
 
+    /**
+     * Momento de la última escritura sobre el proyecto o sus hijos (costos, actividades,
+     * órdenes de compra, comentarios). Base del archivado por inactividad.
+     */
+    @Column(name = "ultima_actividad")
+    private LocalDateTime ultimaActividad;
+
     @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "solicitud_id", unique = true)
     private Solicitud solicitud;
@@ -147,6 +158,28 @@ public class Proyecto extends Auditable {
         this.estado = nuevoEstado;
     }
 
+    /**
+     * Registra actividad sobre el proyecto. Las fechas planificadas posteriores al momento
+     * indicado mantienen el proyecto activo hasta que se cumplan.
+     */
+    public void registrarActividad(LocalDateTime momento) {
+        LocalDateTime ultima = momento;
+        if (fechaInicio != null && fechaInicio.atStartOfDay().isAfter(ultima)) {
+            ultima = fechaInicio.atStartOfDay();
+        }
+        if (fechaFinalizacion != null && fechaFinalizacion.atStartOfDay().isAfter(ultima)) {
+            ultima = fechaFinalizacion.atStartOfDay();
+        }
+        this.ultimaActividad = ultima;
+    }
+
+    @PrePersist
+    private void inicializarUltimaActividad() {
+        if (ultimaActividad == null) {
+            registrarActividad(LocalDateTime.now());
+        }
+    }
+
     public int calcularProgreso() {
         if (actividades == null || actividades.isEmpty()) {
             return 0;
@@ -162,7 +195,17 @@ public class Proyecto extends Auditable {
                 .filter(a -> a.getEstadoActividad() != null && a.getEstadoActividad().equalsIgnoreCase("Completado"))
                 .count();
 
-        return (int) ((completadas * 100) / actividadesTarea);
+        return calcularProgreso(actividadesTarea, completadas);
+    }
+
+    /**
+     * Porcentaje de tareas completadas a partir de conteos ya agregados.
+     */
+    public static int calcularProgreso(long tareasTotal, long tareasCompletadas) {
+        if (tareasTotal == 0) {
+            return 0;
+        }
+        return (int) ((tareasCompletadas * 100) / tareasTotal);
     }
 
     public boolean puedeFinalizarse() {
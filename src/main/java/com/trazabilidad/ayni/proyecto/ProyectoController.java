@@ -4,6 +4,7 @@ import com.trazabilidad.ayni.proyecto.dto.*;
 import com.trazabilidad.ayni.shared.dto.CambiarEstadoRequest;
 import com.trazabilidad.ayni.shared.dto.PaginatedResponse;
 import com.trazabilidad.ayni.shared.enums.EstadoProyecto;
+import com.trazabilidad.ayni.shared.storage.InlineAttachmentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -29,6 +30,7 @@ import org.springframework.web.bind.annotation.*;
 public class ProyectoController {
 
     private final ProyectoService proyectoService;
+    private final InlineAttachmentService inlineAttachmentService;
 
     @Operation(summary = "Listar proyectos con filtros y paginación")
     @GetMapping
@@ -91,7 +93,15 @@ public class ProyectoController {
     public ResponseEntity<ProyectoResponse> actualizar(
             @PathVariable Long id,
             @Valid @RequestBody ProyectoUpdateRequest request) {
-        return ResponseEntity.ok(proyectoService.actualizar(id, request));
+        InlineAttachmentService.OffloadBatch adjuntos = inlineAttachmentService.prepare();
+        if (request.getComentariosAdicionalesActividad() != null) {
+            for (ComentarioActividadRequest comentario : request.getComentariosAdicionalesActividad()) {
+                if (comentario != null && comentario.getActividadId() != null) {
+                    adjuntos.offload(comentario.getAdjuntos(), id, comentario.getActividadId());
+                }
+            }
+        }
+        return ResponseEntity.ok(adjuntos.run(() -> proyectoService.actualizar(id, request)));
     }
 
     @Operation(summary = "Cambiar estado de proyecto")
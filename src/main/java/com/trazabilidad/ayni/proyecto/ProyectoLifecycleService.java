@@ -1,10 +1,8 @@
 package com.trazabilidad.ayni.proyecto;
 
-import com.trazabilidad.ayni.costo.CostoAdicional;
-import com.trazabilidad.ayni.costo.CostoManoObra;
-import com.trazabilidad.ayni.costo.CostoMaterial;
 import com.trazabilidad.ayni.shared.enums.EstadoProyecto;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -12,12 +10,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.EnumSet;
-import java.util.List;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProyectoLifecycleService {
@@ -42,28 +38,22 @@ public class ProyectoLifecycleService {
         archivarProyectosInactivos();
     }
 
+    /**
+     * Archiva los proyectos cuya última actividad registrada supera el periodo de inactividad.
+     * Solo lo invocan el arranque y el planificador; las lecturas no pagan este costo.
+     */
     @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public List<Proyecto> archivarProyectosInactivos() {
+    public int archivarProyectosInactivos() {
         LocalDateTime ahora = LocalDateTime.now();
-        LocalDateTime fechaCorte = ahora.minusDays(DIAS_INACTIVIDAD_ARCHIVADO);
-        List<Proyecto> candidatos = proyectoRepository.findAll().stream()
-                .filter(this::puedeArchivarse)
-                .filter(proyecto -> {
-                    LocalDateTime ultimaModificacion = resolverUltimaModificacion(proyecto);
-                    return ultimaModificacion != null && !ultimaModificacion.isAfter(fechaCorte);
-                })
-                .toList();
-
-        if (candidatos.isEmpty()) {
-            return List.of();
-        }
-
-        for (Proyecto proyecto : candidatos) {
-            proyecto.cambiarEstado(EstadoProyecto.ARCHIVADO);
-            proyecto.setFechaActualizacion(ahora);
+        int archivados = proyectoRepository.archivarInactivos(
+                EstadoProyecto.ARCHIVADO,
+                ESTADOS_ARCHIVABLES,
+                ahora.minusDays(DIAS_INACTIVIDAD_ARCHIVADO),
+                ahora);
+        if (archivados > 0) {
+            log.info("Proyectos archivados por inactividad: {}", archivados);
         }
-
-        return proyectoRepository.saveAll(candidatos);
+        return archivados;
     }
 
     @Transactional
@@ -89,76 +79,8 @@ public class ProyectoLifecycleService {
             proyecto.cambiarEstado(EstadoProyecto.EN_PROCESO);
         }
 
-        proyecto.setFechaActualizacion(LocalDateTime.now());
-    }
-
-    @Transactional(readOnly = true)
-    public LocalDateTime resolverUltimaModificacion(Proyecto proyecto) {
-        if (proyecto == null) {
-            return null;
-        }
-
-        List<LocalDateTime> fechas = new ArrayList<>();
-        agregarFecha(fechas, proyecto.getFechaActualizacion());
-        agregarFecha(fechas, proyecto.getFechaCreacion());
-        agregarFecha(fechas, toDateTime(proyecto.getFechaRegistro()));
-        agregarFecha(fechas, toDateTime(proyecto.getFechaInicio()));
-        agregarFecha(fechas, toDateTime(proyecto.getFechaFinalizacion()));
-
-        for (ActividadProyecto actividad : safeList(proyecto.getActividades())) {
-            agregarFecha(fechas, actividad.getFechaCambioEstado());
-            agregarFecha(fechas, actividad.getFechaRegistro());
-            agregarFecha(fechas, toDateTime(actividad.getFechaInicio()));
-            agregarFecha(fechas, toDateTime(actividad.getFechaFin()));
-        }
-
-        for (OrdenCompra ordenCompra : safeList(proyecto.getOrdenesCompra())) {
-            agregarFecha(fechas, ordenCompra.getFechaActualizacion());
-            agregarFecha(fechas, ordenCompra.getFechaCreacion());
-            agregarFecha(fechas, toDateTime(ordenCompra.getFecha()));
-        }
-
-        for (ComentarioActividad comentario : safeList(proyecto.getComentariosAdicionalesActividad())) {
-            agregarFecha(fechas, comentario.getFechaComentario());
-            agregarFecha(fechas, toDateTime(comentario.getFechaInicio()));
-            agregarFecha(fechas, toDateTime(comentario.getFechaFin()));
-        }
-
-        for (CostoMaterial material : safeList(proyecto.getCostosMaterial())) {
-            agregarFecha(fechas, material.getFechaActualizacion());
-            agregarFecha(fechas, material.getFechaCreacion());
-            agregarFecha(fechas, toDateTime(material.getFecha()));
-        }
-
-        for (CostoManoObra manoObra : safeList(proyecto.getCostosManoObra())) {
-            agregarFecha(fechas, manoObra.getFechaActualizacion());
-            agregarFecha(fechas, manoObra.getFechaCreacion());
-        }
-
-        for (CostoAdicional adicional : safeList(proyecto.getCostosAdicionales())) {
-            agregarFecha(fechas, adicional.getFechaActualizacion());
-            agregarFecha(fechas, adicional.getFechaCreacion());
-            agregarFecha(fechas, toDateTime(adicional.getFecha()));
-        }
-
-        return fechas.stream().max(LocalDateTime::compareTo).orElse(null);
-    }
-
-    private boolean puedeArchivarse(Proyecto proyecto) {
-        return proyecto != null && proyecto.getEstado() != null && ESTADOS_ARCHIVABLES.contains(proyecto.getEstado());
-    }
-
-    private void agregarFecha(List<LocalDateTime> fechas, LocalDateTime fecha) {
-        if (fecha != null) {
-            fechas.add(fecha);
-        }
-    }
-
-    private LocalDateTime toDateTime(LocalDate fecha) {
-        return fecha != null ? fecha.atStartOfDay() : null;
-    }
-
-    private <T> List<T> safeList(List<T> items) {
-        return items != null ? items : List.of();
+        LocalDateTime ahora = LocalDateTime.now();
+        proyecto.setFechaActualizacion(ahora);
+        proyecto.registrarActividad(ahora);
     }
 }
@@ -0,0 +1,101 @@
+package com.trazabilidad.ayni.proyecto;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Carga en lote los costos por categoría (de proyecto_costo_totales), el avance de tareas y las áreas
+ * de una página de proyectos.
+ * Cada dato sale de una consulta agrupada con {@code IN (...)}, de modo que armar una página
+ * cuesta las mismas consultas sin importar cuántas filas tenga.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ProyectoMetricasService {
+
+    private static final int MAX_IDS_POR_CONSULTA = 1000;
+
+    private static final String COSTOS_SQL = """
+            select proyecto_id, total_materiales, total_mano_obra, total_adicionales
+            from proyecto_costo_totales
+            where proyecto_id in (:ids)
+            """;
+    private static final String TAREAS_SQL = """
+            select proyecto_id, count(*), count(*) filter (where lower(estado_actividad) = 'completado')
+            from actividades_proyecto
+            where proyecto_id in (:ids) and lower(tipo) = 'tarea'
+            group by proyecto_id
+            """;
+    private static final String AREAS_SQL = "select proyecto_id, area from proyecto_areas where proyecto_id in (:ids) and area is not null";
+
+    /** Métricas agregadas de un proyecto; los proyectos sin costos ni tareas quedan en cero. */
+    public record ProyectoMetricas(BigDecimal materiales, BigDecimal manoObra, BigDecimal adicionales,
+            long tareasTotal, long tareasCompletadas, List<String> areas) {
+
+        public static final ProyectoMetricas VACIA = new ProyectoMetricas(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, 0, 0, List.of());
+
+        public BigDecimal gastoTotal() {
+            return materiales.add(manoObra).add(adicionales);
+        }
+
+        public int avance() {
+            return Proyecto.calcularProgreso(tareasTotal, tareasCompletadas);
+        }
+    }
+
+    private final EntityManager entityManager;
+
+    public Map<Long, ProyectoMetricas> cargar(Collection<Long> proyectoIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(proyectoIds));
+        Map<Long, BigDecimal[]> costos = new HashMap<>();
+        Map<Long, long[]> tareas = new HashMap<>();
+        Map<Long, List<String>> areas = new HashMap<>();
+
+        for (int desde = 0; desde < ids.size(); desde += MAX_IDS_POR_CONSULTA) {
+            List<Long> lote = ids.subList(desde, Math.min(ids.size(), desde + MAX_IDS_POR_CONSULTA));
+            for (Object[] row : consultar(COSTOS_SQL, lote)) {
+                costos.put(((Number) row[0]).longValue(), new BigDecimal[] { decimal(row[1]), decimal(row[2]), decimal(row[3]) });
+            }
+            for (Object[] row : consultar(TAREAS_SQL, lote)) {
+                tareas.put(((Number) row[0]).longValue(), new long[] { ((Number) row[1]).longValue(), ((Number) row[2]).longValue() });
+            }
+            for (Object[] row : consultar(AREAS_SQL, lote)) {
+                areas.computeIfAbsent(((Number) row[0]).longValue(), id -> new ArrayList<>()).add((String) row[1]);
+            }
+        }
+
+        Map<Long, ProyectoMetricas> result = new HashMap<>();
+        for (Long id : ids) {
+            BigDecimal[] costo = costos.get(id);
+            long[] tarea = tareas.getOrDefault(id, new long[2]);
+            result.put(id, new ProyectoMetricas(
+                    costo != null ? costo[0] : BigDecimal.ZERO,
+                    costo != null ? costo[1] : BigDecimal.ZERO,
+                    costo != null ? costo[2] : BigDecimal.ZERO,
+                    tarea[0],
+                    tarea[1],
+                    areas.getOrDefault(id, new ArrayList<>())));
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> consultar(String sql, List<Long> ids) {
+        return entityManager.createNativeQuery(sql).setParameter("ids", ids).getResultList();
+    }
+
+    private BigDecimal decimal(Object value) {
+        return value != null ? (BigDecimal) value : BigDecimal.ZERO;
+    }
+}
@@ -6,10 +6,15 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -53,6 +58,33 @@ public interface ProyectoRepository extends JpaRepository<Proyecto, Long>,
                         @Param("responsableId") Long responsableId,
                         Pageable pageable);
 
+        /**
+         * Búsqueda libre indexada (V21): coincidencia parcial por trigramas o por prefijos
+         * en el tsvector, sin distinguir acentos, ordenada por relevancia. El orden del
+         * Pageable, si lo hay, desempata.
+         *
+         * @param search   Término tal como lo escribió el usuario
+         * @param prefijos Consulta tsquery de prefijos (ver BusquedaTextoService)
+         */
+        @Query(value = "SELECT * FROM proyectos p " +
+                        "WHERE (f_busqueda_texto(p.nombre_proyecto, p.cliente, p.descripcion) LIKE CONCAT('%', f_unaccent(LOWER(CAST(:search AS text))), '%') " +
+                        "   OR to_tsvector('spanish', f_busqueda_texto(p.nombre_proyecto, p.cliente, p.descripcion)) @@ to_tsquery('spanish', f_unaccent(CAST(:prefijos AS text)))) " +
+                        "  AND (CAST(:estado AS text) IS NULL OR p.estado = CAST(:estado AS text)) " +
+                        "  AND (:responsableId IS NULL OR p.responsable_id = :responsableId) " +
+                        "ORDER BY COALESCE(ts_rank(to_tsvector('spanish', f_busqueda_texto(p.nombre_proyecto, p.cliente, p.descripcion)), to_tsquery('spanish', f_unaccent(CAST(:prefijos AS text)))), 0) " +
+                        "       + word_similarity(f_unaccent(LOWER(CAST(:search AS text))), f_busqueda_texto(p.nombre_proyecto, p.cliente, p.descripcion)) DESC",
+                        countQuery = "SELECT COUNT(*) FROM proyectos p " +
+                        "WHERE (f_busqueda_texto(p.nombre_proyecto, p.cliente, p.descripcion) LIKE CONCAT('%', f_unaccent(LOWER(CAST(:search AS text))), '%') " +
+                        "   OR to_tsvector('spanish', f_busqueda_texto(p.nombre_proyecto, p.cliente, p.descripcion)) @@ to_tsquery('spanish', f_unaccent(CAST(:prefijos AS text)))) " +
+                        "  AND (CAST(:estado AS text) IS NULL OR p.estado = CAST(:estado AS text)) " +
+                        "  AND (:responsableId IS NULL OR p.responsable_id = :responsableId) ", nativeQuery = true)
+        Page<Proyecto> buscarPorTexto(
+                        @Param("search") String search,
+                        @Param("prefijos") String prefijos,
+                        @Param("estado") EstadoProyecto estado,
+                        @Param("responsableId") Long responsableId,
+                        Pageable pageable);
+
         /**
          * Busca proyecto por ID de solicitud.
          */
@@ -77,6 +109,41 @@ public interface ProyectoRepository extends JpaRepository<Proyecto, Long>,
          */
         long countByEstado(EstadoProyecto estado);
 
+        interface ConteoEstado {
+                EstadoProyecto getEstado();
+                Long getTotal();
+        }
+
+        @Query("select p.estado as estado, count(p) as total from Proyecto p group by p.estado")
+        List<ConteoEstado> findConteosPorEstado();
+
+        /**
+         * Cuenta proyectos de todos los estados con un solo GROUP BY; los estados sin proyectos quedan en cero.
+         */
+        default Map<EstadoProyecto, Long> contarPorEstado() {
+                Map<EstadoProyecto, Long> conteos = new EnumMap<>(EstadoProyecto.class);
+                for (EstadoProyecto estado : EstadoProyecto.values()) {
+                        conteos.put(estado, 0L);
+                }
+                findConteosPorEstado().forEach(conteo -> conteos.put(conteo.getEstado(), conteo.getTotal()));
+                return conteos;
+        }
+
+        /**
+         * Archiva en una sola sentencia los proyectos sin actividad desde la fecha de corte.
+         * Se apoya en el índice (estado, ultima_actividad).
+         *
+         * @return cantidad de proyectos archivados
+         */
+        @Modifying(clearAutomatically = true)
+        @Query("update Proyecto p set p.estado = :archivado, p.fechaActualizacion = :ahora " +
+                        "where p.estado in :estados and p.ultimaActividad <= :corte")
+        int archivarInactivos(
+                        @Param("archivado") EstadoProyecto archivado,
+                        @Param("estados") Collection<EstadoProyecto> estados,
+                        @Param("corte") LocalDateTime corte,
+                        @Param("ahora") LocalDateTime ahora);
+
         /**
          * Busca proyectos por responsable.
          */
@@ -9,6 +9,8 @@ import com.trazabilidad.ayni.shared.enums.EstadoProyecto;
 import com.trazabilidad.ayni.shared.enums.EstadoSolicitud;
 import com.trazabilidad.ayni.shared.exception.BadRequestException;
 import com.trazabilidad.ayni.shared.exception.EntityNotFoundException;
+import com.trazabilidad.ayni.shared.search.BusquedaTextoService;
+import com.trazabilidad.ayni.shared.storage.InlineAttachmentService;
 import com.trazabilidad.ayni.shared.storage.StorageUrlResolver;
 import com.trazabilidad.ayni.solicitud.Solicitud;
 import com.trazabilidad.ayni.solicitud.SolicitudRepository;
@@ -51,6 +53,9 @@ public class ProyectoService {
     private final CostoAdicionalCategoriaRepository costoAdicionalCategoriaRepository;
     private final StorageUrlResolver storageUrlResolver;
     private final ProyectoLifecycleService proyectoLifecycleService;
+    private final InlineAttachmentService inlineAttachmentService;
+    private final ProyectoMetricasService proyectoMetricasService;
+    private final BusquedaTextoService busquedaTextoService;
 
     // Mapeo de propiedades Java a nombres de columnas SQL (snake_case)
     private static final Map<String, String> PROPERTY_TO_COLUMN_MAP = new HashMap<>() {
@@ -99,14 +104,24 @@ public class ProyectoService {
             EstadoProyecto estado,
             Long responsableId,
             Pageable pageable) {
-        proyectoLifecycleService.archivarProyectosInactivos();
         Pageable translatedPageable = translatePageable(pageable);
-        Page<Proyecto> page = proyectoRepository.buscarConFiltros(
-                search, estado, responsableId, translatedPageable);
+        Page<Proyecto> page = busquedaTextoService.usarIndice(search)
+                ? proyectoRepository.buscarPorTexto(BusquedaTextoService.termino(search),
+                        BusquedaTextoService.prefijos(search), estado, responsableId, translatedPageable)
+                : proyectoRepository.buscarConFiltros(search, estado, responsableId, translatedPageable);
+        Map<Long, ProyectoMetricasService.ProyectoMetricas> metricas = proyectoMetricasService.cargar(
+                page.getContent().stream().map(Proyecto::getId).toList());
 
         return PaginatedResponse.<ProyectoResumenResponse>builder()
                 .content(page.getContent().stream()
-                        .map(ProyectoMapper::toResumen)
+                        .map(proyecto -> {
+                            ProyectoResumenResponse resumen = ProyectoMapper.toResumen(proyecto);
+                            ProyectoMetricasService.ProyectoMetricas metrica = metricas.getOrDefault(
+                                    proyecto.getId(), ProyectoMetricasService.ProyectoMetricas.VACIA);
+                            resumen.setProgreso(metrica.avance());
+                            resumen.setGastoTotal(metrica.gastoTotal());
+                            return resumen;
+                        })
                         .toList())
                 .page(page.getNumber())
                 .size(page.getSize())
@@ -120,7 +135,6 @@ public class ProyectoService {
      */
     @Transactional(readOnly = true)
     public ProyectoResponse obtenerPorId(Long id) {
-        proyectoLifecycleService.archivarProyectosInactivos();
         Proyecto proyecto = proyectoRepository.findWithEtapasById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Proyecto", id));
 
@@ -337,23 +351,17 @@ public class ProyectoService {
      */
     @Transactional(readOnly = true)
     public EstadisticasProyectoResponse obtenerEstadisticas() {
-        proyectoLifecycleService.archivarProyectosInactivos();
-        long total = proyectoRepository.count();
-        long pendientes = proyectoRepository.countByEstado(EstadoProyecto.PENDIENTE);
-        long enProceso = proyectoRepository.countByEstado(EstadoProyecto.EN_PROCESO);
-        long completados = proyectoRepository.countByEstado(EstadoProyecto.COMPLETADO);
-        long cancelados = proyectoRepository.countByEstado(EstadoProyecto.CANCELADO);
-        long finalizados = proyectoRepository.countByEstado(EstadoProyecto.FINALIZADO);
+        Map<EstadoProyecto, Long> porEstado = proyectoRepository.contarPorEstado();
 
         Double promedioProgreso = 0.0;
 
         return EstadisticasProyectoResponse.builder()
-                .total(total)
-                .pendientes(pendientes)
-                .enProceso(enProceso)
-                .completados(completados)
-                .cancelados(cancelados)
-                .finalizados(finalizados)
+                .total(porEstado.values().stream().mapToLong(Long::longValue).sum())
+                .pendientes(porEstado.get(EstadoProyecto.PENDIENTE))
+                .enProceso(porEstado.get(EstadoProyecto.EN_PROCESO))
+                .completados(porEstado.get(EstadoProyecto.COMPLETADO))
+                .cancelados(porEstado.get(EstadoProyecto.CANCELADO))
+                .finalizados(porEstado.get(EstadoProyecto.FINALIZADO))
                 .promedioProgreso(promedioProgreso)
                 .build();
     }
@@ -454,13 +462,19 @@ public class ProyectoService {
 
                     if (item.getAdjuntos() != null) {
                         for (ActividadAdjuntoRequest adjunto : item.getAdjuntos()) {
+                            InlineAttachmentService.StoredAttachment almacenado = inlineAttachmentService.store(
+                                    adjunto.getObjectKey(),
+                                    adjunto.getDataUrl(),
+                                    adjunto.getNombre(),
+                                    adjunto.getTipo(),
+                                    adjunto.getTamano());
                             comentario.getAdjuntos().add(ComentarioActividadAdjunto.builder()
                                     .comentario(comentario)
-                                    .nombre(adjunto.getNombre())
-                                    .tipo(adjunto.getTipo())
-                                    .tamano(adjunto.getTamano())
-                                    .objectKey(adjunto.getObjectKey())
-                                    .dataUrl(adjunto.getDataUrl())
+                                    .nombre(almacenado.nombre())
+                                    .tipo(almacenado.tipo())
+                                    .tamano(almacenado.tamano())
+                                    .objectKey(almacenado.objectKey())
+                                    .dataUrl(almacenado.dataUrl())
                                     .build());
                         }
                     }
@@ -1,5 +1,6 @@
 package com.trazabilidad.ayni.proyecto.dto;
 
+import com.trazabilidad.ayni.shared.storage.InlineAttachmentService;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,7 +10,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class ActividadAdjuntoRequest {
+public class ActividadAdjuntoRequest implements InlineAttachmentService.InlineAttachment {
     private String nombre;
     private String tipo;
     private Long tamano;
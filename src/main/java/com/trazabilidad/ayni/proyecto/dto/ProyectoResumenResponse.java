@@ -30,4 +30,6 @@ public class ProyectoResumenResponse {
     private String responsableAnteriorNombre;
     private LocalDate fechaInicio;
     private LocalDate fechaFinalizacion;
+    private Integer progreso;
+    private BigDecimal gastoTotal;
 }
@@ -1,5 +1,7 @@
 package com.trazabilidad.ayni.rol;
 
+import com.trazabilidad.ayni.auth.AuthPrincipalCache;
+import com.trazabilidad.ayni.auth.SecurityVersionRegistry;
 import com.trazabilidad.ayni.permiso.Permiso;
 import com.trazabilidad.ayni.permiso.PermisoRepository;
 import com.trazabilidad.ayni.rol.dto.RolRequest;
@@ -27,6 +29,8 @@ public class RolService {
     private final RolRepository rolRepository;
     private final PermisoRepository permisoRepository;
     private final RolMapper rolMapper;
+    private final AuthPrincipalCache principalCache;
+    private final SecurityVersionRegistry securityVersionRegistry;
 
     /**
      * Obtiene todos los roles
@@ -135,6 +139,8 @@ public class RolService {
         }
 
         Rol rolActualizado = rolRepository.save(rol);
+        securityVersionRegistry.incrementarPorRol(id);
+        principalCache.invalidarTodos();
         log.info("Rol actualizado exitosamente con ID: {}", id);
 
         return rolMapper.toResponse(rolActualizado);
@@ -152,6 +158,8 @@ public class RolService {
         // Borrado lógico
         rol.setActivo(false);
         rolRepository.save(rol);
+        securityVersionRegistry.incrementarPorRol(id);
+        principalCache.invalidarTodos();
 
         log.info("Rol eliminado exitosamente con ID: {}", id);
     }
@@ -167,6 +175,8 @@ public class RolService {
 
         rol.setActivo(activo);
         Rol rolActualizado = rolRepository.save(rol);
+        securityVersionRegistry.incrementarPorRol(id);
+        principalCache.invalidarTodos();
 
         log.info("Estado cambiado exitosamente para rol ID: {}", id);
         return rolMapper.toResponse(rolActualizado);
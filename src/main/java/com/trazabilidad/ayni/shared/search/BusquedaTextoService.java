@@ -0,0 +1,51 @@
+package com.trazabilidad.ayni.shared.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Prepara los términos de búsqueda libre para las consultas indexadas de proyectos y solicitudes
+ * (ver V21: pg_trgm + tsvector en español sin acentos). Con {@code app.search.full-text.enabled}
+ * en false los listados vuelven al LIKE original, útil donde Flyway no creó las funciones.
+ */
+@Component
+public class BusquedaTextoService {
+
+    private final boolean indexada;
+
+    public BusquedaTextoService(@Value("${app.search.full-text.enabled:true}") boolean indexada) {
+        this.indexada = indexada;
+    }
+
+    public boolean usarIndice(String search) {
+        return indexada && termino(search) != null;
+    }
+
+    /** Término recortado, o null si no hay nada que buscar. */
+    public static String termino(String search) {
+        if (search == null || search.isBlank()) {
+            return null;
+        }
+        return search.trim();
+    }
+
+    /**
+     * Convierte el texto en una consulta tsquery de prefijos: "constru lima" pasa a
+     * "constru:* & lima:*". Devuelve null si no queda ninguna palabra.
+     */
+    public static String prefijos(String search) {
+        String termino = termino(search);
+        if (termino == null) {
+            return null;
+        }
+        String consulta = Arrays.stream(termino.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(palabra -> !palabra.isBlank())
+                .map(palabra -> palabra + ":*")
+                .collect(Collectors.joining(" & "));
+        return consulta.isEmpty() ? null : consulta;
+    }
+}
@@ -18,7 +18,7 @@ public class CurrentUserService {
     }
 
     public boolean isAdmin() {
-        return getCurrentUserDetails().getUsuario().tieneRol(Constants.Roles.ADMINISTRADOR);
+        return getCurrentUserDetails().tieneRol(Constants.Roles.ADMINISTRADOR);
     }
 
     private CustomUserDetails getCurrentUserDetails() {
@@ -0,0 +1,61 @@
+package com.trazabilidad.ayni.shared.storage;
+
+import com.trazabilidad.ayni.shared.util.Constants;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Índice de deduplicación: SHA-256 del archivo original recibido y el objeto ya subido a R2 dentro de
+ * un ámbito (el usuario que lo subió); el objeto no se comparte fuera de ese ámbito.
+ */
+@Entity
+@Table(name = "archivos_almacenados", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_archivos_almacenados_sha256_ambito", columnNames = {"sha256", "ambito"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivoAlmacenado {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "archivos_almacenados_id_seq")
+    @SequenceGenerator(name = "archivos_almacenados_id_seq", sequenceName = "archivos_almacenados_id_seq", allocationSize = Constants.Persistence.ID_ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(nullable = false, length = 64)
+    private String ambito;
+
+    @Column(name = "object_key", nullable = false, length = 1024)
+    private String objectKey;
+
+    @Column(name = "nombre_archivo")
+    private String nombreArchivo;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "tamano")
+    private Long tamano;
+
+    @Column(name = "e_tag")
+    private String eTag;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    @PrePersist
+    void onCreate() {
+        if (fechaCreacion == null) {
+            fechaCreacion = LocalDateTime.now();
+        }
+    }
+}
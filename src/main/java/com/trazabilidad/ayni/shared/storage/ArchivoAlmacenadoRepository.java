@@ -0,0 +1,10 @@
+package com.trazabilidad.ayni.shared.storage;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface ArchivoAlmacenadoRepository extends JpaRepository<ArchivoAlmacenado, Long> {
+
+    Optional<ArchivoAlmacenado> findBySha256AndAmbito(String sha256, String ambito);
+}
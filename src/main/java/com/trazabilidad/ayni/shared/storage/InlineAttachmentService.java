@@ -0,0 +1,215 @@
+package com.trazabilidad.ayni.shared.storage;
+
+import com.trazabilidad.ayni.shared.exception.BadRequestException;
+import com.trazabilidad.ayni.shared.storage.dto.UploadObjectResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Saca de la base de datos los adjuntos enviados como data URL base64. Por encima de
+ * {@code max-inline-size} el archivo se sube a R2 y solo se guarda su object key
+ * (modo {@code offload}) o se rechaza (modo {@code reject}). La subida se hace con {@link #prepare()} antes de
+ * abrir la transacción que registra los adjuntos, para no retener la conexión mientras se optimiza y se sube;
+ * cada adjunto subido es un objeto propio (sin deduplicar) y se borra de R2 si esa operación falla.
+ */
+@Service
+public class InlineAttachmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(InlineAttachmentService.class);
+    private static final String BASE64_MARKER = ";base64,";
+    /** Múltiplo de 4 para decodificar el base64 por bloques sin desalinear. */
+    private static final int DECODE_CHUNK_CHARS = 64 * 1024;
+
+    /** Lo que debe guardarse del adjunto; nombre, tipo y tamaño son los del objeto subido si hubo optimización. */
+    public record StoredAttachment(String objectKey, String dataUrl, String nombre, String tipo, Long tamano) {
+    }
+
+    /** Adjunto de una petición que la subida previa reescribe con el objeto subido a R2. */
+    public interface InlineAttachment {
+        String getNombre();
+
+        String getObjectKey();
+
+        String getDataUrl();
+
+        void setNombre(String nombre);
+
+        void setTipo(String tipo);
+
+        void setTamano(Long tamano);
+
+        void setObjectKey(String objectKey);
+
+        void setDataUrl(String dataUrl);
+    }
+
+    private final R2PresignService r2PresignService;
+    private final R2ClientProvider r2ClientProvider;
+    private final long maxInlineBytes;
+    private final boolean reject;
+
+    public InlineAttachmentService(
+            R2PresignService r2PresignService,
+            R2ClientProvider r2ClientProvider,
+            @Value("${app.storage.inline-attachments.max-inline-size:64KB}") DataSize maxInlineSize,
+            @Value("${app.storage.inline-attachments.mode:offload}") String mode) {
+        this.r2PresignService = r2PresignService;
+        this.r2ClientProvider = r2ClientProvider;
+        this.maxInlineBytes = maxInlineSize.toBytes();
+        this.reject = "reject".equalsIgnoreCase(mode != null ? mode.trim() : "");
+    }
+
+    /** Inicia la subida previa de los adjuntos de una petición; se usa fuera de la transacción. */
+    public OffloadBatch prepare() {
+        return new OffloadBatch();
+    }
+
+    /**
+     * Resuelve qué guardar para un adjunto entrante dentro de la transacción, sin subir nada. Un data URL
+     * pequeño se guarda tal cual; uno grande se descarta si ya hay object key (lo normal tras {@link #prepare()}).
+     */
+    public StoredAttachment store(String objectKey, String dataUrl, String nombre, String tipo, Long tamano) {
+        if (!exceedsInlineSize(dataUrl)) {
+            return new StoredAttachment(objectKey, dataUrl, nombre, tipo, tamano);
+        }
+        if (hasObjectKey(objectKey)) {
+            return new StoredAttachment(objectKey, null, nombre, tipo, tamano);
+        }
+        if (reject) {
+            throw new BadRequestException("Los adjuntos de mas de " + DataSize.ofBytes(maxInlineBytes).toKilobytes()
+                    + "KB deben subirse al almacenamiento antes de registrarse");
+        }
+        if (r2ClientProvider.isConfigured()) {
+            // No pasó por la subida previa; la migración programada lo moverá a R2
+            log.warn("El adjunto {} llego sin subida previa; se mantiene en linea", nombre);
+        }
+        return new StoredAttachment(null, dataUrl, nombre, tipo, tamano);
+    }
+
+    /**
+     * Decodifica el data URL a un archivo temporal y lo sube a R2; con {@code optimize} pasa por el mismo
+     * optimizador que las subidas normales, sin él se sube el original.
+     */
+    public UploadObjectResponse offload(String dataUrl, String nombre, String carpeta, Long proyectoId, Long actividadId,
+                                        boolean optimize) {
+        int marker = dataUrl.indexOf(BASE64_MARKER);
+        if (!dataUrl.startsWith("data:") || marker < 0) {
+            throw new BadRequestException("El adjunto " + nombre + " no es un data URL base64 valido");
+        }
+
+        String contentType = dataUrl.substring("data:".length(), marker).trim().toLowerCase(Locale.ROOT);
+        if (contentType.isBlank()) {
+            contentType = "application/octet-stream";
+        }
+
+        Path decoded = null;
+        try {
+            decoded = Files.createTempFile("ayni-inline-", ".bin");
+            decodeTo(dataUrl, marker + BASE64_MARKER.length(), decoded);
+            return r2PresignService.uploadLocalFile(decoded, nombre, contentType, carpeta, proyectoId, actividadId, null, optimize);
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("El adjunto " + nombre + " no contiene base64 valido");
+        } catch (IOException ex) {
+            throw new IllegalStateException("No se pudo preparar el adjunto " + nombre, ex);
+        } finally {
+            if (decoded != null) {
+                try {
+                    Files.deleteIfExists(decoded);
+                } catch (IOException ex) {
+                    log.debug("No se pudo eliminar temporal {}", decoded, ex);
+                }
+            }
+        }
+    }
+
+    private boolean exceedsInlineSize(String dataUrl) {
+        return dataUrl != null && estimateDecodedBytes(dataUrl) > maxInlineBytes;
+    }
+
+    private static boolean hasObjectKey(String objectKey) {
+        return objectKey != null && !objectKey.isBlank();
+    }
+
+    private void decodeTo(String dataUrl, int start, Path target) throws IOException {
+        Base64.Decoder decoder = Base64.getDecoder();
+        try (OutputStream output = Files.newOutputStream(target)) {
+            for (int offset = start; offset < dataUrl.length(); offset += DECODE_CHUNK_CHARS) {
+                int end = Math.min(dataUrl.length(), offset + DECODE_CHUNK_CHARS);
+                output.write(decoder.decode(dataUrl.substring(offset, end)));
+            }
+        }
+    }
+
+    private long estimateDecodedBytes(String dataUrl) {
+        int marker = dataUrl.indexOf(BASE64_MARKER);
+        int payloadLength = marker >= 0 ? dataUrl.length() - marker - BASE64_MARKER.length() : dataUrl.length();
+        return payloadLength / 4L * 3L;
+    }
+
+    /**
+     * Adjuntos subidos a R2 para una operación transaccional. Si la operación (o una subida posterior) falla,
+     * la transacción ya se revirtió y los objetos subidos se eliminan para no dejarlos huérfanos.
+     */
+    public final class OffloadBatch {
+
+        private final List<String> uploadedKeys = new ArrayList<>();
+
+        private OffloadBatch() {
+        }
+
+        /** Sube los data URL grandes sin object key y reescribe el adjunto con los datos del objeto subido. */
+        public OffloadBatch offload(Collection<? extends InlineAttachment> adjuntos, Long proyectoId, Long actividadId) {
+            if (adjuntos == null || reject || !r2ClientProvider.isConfigured()) {
+                return this;
+            }
+            try {
+                for (InlineAttachment adjunto : adjuntos) {
+                    if (adjunto == null || hasObjectKey(adjunto.getObjectKey()) || !exceedsInlineSize(adjunto.getDataUrl())) {
+                        continue;
+                    }
+                    UploadObjectResponse uploaded = InlineAttachmentService.this.offload(
+                            adjunto.getDataUrl(), adjunto.getNombre(), null, proyectoId, actividadId, true);
+                    uploadedKeys.add(uploaded.objectKey());
+                    adjunto.setObjectKey(uploaded.objectKey());
+                    adjunto.setDataUrl(null);
+                    adjunto.setNombre(uploaded.fileName());
+                    adjunto.setTipo(uploaded.contentType());
+                    adjunto.setTamano(uploaded.fileSize());
+                }
+            } catch (RuntimeException ex) {
+                discard();
+                throw ex;
+            }
+            return this;
+        }
+
+        /** Ejecuta la operación que registra los adjuntos; si falla, borra lo subido y propaga el error. */
+        public <T> T run(Supplier<T> operacion) {
+            try {
+                return operacion.get();
+            } catch (RuntimeException ex) {
+                discard();
+                throw ex;
+            }
+        }
+
+        private void discard() {
+            uploadedKeys.forEach(r2PresignService::deleteObject);
+            uploadedKeys.clear();
+        }
+    }
+}
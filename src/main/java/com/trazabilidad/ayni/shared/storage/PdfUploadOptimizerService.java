@@ -1,22 +1,29 @@
 package com.trazabilidad.ayni.shared.storage;
 
 import com.trazabilidad.ayni.shared.exception.BadRequestException;
+import com.trazabilidad.ayni.shared.util.WorkerThreads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.unit.DataSize;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
@@ -29,6 +36,7 @@ public class PdfUploadOptimizerService {
             new GhostscriptProfile("/ebook", 144, 144, 260),
             new GhostscriptProfile("/screen", 110, 110, 220)
     );
+    private static final long SIZE_BUCKET_BYTES = DataSize.ofMegabytes(5).toBytes();
 
     private final long maxFinalDocumentBytes;
     private final long maxPdfSourceBytes;
@@ -36,47 +44,72 @@ public class PdfUploadOptimizerService {
     private final String ghostscriptCommand;
     private final Duration ghostscriptTimeout;
     private final AtomicBoolean ghostscriptUnavailableLogged = new AtomicBoolean(false);
+    private final ExecutorService profileExecutor;
+    /**
+     * Último perfil ganador (indice en GHOSTSCRIPT_PROFILES) por tramo de tamaño de origen. Solo decide
+     * cuántos perfiles se lanzan a la vez en modo paralelo: siempre se prueba de mayor a menor calidad,
+     * así un archivo difícil no hace perder calidad a los siguientes del mismo tramo.
+     */
+    private final Map<Long, Integer> winningProfileBySizeBucket = new ConcurrentHashMap<>();
 
     public PdfUploadOptimizerService(
             @Value("${app.storage.upload.max-final-document-size:25MB}") DataSize maxFinalDocumentSize,
             @Value("${app.storage.upload.max-pdf-source-size:50MB}") DataSize maxPdfSourceSize,
             @Value("${app.storage.upload.pdf-optimizer.enabled:true}") boolean ghostscriptEnabled,
             @Value("${app.storage.upload.pdf-optimizer.command:}") String ghostscriptCommand,
-            @Value("${app.storage.upload.pdf-optimizer.timeout-seconds:120}") long ghostscriptTimeoutSeconds) {
+            @Value("${app.storage.upload.pdf-optimizer.timeout-seconds:120}") long ghostscriptTimeoutSeconds,
+            @Value("${app.storage.upload.pdf-optimizer.parallel-profiles:false}") boolean parallelProfiles,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
         this.maxFinalDocumentBytes = maxFinalDocumentSize.toBytes();
         this.maxPdfSourceBytes = maxPdfSourceSize.toBytes();
         this.ghostscriptEnabled = ghostscriptEnabled;
         this.ghostscriptCommand = ghostscriptCommand != null ? ghostscriptCommand.trim() : "";
         this.ghostscriptTimeout = Duration.ofSeconds(Math.max(30L, ghostscriptTimeoutSeconds));
+        int parallelism = Math.min(GHOSTSCRIPT_PROFILES.size(), Runtime.getRuntime().availableProcessors());
+        this.profileExecutor = parallelProfiles && parallelism > 1
+                ? Executors.newFixedThreadPool(parallelism, WorkerThreads.factory("ghostscript-", virtualThreads))
+                : null;
     }
 
-    public PreparedUploadObject prepareForUpload(MultipartFile file) {
+    @PreDestroy
+    public void shutdown() {
+        if (profileExecutor != null) {
+            profileExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Prepara el archivo ya volcado a disco en {@code source}. Las salidas de Ghostscript se
+     * escriben en {@code workDir}; el llamador es responsable de eliminar ese directorio.
+     */
+    public PreparedUploadObject prepareForUpload(Path source, String originalFileName, String originalContentType, Path workDir) {
         try {
-            byte[] originalBytes = file.getBytes();
-            String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename().trim() : "archivo";
-            String contentType = file.getContentType() != null ? file.getContentType().trim() : "application/octet-stream";
+            long originalSize = Files.size(source);
+            String fileName = originalFileName != null ? originalFileName.trim() : "archivo";
+            String contentType = originalContentType != null ? originalContentType.trim() : "application/octet-stream";
 
             if (!isPdf(fileName, contentType)) {
-                validateFinalDocumentSize(originalBytes.length);
-                return new PreparedUploadObject(fileName, contentType, originalBytes);
+                validateFinalDocumentSize(originalSize);
+                return new PreparedUploadObject(fileName, contentType, source, originalSize);
             }
 
-            if (originalBytes.length <= maxFinalDocumentBytes) {
-                return new PreparedUploadObject(fileName, "application/pdf", originalBytes);
+            if (originalSize <= maxFinalDocumentBytes) {
+                return new PreparedUploadObject(fileName, "application/pdf", source, originalSize);
             }
 
-            if (originalBytes.length > maxPdfSourceBytes) {
+            if (originalSize > maxPdfSourceBytes) {
                 throw new BadRequestException(
                         "El PDF no debe superar los " + formatMb(maxPdfSourceBytes) + " antes de optimizarse");
             }
 
-            byte[] optimized = optimizePdfWithGhostscript(fileName, originalBytes);
-            if (optimized.length > maxFinalDocumentBytes) {
+            Path optimized = optimizePdfWithGhostscript(source, workDir);
+            long optimizedSize = Files.size(optimized);
+            if (optimizedSize > maxFinalDocumentBytes) {
                 throw new BadRequestException(
                         "No se pudo reducir el PDF al limite de " + formatMb(maxFinalDocumentBytes) + " sin perder demasiada calidad");
             }
 
-            return new PreparedUploadObject(fileName, "application/pdf", optimized);
+            return new PreparedUploadObject(fileName, "application/pdf", optimized, optimizedSize);
         } catch (BadRequestException ex) {
             throw ex;
         } catch (IOException ex) {
@@ -91,40 +124,64 @@ public class PdfUploadOptimizerService {
         }
     }
 
-    private byte[] optimizePdfWithGhostscript(String fileName, byte[] originalBytes) {
+    private Path optimizePdfWithGhostscript(Path source, Path workDir) throws IOException {
         if (!ghostscriptEnabled) {
             throw new BadRequestException(
                     "El PDF supera los " + formatMb(maxFinalDocumentBytes) + " y la optimizacion automatica esta deshabilitada");
         }
 
-        byte[] bestCandidate = originalBytes;
+        long originalSize = Files.size(source);
+        long sizeBucket = originalSize / SIZE_BUCKET_BYTES;
+        Integer lastWinner = winningProfileBySizeBucket.get(sizeBucket);
+        Path bestCandidate = source;
+        long bestSize = originalSize;
         String lastError = null;
 
-        for (GhostscriptProfile profile : GHOSTSCRIPT_PROFILES) {
-            try {
-                byte[] candidate = runGhostscript(fileName, originalBytes, profile);
-                if (candidate.length < bestCandidate.length) {
-                    bestCandidate = candidate;
-                }
-                if (candidate.length <= maxFinalDocumentBytes) {
-                    return candidate;
-                }
-            } catch (IOException ex) {
-                lastError = ex.getMessage();
-                if (ghostscriptUnavailableLogged.compareAndSet(false, true)) {
-                    log.warn("Ghostscript no esta disponible para optimizar PDFs: {}", ex.getMessage());
+        // En modo paralelo arrancan a la vez los perfiles hasta el último ganador del tramo (todos si no
+        // hay historial); los resultados se revisan de mayor a menor calidad: el primero que cumple el
+        // limite gana y se cancela el resto. Los perfiles posteriores solo corren si hacen falta.
+        int racingProfiles = lastWinner != null ? lastWinner + 1 : GHOSTSCRIPT_PROFILES.size();
+        List<Future<Path>> racing = startProfiles(source, workDir, racingProfiles);
+        try {
+            for (int index = 0; index < GHOSTSCRIPT_PROFILES.size(); index++) {
+                GhostscriptProfile profile = GHOSTSCRIPT_PROFILES.get(index);
+                try {
+                    Path candidate = index < racing.size()
+                            ? awaitProfile(racing.get(index))
+                            : runGhostscript(source, workDir, profile);
+                    long candidateSize = Files.size(candidate);
+                    if (candidateSize < bestSize) {
+                        if (!bestCandidate.equals(source)) {
+                            Files.deleteIfExists(bestCandidate);
+                        }
+                        bestCandidate = candidate;
+                        bestSize = candidateSize;
+                    } else {
+                        Files.deleteIfExists(candidate);
+                    }
+                    if (candidateSize <= maxFinalDocumentBytes) {
+                        winningProfileBySizeBucket.put(sizeBucket, index);
+                        return candidate;
+                    }
+                } catch (IOException ex) {
+                    lastError = ex.getMessage();
+                    if (ghostscriptUnavailableLogged.compareAndSet(false, true)) {
+                        log.warn("Ghostscript no esta disponible para optimizar PDFs: {}", ex.getMessage());
+                    }
+                    break;
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("La optimizacion del PDF fue interrumpida", ex);
+                } catch (RuntimeException ex) {
+                    lastError = ex.getMessage();
+                    log.warn("Ghostscript no pudo optimizar el PDF con el perfil {}: {}", profile.pdfSettings(), ex.getMessage());
                 }
-                break;
-            } catch (InterruptedException ex) {
-                Thread.currentThread().interrupt();
-                throw new IllegalStateException("La optimizacion del PDF fue interrumpida", ex);
-            } catch (RuntimeException ex) {
-                lastError = ex.getMessage();
-                log.warn("Ghostscript no pudo optimizar el PDF con el perfil {}: {}", profile.pdfSettings(), ex.getMessage());
             }
+        } finally {
+            racing.forEach(future -> future.cancel(true));
         }
 
-        if (bestCandidate.length < originalBytes.length) {
+        if (bestSize < originalSize) {
             return bestCandidate;
         }
 
@@ -137,15 +194,38 @@ public class PdfUploadOptimizerService {
                 "No se pudo reducir el PDF al limite de " + formatMb(maxFinalDocumentBytes) + " sin perder demasiada calidad");
     }
 
-    private byte[] runGhostscript(String fileName, byte[] originalBytes, GhostscriptProfile profile)
-            throws IOException, InterruptedException {
-        Path tempDir = Files.createTempDirectory("ayni-gs-");
-        Path inputFile = tempDir.resolve(sanitizeFileName(fileName));
-        Path outputFile = tempDir.resolve("optimized.pdf");
+    private List<Future<Path>> startProfiles(Path source, Path workDir, int count) {
+        if (profileExecutor == null || count < 2) {
+            return List.of();
+        }
+
+        List<Future<Path>> futures = new ArrayList<>();
+        for (GhostscriptProfile profile : GHOSTSCRIPT_PROFILES.subList(0, Math.min(count, GHOSTSCRIPT_PROFILES.size()))) {
+            futures.add(profileExecutor.submit(() -> runGhostscript(source, workDir, profile)));
+        }
+        return futures;
+    }
 
+    private Path awaitProfile(Future<Path> future) throws IOException, InterruptedException {
         try {
-            Files.write(inputFile, originalBytes);
+            return future.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
 
+    private Path runGhostscript(Path inputFile, Path workDir, GhostscriptProfile profile)
+            throws IOException, InterruptedException {
+        Path outputFile = workDir.resolve("optimized-" + profile.pdfSettings().substring(1) + ".pdf");
+        boolean produced = false;
+
+        try {
             IOException launchError = null;
             for (String command : resolveGhostscriptCommands()) {
                 try {
@@ -153,8 +233,7 @@ public class PdfUploadOptimizerService {
                             .redirectErrorStream(true)
                             .start();
 
-                    boolean finished = process.waitFor(ghostscriptTimeout.toSeconds(), TimeUnit.SECONDS);
-                    if (!finished) {
+                    if (!awaitExit(process)) {
                         process.destroyForcibly();
                         throw new IllegalStateException("Ghostscript excedio el tiempo limite de optimizacion");
                     }
@@ -170,7 +249,8 @@ public class PdfUploadOptimizerService {
                         throw new IllegalStateException("Ghostscript no genero un PDF de salida valido");
                     }
 
-                    return Files.readAllBytes(outputFile);
+                    produced = true;
+                    return outputFile;
                 } catch (IOException ex) {
                     launchError = ex;
                 }
@@ -178,7 +258,27 @@ public class PdfUploadOptimizerService {
 
             throw launchError != null ? launchError : new IOException("No se pudo iniciar Ghostscript");
         } finally {
-            deleteQuietly(tempDir);
+            if (!produced) {
+                Files.deleteIfExists(outputFile);
+            }
+        }
+    }
+
+    /**
+     * Espera a Ghostscript con {@link Process#onExit()}: en un hilo virtual {@code waitFor} bloquea dentro de un
+     * monitor y retiene el hilo portador, mientras que el future solo estaciona el hilo virtual.
+     */
+    private boolean awaitExit(Process process) throws InterruptedException {
+        try {
+            process.onExit().get(ghostscriptTimeout.toSeconds(), TimeUnit.SECONDS);
+            return true;
+        } catch (TimeoutException ex) {
+            return false;
+        } catch (InterruptedException ex) {
+            process.destroyForcibly();
+            throw ex;
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
         }
     }
 
@@ -223,38 +323,10 @@ public class PdfUploadOptimizerService {
                 || fileName.toLowerCase(Locale.ROOT).endsWith(".pdf");
     }
 
-    private String sanitizeFileName(String fileName) {
-        String sanitized = (fileName == null ? "" : fileName.trim())
-                .replaceAll("\\s+", "-")
-                .replaceAll("[^a-zA-Z0-9._-]", "");
-        if (sanitized.isBlank()) {
-            return "documento.pdf";
-        }
-        return sanitized.toLowerCase(Locale.ROOT).endsWith(".pdf") ? sanitized : sanitized + ".pdf";
-    }
-
     private String formatMb(long bytes) {
         return Math.round(bytes / (1024d * 1024d)) + "MB";
     }
 
-    private void deleteQuietly(Path path) {
-        if (path == null || !Files.exists(path)) {
-            return;
-        }
-
-        try (var walk = Files.walk(path)) {
-            walk.sorted(Comparator.reverseOrder()).forEach(current -> {
-                try {
-                    Files.deleteIfExists(current);
-                } catch (IOException ex) {
-                    log.debug("No se pudo eliminar temporal {}", current, ex);
-                }
-            });
-        } catch (IOException ex) {
-            log.debug("No se pudo limpiar el directorio temporal {}", path, ex);
-        }
-    }
-
     private record GhostscriptProfile(
             String pdfSettings,
             int colorResolution,
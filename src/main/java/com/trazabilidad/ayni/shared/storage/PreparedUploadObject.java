@@ -1,11 +1,14 @@
 package com.trazabilidad.ayni.shared.storage;
 
+import java.nio.file.Path;
+
+/**
+ * Archivo listo para subir. El contenido vive en disco (directorio temporal de la subida),
+ * nunca en memoria.
+ */
 public record PreparedUploadObject(
         String fileName,
         String contentType,
-        byte[] content) {
-
-    public long size() {
-        return content != null ? content.length : 0L;
-    }
+        Path content,
+        long size) {
 }
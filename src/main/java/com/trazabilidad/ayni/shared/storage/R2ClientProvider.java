@@ -0,0 +1,121 @@
+package com.trazabilidad.ayni.shared.storage;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Clientes R2 compartidos por toda la aplicación. Se crean en el primer uso (la app arranca
+ * aunque R2 no esté configurado) y reutilizan un pool de conexiones HTTP con keep-alive,
+ * de modo que cada subida o presign no paga una conexión TLS nueva.
+ */
+@Component
+public class R2ClientProvider {
+
+    private final String endpoint;
+    private final String accessKeyId;
+    private final String secretAccessKey;
+    private final int maxConnections;
+    private final Duration connectionTimeout;
+    private final Duration socketTimeout;
+    private final Duration connectionMaxIdleTime;
+
+    private volatile S3Client s3Client;
+    private volatile S3Presigner presigner;
+
+    public R2ClientProvider(
+            @Value("${app.storage.r2.endpoint:}") String endpoint,
+            @Value("${app.storage.r2.access-key-id:}") String accessKeyId,
+            @Value("${app.storage.r2.secret-access-key:}") String secretAccessKey,
+            @Value("${app.storage.r2.http.max-connections:50}") int maxConnections,
+            @Value("${app.storage.r2.http.connection-timeout:5s}") Duration connectionTimeout,
+            @Value("${app.storage.r2.http.socket-timeout:60s}") Duration socketTimeout,
+            @Value("${app.storage.r2.http.connection-max-idle-time:60s}") Duration connectionMaxIdleTime) {
+        this.endpoint = endpoint != null ? endpoint.trim() : "";
+        this.accessKeyId = accessKeyId != null ? accessKeyId.trim() : "";
+        this.secretAccessKey = secretAccessKey != null ? secretAccessKey.trim() : "";
+        this.maxConnections = Math.max(1, maxConnections);
+        this.connectionTimeout = connectionTimeout;
+        this.socketTimeout = socketTimeout;
+        this.connectionMaxIdleTime = connectionMaxIdleTime;
+    }
+
+    public boolean isConfigured() {
+        return !endpoint.isBlank() && !accessKeyId.isBlank() && !secretAccessKey.isBlank();
+    }
+
+    public S3Client s3Client() {
+        S3Client client = s3Client;
+        if (client == null) {
+            synchronized (this) {
+                client = s3Client;
+                if (client == null) {
+                    client = S3Client.builder()
+                            .endpointOverride(URI.create(endpoint))
+                            .credentialsProvider(credentials())
+                            .region(Region.of("auto"))
+                            .serviceConfiguration(serviceConfiguration())
+                            .httpClientBuilder(ApacheHttpClient.builder()
+                                    .maxConnections(maxConnections)
+                                    .connectionTimeout(connectionTimeout)
+                                    .socketTimeout(socketTimeout)
+                                    .connectionMaxIdleTime(connectionMaxIdleTime)
+                                    .useIdleConnectionReaper(true)
+                                    .tcpKeepAlive(true))
+                            .build();
+                    s3Client = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    public S3Presigner presigner() {
+        S3Presigner current = presigner;
+        if (current == null) {
+            synchronized (this) {
+                current = presigner;
+                if (current == null) {
+                    current = S3Presigner.builder()
+                            .endpointOverride(URI.create(endpoint))
+                            .credentialsProvider(credentials())
+                            .region(Region.of("auto"))
+                            .serviceConfiguration(serviceConfiguration())
+                            .build();
+                    presigner = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (s3Client != null) {
+            s3Client.close();
+            s3Client = null;
+        }
+        if (presigner != null) {
+            presigner.close();
+            presigner = null;
+        }
+    }
+
+    private StaticCredentialsProvider credentials() {
+        return StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKeyId, secretAccessKey));
+    }
+
+    private S3Configuration serviceConfiguration() {
+        return S3Configuration.builder().pathStyleAccessEnabled(true).build();
+    }
+}
@@ -3,29 +3,44 @@ package com.trazabilidad.ayni.shared.storage;
 import com.trazabilidad.ayni.shared.exception.BadRequestException;
 import com.trazabilidad.ayni.shared.storage.dto.PresignUploadRequest;
 import com.trazabilidad.ayni.shared.storage.dto.PresignUploadResponse;
+import com.trazabilidad.ayni.shared.storage.dto.UploadJobResponse;
 import com.trazabilidad.ayni.shared.storage.dto.UploadObjectResponse;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
-import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
-import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
-import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.S3Configuration;
-import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
-import java.net.URI;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
@@ -34,6 +49,8 @@ import java.util.UUID;
 @Service
 public class R2PresignService {
 
+    private static final Logger log = LoggerFactory.getLogger(R2PresignService.class);
+    private static final long MIN_MULTIPART_PART_BYTES = DataSize.ofMegabytes(5).toBytes();
     private static final DateTimeFormatter YEAR_MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
     private static final Set<String> ALLOWED_CONTENT_TYPES = Set.of(
             "application/pdf",
@@ -55,32 +72,46 @@ public class R2PresignService {
             "xlsx", "xls", "pdf", "docx", "doc", "pptx", "ppt", "txt", "csv", "png", "jpg", "jpeg", "webp", "gif", "zip", "rar"
     ));
 
-    private final String endpoint;
     private final String bucketName;
-    private final String accessKeyId;
-    private final String secretAccessKey;
     private final long expirationSeconds;
+    private final long multipartThresholdBytes;
+    private final long multipartPartBytes;
     private final StorageUrlResolver storageUrlResolver;
     private final PdfUploadOptimizerService pdfUploadOptimizerService;
     private final SpreadsheetUploadOptimizerService spreadsheetUploadOptimizerService;
+    private final R2ClientProvider r2ClientProvider;
+    private final UploadJobService uploadJobService;
+    private final UploadDeduplicationService uploadDeduplicationService;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary uploadBytes;
 
     public R2PresignService(
-            @Value("${app.storage.r2.endpoint:}") String endpoint,
             @Value("${app.storage.r2.bucket-name:}") String bucketName,
-            @Value("${app.storage.r2.access-key-id:}") String accessKeyId,
-            @Value("${app.storage.r2.secret-access-key:}") String secretAccessKey,
             @Value("${app.storage.r2.presign-expiration-seconds:300}") long expirationSeconds,
+            @Value("${app.storage.r2.multipart-threshold:16MB}") DataSize multipartThreshold,
+            @Value("${app.storage.r2.multipart-part-size:8MB}") DataSize multipartPartSize,
             StorageUrlResolver storageUrlResolver,
             PdfUploadOptimizerService pdfUploadOptimizerService,
-            SpreadsheetUploadOptimizerService spreadsheetUploadOptimizerService) {
-        this.endpoint = endpoint != null ? endpoint.trim() : "";
+            SpreadsheetUploadOptimizerService spreadsheetUploadOptimizerService,
+            R2ClientProvider r2ClientProvider,
+            UploadJobService uploadJobService,
+            UploadDeduplicationService uploadDeduplicationService,
+            MeterRegistry meterRegistry) {
         this.bucketName = bucketName != null ? bucketName.trim() : "";
-        this.accessKeyId = accessKeyId != null ? accessKeyId.trim() : "";
-        this.secretAccessKey = secretAccessKey != null ? secretAccessKey.trim() : "";
         this.expirationSeconds = expirationSeconds;
+        this.multipartPartBytes = Math.max(MIN_MULTIPART_PART_BYTES, multipartPartSize.toBytes());
+        this.multipartThresholdBytes = Math.max(this.multipartPartBytes, multipartThreshold.toBytes());
         this.storageUrlResolver = storageUrlResolver;
         this.pdfUploadOptimizerService = pdfUploadOptimizerService;
         this.spreadsheetUploadOptimizerService = spreadsheetUploadOptimizerService;
+        this.r2ClientProvider = r2ClientProvider;
+        this.uploadJobService = uploadJobService;
+        this.uploadDeduplicationService = uploadDeduplicationService;
+        this.meterRegistry = meterRegistry;
+        this.uploadBytes = DistributionSummary.builder("storage.r2.upload.bytes")
+                .description("Bytes enviados a R2 por subida")
+                .baseUnit("bytes")
+                .register(meterRegistry);
     }
 
     public PresignUploadResponse createPresignedUpload(PresignUploadRequest request, Long userId) {
@@ -101,18 +132,16 @@ public class R2PresignService {
                 .putObjectRequest(putObjectRequest)
                 .build();
 
-        try (S3Presigner presigner = buildPresigner()) {
-            PresignedPutObjectRequest presigned = presigner.presignPutObject(presignRequest);
-            Instant expiresAt = Instant.now().plusSeconds(expirationSeconds);
+        PresignedPutObjectRequest presigned = r2ClientProvider.presigner().presignPutObject(presignRequest);
+        Instant expiresAt = Instant.now().plusSeconds(expirationSeconds);
 
-            return new PresignUploadResponse(
-                    presigned.url().toString(),
-                    "PUT",
-                    Map.of("Content-Type", normalizedContentType),
-                    objectKey,
-                    storageUrlResolver.resolvePublicUrl(objectKey),
-                    expiresAt.toString());
-        }
+        return new PresignUploadResponse(
+                presigned.url().toString(),
+                "PUT",
+                Map.of("Content-Type", normalizedContentType),
+                objectKey,
+                storageUrlResolver.resolvePublicUrl(objectKey),
+                expiresAt.toString());
     }
 
     public UploadObjectResponse uploadObject(
@@ -121,6 +150,87 @@ public class R2PresignService {
             Long proyectoId,
             Long actividadId,
             Long userId) {
+        Path workDir = spool(file, carpeta, proyectoId, actividadId);
+        try {
+            return uploadSpooled(file.getOriginalFilename(), file.getContentType(), workDir,
+                    carpeta, proyectoId, actividadId, userId);
+        } finally {
+            deleteQuietly(workDir);
+        }
+    }
+
+    /**
+     * Igual que {@link #uploadObject}, pero la optimizacion y la subida se encolan en
+     * {@link UploadJobService}; la respuesta solo trae el id del trabajo.
+     */
+    public UploadJobResponse submitUploadJob(
+            MultipartFile file,
+            String carpeta,
+            Long proyectoId,
+            Long actividadId,
+            Long userId) {
+        Path workDir = spool(file, carpeta, proyectoId, actividadId);
+        String fileName = file.getOriginalFilename();
+        String contentType = file.getContentType();
+        return uploadJobService.submit(
+                userId,
+                () -> uploadSpooled(fileName, contentType, workDir, carpeta, proyectoId, actividadId, userId),
+                () -> deleteQuietly(workDir));
+    }
+
+    public UploadJobResponse getUploadJob(String jobId, Long userId) {
+        return uploadJobService.getJob(jobId, userId);
+    }
+
+    /**
+     * Sube un archivo local (por ejemplo un adjunto decodificado). No pasa por la deduplicación: el objeto
+     * pertenece solo al registro que lo referencia y puede borrarse si ese registro no se confirma. Con
+     * {@code optimize} en false se sube el original sin cambios. El archivo se mueve al directorio de trabajo
+     * y se elimina al terminar.
+     */
+    public UploadObjectResponse uploadLocalFile(
+            Path file,
+            String fileName,
+            String contentType,
+            String carpeta,
+            Long proyectoId,
+            Long actividadId,
+            Long userId,
+            boolean optimize) {
+        validateConfiguration();
+        validateRequest(new PresignUploadRequest(fileName, contentType, carpeta, proyectoId, actividadId));
+
+        Path workDir = null;
+        try {
+            workDir = Files.createTempDirectory("ayni-upload-");
+            Path source = workDir.resolve("source");
+            Files.move(file, source);
+            PreparedUploadObject prepared = optimize
+                    ? prepare(fileName, contentType, workDir)
+                    : new PreparedUploadObject(fileName, contentType, source, Files.size(source));
+            return uploadPrepared(prepared, carpeta, proyectoId, actividadId, userId);
+        } catch (IOException ex) {
+            throw new IllegalStateException("No se pudo preparar el archivo para su subida", ex);
+        } finally {
+            deleteQuietly(workDir);
+        }
+    }
+
+    /**
+     * Elimina un objeto del bucket. Los fallos solo se registran: lo usa la limpieza de subidas huérfanas.
+     */
+    public void deleteObject(String objectKey) {
+        try {
+            r2ClientProvider.s3Client().deleteObject(DeleteObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(objectKey)
+                    .build());
+        } catch (RuntimeException ex) {
+            log.warn("No se pudo eliminar el objeto {} del bucket R2", objectKey, ex);
+        }
+    }
+
+    private Path spool(MultipartFile file, String carpeta, Long proyectoId, Long actividadId) {
         validateConfiguration();
         validateMultipart(file);
 
@@ -132,10 +242,51 @@ public class R2PresignService {
                 actividadId);
         validateRequest(originalRequest);
 
-        PreparedUploadObject preparedFile = spreadsheetUploadOptimizerService.supports(file.getOriginalFilename(), file.getContentType())
-                ? spreadsheetUploadOptimizerService.prepareForUpload(file)
-                : pdfUploadOptimizerService.prepareForUpload(file);
+        Path workDir = null;
+        try {
+            workDir = Files.createTempDirectory("ayni-upload-");
+            file.transferTo(workDir.resolve("source"));
+            return workDir;
+        } catch (IOException ex) {
+            deleteQuietly(workDir);
+            throw new IllegalStateException("No se pudo preparar el archivo para su subida", ex);
+        }
+    }
+
+    /**
+     * Si el original ya se subió antes (mismo SHA-256) devuelve ese objeto sin optimizar ni subir.
+     */
+    private UploadObjectResponse uploadSpooled(
+            String fileName,
+            String contentType,
+            Path workDir,
+            String carpeta,
+            Long proyectoId,
+            Long actividadId,
+            Long userId) {
+        String sha256 = uploadDeduplicationService.digest(workDir.resolve("source"));
+        String ambito = uploadDeduplicationService.ambito(userId);
+        return uploadDeduplicationService.find(sha256, ambito, fileName).orElseGet(() -> {
+            UploadObjectResponse uploaded = uploadPrepared(
+                    prepare(fileName, contentType, workDir), carpeta, proyectoId, actividadId, userId);
+            uploadDeduplicationService.register(sha256, ambito, uploaded);
+            return uploaded;
+        });
+    }
+
+    private PreparedUploadObject prepare(String fileName, String contentType, Path workDir) {
+        Path source = workDir.resolve("source");
+        return spreadsheetUploadOptimizerService.supports(fileName, contentType)
+                ? spreadsheetUploadOptimizerService.prepareForUpload(source, fileName, contentType, workDir)
+                : pdfUploadOptimizerService.prepareForUpload(source, fileName, contentType, workDir);
+    }
 
+    private UploadObjectResponse uploadPrepared(
+            PreparedUploadObject preparedFile,
+            String carpeta,
+            Long proyectoId,
+            Long actividadId,
+            Long userId) {
         PresignUploadRequest normalizedRequest = new PresignUploadRequest(
                 preparedFile.fileName(),
                 preparedFile.contentType(),
@@ -147,49 +298,103 @@ public class R2PresignService {
         String objectKey = buildObjectKey(normalizedRequest, userId);
         String contentType = preparedFile.contentType().trim();
 
-        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                .bucket(bucketName)
-                .key(objectKey)
-                .contentType(contentType)
-                .build();
-
-        try (S3Client s3Client = buildS3Client()) {
-            PutObjectResponse putObjectResponse = s3Client.putObject(
-                    putObjectRequest,
-                    RequestBody.fromBytes(preparedFile.content()));
+        boolean multipart = preparedFile.size() > multipartThresholdBytes;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            S3Client s3Client = r2ClientProvider.s3Client();
+            String eTag = multipart
+                    ? uploadMultipart(s3Client, objectKey, contentType, preparedFile)
+                    : s3Client.putObject(
+                            PutObjectRequest.builder()
+                                    .bucket(bucketName)
+                                    .key(objectKey)
+                                    .contentType(contentType)
+                                    .build(),
+                            RequestBody.fromFile(preparedFile.content())).eTag();
+            outcome = "success";
+            uploadBytes.record(preparedFile.size());
 
             return new UploadObjectResponse(
                     objectKey,
                     storageUrlResolver.resolvePublicUrl(objectKey),
-                    putObjectResponse.eTag(),
+                    eTag,
                     preparedFile.size(),
                     preparedFile.fileName(),
                     preparedFile.contentType());
         } catch (Exception ex) {
             throw new IllegalStateException("No se pudo subir el archivo al bucket R2", ex);
+        } finally {
+            sample.stop(Timer.builder("storage.r2.upload")
+                    .description("Duracion de la subida a R2")
+                    .tag("mode", multipart ? "multipart" : "single")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
         }
     }
 
-    private S3Presigner buildPresigner() {
-        return S3Presigner.builder()
-                .endpointOverride(URI.create(endpoint))
-                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKeyId, secretAccessKey)))
-                .region(Region.of("auto"))
-                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
-                .build();
+    /**
+     * Sube el archivo en partes leídas directamente del disco; solo una parte está en vuelo a la vez.
+     */
+    private String uploadMultipart(S3Client s3Client, String objectKey, String contentType, PreparedUploadObject preparedFile) {
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(objectKey)
+                .contentType(contentType)
+                .build()).uploadId();
+
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            long offset = 0;
+            for (int partNumber = 1; offset < preparedFile.size(); partNumber++) {
+                long length = Math.min(multipartPartBytes, preparedFile.size() - offset);
+                long partOffset = offset;
+                String eTag = s3Client.uploadPart(
+                        UploadPartRequest.builder()
+                                .bucket(bucketName)
+                                .key(objectKey)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength(length)
+                                .build(),
+                        RequestBody.fromContentProvider(
+                                () -> openRange(preparedFile.content(), partOffset, length), length, contentType)).eTag();
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+                offset += length;
+            }
+
+            return s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(objectKey)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build()).eTag();
+        } catch (RuntimeException ex) {
+            try {
+                s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                        .bucket(bucketName)
+                        .key(objectKey)
+                        .uploadId(uploadId)
+                        .build());
+            } catch (RuntimeException abortEx) {
+                log.warn("No se pudo abortar la subida multipart {} de {}", uploadId, objectKey, abortEx);
+            }
+            throw ex;
+        }
     }
 
-    private S3Client buildS3Client() {
-        return S3Client.builder()
-                .endpointOverride(URI.create(endpoint))
-                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKeyId, secretAccessKey)))
-                .region(Region.of("auto"))
-                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
-                .build();
+    private static InputStream openRange(Path file, long offset, long length) {
+        try {
+            InputStream input = Files.newInputStream(file);
+            input.skipNBytes(offset);
+            return new RangeInputStream(input, length);
+        } catch (IOException ex) {
+            throw new IllegalStateException("No se pudo leer el archivo temporal de la subida", ex);
+        }
     }
 
     private void validateConfiguration() {
-        if (endpoint.isBlank() || bucketName.isBlank() || accessKeyId.isBlank() || secretAccessKey.isBlank()) {
+        if (!r2ClientProvider.isConfigured() || bucketName.isBlank()) {
             throw new IllegalStateException("Faltan variables de configuración R2 (endpoint, bucket, access key o secret key)");
         }
 
@@ -296,4 +501,59 @@ public class R2PresignService {
                 .replaceAll("\\s+", "-")
                 .replaceAll("[^a-z0-9_-]", "");
     }
+
+    private void deleteQuietly(Path path) {
+        if (path == null || !Files.exists(path)) {
+            return;
+        }
+
+        try (var walk = Files.walk(path)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(current -> {
+                try {
+                    Files.deleteIfExists(current);
+                } catch (IOException ex) {
+                    log.debug("No se pudo eliminar temporal {}", current, ex);
+                }
+            });
+        } catch (IOException ex) {
+            log.debug("No se pudo limpiar el directorio temporal {}", path, ex);
+        }
+    }
+
+    /**
+     * Limita la lectura a {@code remaining} bytes para enviar una sola parte del archivo.
+     */
+    private static final class RangeInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        private RangeInputStream(InputStream input, long remaining) {
+            super(input);
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int value = super.read();
+            if (value >= 0) {
+                remaining--;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+    }
 }
@@ -3,17 +3,18 @@ package com.trazabilidad.ayni.shared.storage;
 import com.trazabilidad.ayni.shared.exception.BadRequestException;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ooxml.POIXMLProperties;
+import org.apache.poi.poifs.filesystem.FileMagic;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.unit.DataSize;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
@@ -43,22 +44,26 @@ public class SpreadsheetUploadOptimizerService {
                 || "xls".equals(extension);
     }
 
-    public PreparedUploadObject prepareForUpload(MultipartFile file) {
+    /**
+     * Prepara el Excel ya volcado a disco en {@code source}; la versión normalizada se escribe
+     * en {@code workDir}, que elimina el llamador.
+     */
+    public PreparedUploadObject prepareForUpload(Path source, String originalFileName, String originalContentType, Path workDir) {
         try {
-            byte[] originalBytes = file.getBytes();
-            String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename().trim() : "archivo.xlsx";
-            String contentType = file.getContentType() != null ? file.getContentType().trim() : XLSX_MIME;
+            long originalSize = Files.size(source);
+            String fileName = originalFileName != null ? originalFileName.trim() : "archivo.xlsx";
+            String contentType = originalContentType != null ? originalContentType.trim() : XLSX_MIME;
 
-            if (originalBytes.length <= maxFinalDocumentBytes && isXlsx(fileName, contentType)) {
-                return new PreparedUploadObject(fileName, XLSX_MIME, originalBytes);
+            if (originalSize <= maxFinalDocumentBytes && isXlsx(fileName, contentType)) {
+                return new PreparedUploadObject(fileName, XLSX_MIME, source, originalSize);
             }
 
-            if (originalBytes.length > maxSpreadsheetSourceBytes) {
+            if (originalSize > maxSpreadsheetSourceBytes) {
                 throw new BadRequestException(
                         "El archivo Excel no debe superar los " + formatMb(maxSpreadsheetSourceBytes) + " antes de optimizarse");
             }
 
-            PreparedUploadObject optimized = optimizeSpreadsheet(fileName, contentType, originalBytes);
+            PreparedUploadObject optimized = optimizeSpreadsheet(fileName, source, workDir);
             if (optimized.size() > maxFinalDocumentBytes) {
                 throw new BadRequestException(
                         "No se pudo reducir el Excel al limite de " + formatMb(maxFinalDocumentBytes) + " con optimizacion segura");
@@ -72,8 +77,15 @@ public class SpreadsheetUploadOptimizerService {
         }
     }
 
-    private PreparedUploadObject optimizeSpreadsheet(String fileName, String contentType, byte[] originalBytes) throws IOException {
-        try (Workbook sourceWorkbook = WorkbookFactory.create(new ByteArrayInputStream(originalBytes))) {
+    private PreparedUploadObject optimizeSpreadsheet(String fileName, Path source, Path workDir) throws IOException {
+        // Abrir desde archivo evita que POI cargue el zip completo en memoria. El origen se abre en solo
+        // lectura; un .xlsx se edita sobre una copia porque POI solo escribe paquetes abiertos en escritura.
+        boolean ooxml = FileMagic.valueOf(source.toFile()) == FileMagic.OOXML;
+        Path libro = source;
+        if (ooxml) {
+            libro = Files.copy(source, workDir.resolve("editable.xlsx"));
+        }
+        try (Workbook sourceWorkbook = WorkbookFactory.create(libro.toFile(), null, !ooxml)) {
             XSSFWorkbook normalizedWorkbook;
             boolean closeNormalizedWorkbook = false;
 
@@ -89,21 +101,24 @@ public class SpreadsheetUploadOptimizerService {
             }
 
             try {
-                byte[] optimizedBytes = writeWorkbook(normalizedWorkbook);
+                Path optimized = workDir.resolve("optimized.xlsx");
+                writeWorkbook(normalizedWorkbook, optimized);
                 String normalizedFileName = ensureXlsxExtension(fileName);
-                return new PreparedUploadObject(normalizedFileName, XLSX_MIME, optimizedBytes);
+                return new PreparedUploadObject(normalizedFileName, XLSX_MIME, optimized, Files.size(optimized));
             } finally {
                 if (closeNormalizedWorkbook) {
                     normalizedWorkbook.close();
+                } else {
+                    // La copia ya no se usa: se descarta sin volver a guardarla al cerrar
+                    normalizedWorkbook.getPackage().revert();
                 }
             }
         }
     }
 
-    private byte[] writeWorkbook(XSSFWorkbook workbook) throws IOException {
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+    private void writeWorkbook(XSSFWorkbook workbook, Path target) throws IOException {
+        try (OutputStream outputStream = Files.newOutputStream(target)) {
             workbook.write(outputStream);
-            return outputStream.toByteArray();
         }
     }
 
@@ -3,6 +3,7 @@ package com.trazabilidad.ayni.shared.storage;
 import com.trazabilidad.ayni.auth.CustomUserDetails;
 import com.trazabilidad.ayni.shared.storage.dto.PresignUploadRequest;
 import com.trazabilidad.ayni.shared.storage.dto.PresignUploadResponse;
+import com.trazabilidad.ayni.shared.storage.dto.UploadJobResponse;
 import com.trazabilidad.ayni.shared.storage.dto.UploadObjectResponse;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -10,6 +11,8 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -45,6 +48,21 @@ public class StorageController {
                 .body(r2PresignService.uploadObject(file, carpeta, proyectoId, actividadId, resolveCurrentUserId()));
     }
 
+    @PostMapping(value = "/upload-jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<UploadJobResponse> submitUploadJob(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "carpeta", required = false) String carpeta,
+            @RequestParam(value = "proyectoId", required = false) Long proyectoId,
+            @RequestParam(value = "actividadId", required = false) Long actividadId) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(r2PresignService.submitUploadJob(file, carpeta, proyectoId, actividadId, resolveCurrentUserId()));
+    }
+
+    @GetMapping("/upload-jobs/{jobId}")
+    public ResponseEntity<UploadJobResponse> getUploadJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(r2PresignService.getUploadJob(jobId, resolveCurrentUserId()));
+    }
+
     private Long resolveCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || authentication.getPrincipal() == null) {
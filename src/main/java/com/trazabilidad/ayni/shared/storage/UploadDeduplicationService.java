@@ -0,0 +1,111 @@
+package com.trazabilidad.ayni.shared.storage;
+
+import com.trazabilidad.ayni.shared.storage.dto.UploadObjectResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Deduplicación por contenido de las subidas: un archivo idéntico (mismo SHA-256 del original) subido
+ * por el mismo usuario reutiliza el objeto ya optimizado en lugar de volver a procesarlo, aunque lo adjunte
+ * en otra actividad, comentario u orden de compra. Nunca se reutiliza un objeto subido por otro usuario.
+ */
+@Service
+public class UploadDeduplicationService {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadDeduplicationService.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ArchivoAlmacenadoRepository archivoAlmacenadoRepository;
+    private final StorageUrlResolver storageUrlResolver;
+    private final boolean enabled;
+
+    public UploadDeduplicationService(
+            ArchivoAlmacenadoRepository archivoAlmacenadoRepository,
+            StorageUrlResolver storageUrlResolver,
+            @Value("${app.storage.upload.deduplication.enabled:true}") boolean enabled) {
+        this.archivoAlmacenadoRepository = archivoAlmacenadoRepository;
+        this.storageUrlResolver = storageUrlResolver;
+        this.enabled = enabled;
+    }
+
+    /**
+     * SHA-256 del archivo leído en bloques; {@code null} si la deduplicación está deshabilitada.
+     */
+    public String digest(Path source) {
+        if (!enabled) {
+            return null;
+        }
+
+        try (InputStream input = Files.newInputStream(source)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("No se pudo calcular el hash del archivo", ex);
+        }
+    }
+
+    /**
+     * Ámbito en el que se puede reutilizar un objeto: el usuario que lo subió.
+     */
+    public String ambito(Long userId) {
+        return "u" + Objects.toString(userId, "");
+    }
+
+    /**
+     * Objeto ya subido con el mismo contenido en el mismo ámbito. El nombre es el de quien sube ahora; el
+     * tipo es el del objeto guardado, que el optimizador normaliza a partir del contenido.
+     */
+    public Optional<UploadObjectResponse> find(String sha256, String ambito, String fileName) {
+        if (sha256 == null) {
+            return Optional.empty();
+        }
+
+        return archivoAlmacenadoRepository.findBySha256AndAmbito(sha256, ambito)
+                .map(archivo -> new UploadObjectResponse(
+                        archivo.getObjectKey(),
+                        storageUrlResolver.resolvePublicUrl(archivo.getObjectKey()),
+                        archivo.getETag(),
+                        archivo.getTamano(),
+                        fileName != null && !fileName.isBlank() ? fileName.trim() : archivo.getNombreArchivo(),
+                        archivo.getContentType()));
+    }
+
+    public void register(String sha256, String ambito, UploadObjectResponse uploaded) {
+        if (sha256 == null) {
+            return;
+        }
+
+        try {
+            archivoAlmacenadoRepository.save(ArchivoAlmacenado.builder()
+                    .sha256(sha256)
+                    .ambito(ambito)
+                    .objectKey(uploaded.objectKey())
+                    .nombreArchivo(uploaded.fileName())
+                    .contentType(uploaded.contentType())
+                    .tamano(uploaded.fileSize())
+                    .eTag(uploaded.eTag())
+                    .build());
+        } catch (DataIntegrityViolationException ex) {
+            // Otra subida concurrente del mismo archivo registró el hash primero.
+            log.debug("Hash {} ya registrado para otro objeto", sha256);
+        }
+    }
+}
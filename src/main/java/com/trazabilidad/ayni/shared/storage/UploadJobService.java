@@ -0,0 +1,205 @@
+package com.trazabilidad.ayni.shared.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.trazabilidad.ayni.shared.exception.BadRequestException;
+import com.trazabilidad.ayni.shared.exception.EntityNotFoundException;
+import com.trazabilidad.ayni.shared.exception.RateLimitExceededException;
+import com.trazabilidad.ayni.shared.storage.dto.UploadJobResponse;
+import com.trazabilidad.ayni.shared.storage.dto.UploadObjectResponse;
+import com.trazabilidad.ayni.shared.util.WorkerThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cola acotada de subidas asíncronas. Las optimizaciones pesadas (Ghostscript) corren en un
+ * pool del tamaño de los núcleos disponibles en lugar de ocupar hilos de Tomcat; si la cola
+ * está llena la subida se rechaza en vez de lanzar más procesos {@code gs}.
+ */
+@Service
+public class UploadJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadJobService.class);
+
+    public enum Status {
+        QUEUED,
+        PROCESSING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, UploadJob> jobs;
+    private final Timer processingTimer;
+    private final Counter completedCounter;
+    private final Counter failedCounter;
+    private final Counter rejectedCounter;
+
+    public UploadJobService(
+            @Value("${app.storage.upload.async.workers:0}") int workers,
+            @Value("${app.storage.upload.async.queue-capacity:20}") int queueCapacity,
+            @Value("${app.storage.upload.async.retention:1h}") Duration retention,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            MeterRegistry meterRegistry) {
+        int poolSize = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                WorkerThreads.factory("upload-job-", virtualThreads),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.jobs = Caffeine.newBuilder()
+                .expireAfter(retencionDesdeQueTermina(retention))
+                .build();
+
+        Gauge.builder("storage.upload.jobs.queue", executor, pool -> pool.getQueue().size())
+                .description("Subidas asincronas en espera")
+                .register(meterRegistry);
+        Gauge.builder("storage.upload.jobs.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Subidas asincronas en proceso")
+                .register(meterRegistry);
+        this.processingTimer = Timer.builder("storage.upload.jobs.processing")
+                .description("Tiempo de proceso de una subida asincrona")
+                .register(meterRegistry);
+        this.completedCounter = Counter.builder("storage.upload.jobs").tag("outcome", "completed").register(meterRegistry);
+        this.failedCounter = Counter.builder("storage.upload.jobs").tag("outcome", "failed").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("storage.upload.jobs").tag("outcome", "rejected").register(meterRegistry);
+    }
+
+    /**
+     * Encola la tarea. {@code cleanup} se ejecuta siempre al terminar, también si la tarea es rechazada.
+     */
+    public UploadJobResponse submit(Long userId, Supplier<UploadObjectResponse> task, Runnable cleanup) {
+        UploadJob job = new UploadJob(UUID.randomUUID().toString(), userId, Instant.now());
+        jobs.put(job.id, job);
+
+        try {
+            executor.execute(() -> run(job, task, cleanup));
+        } catch (RejectedExecutionException ex) {
+            jobs.invalidate(job.id);
+            rejectedCounter.increment();
+            cleanup.run();
+            throw new RateLimitExceededException(
+                    "Hay demasiados archivos en optimizacion. Intente nuevamente en unos minutos");
+        }
+
+        return job.toResponse();
+    }
+
+    public UploadJobResponse getJob(String jobId, Long userId) {
+        UploadJob job = jobId != null ? jobs.getIfPresent(jobId) : null;
+        if (job == null || (job.userId != null && !Objects.equals(job.userId, userId))) {
+            throw new EntityNotFoundException("Subida no encontrada: " + jobId);
+        }
+        return job.toResponse();
+    }
+
+    private void run(UploadJob job, Supplier<UploadObjectResponse> task, Runnable cleanup) {
+        job.status = Status.PROCESSING;
+        long start = System.nanoTime();
+        try {
+            job.complete(task.get());
+            completedCounter.increment();
+        } catch (BadRequestException ex) {
+            job.fail(ex.getMessage());
+            failedCounter.increment();
+        } catch (RuntimeException ex) {
+            log.error("Fallo la subida asincrona {}", job.id, ex);
+            job.fail("No se pudo procesar el archivo");
+            failedCounter.increment();
+        } finally {
+            processingTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            cleanup.run();
+            // Reinsertar recalcula la expiración: la retención corre desde que el trabajo terminó
+            jobs.put(job.id, job);
+        }
+    }
+
+    /**
+     * Un trabajo en cola o en proceso no expira (la cola está acotada); uno terminado se conserva {@code retention}
+     * desde que terminó, sin importar cuánto esperó o tardó.
+     */
+    private static Expiry<String, UploadJob> retencionDesdeQueTermina(Duration retention) {
+        long retentionNanos = retention.toNanos();
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(String key, UploadJob job, long currentTime) {
+                return job.finishedAt != null ? retentionNanos : Long.MAX_VALUE;
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, UploadJob job, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, job, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(String key, UploadJob job, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class UploadJob {
+
+        private final String id;
+        private final Long userId;
+        private final Instant createdAt;
+        private volatile Status status = Status.QUEUED;
+        private volatile UploadObjectResponse result;
+        private volatile String message;
+        private volatile Instant finishedAt;
+
+        private UploadJob(String id, Long userId, Instant createdAt) {
+            this.id = id;
+            this.userId = userId;
+            this.createdAt = createdAt;
+        }
+
+        private void complete(UploadObjectResponse result) {
+            this.result = result;
+            this.finishedAt = Instant.now();
+            this.status = Status.COMPLETED;
+        }
+
+        private void fail(String message) {
+            this.message = message;
+            this.finishedAt = Instant.now();
+            this.status = Status.FAILED;
+        }
+
+        private UploadJobResponse toResponse() {
+            return new UploadJobResponse(
+                    id,
+                    status.name(),
+                    message,
+                    result,
+                    createdAt.toString(),
+                    finishedAt != null ? finishedAt.toString() : null);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.trazabilidad.ayni.shared.storage.dto;
+
+public record UploadJobResponse(
+        String jobId,
+        String status,
+        String message,
+        UploadObjectResponse result,
+        String createdAt,
+        String finishedAt) {
+}
@@ -0,0 +1,27 @@
+package com.trazabilidad.ayni.shared.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Difiere una acción (típicamente invalidar una caché) hasta que se confirme la transacción en curso; si la
+ * transacción se revierte no se ejecuta, y sin transacción activa se ejecuta en el acto.
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+}
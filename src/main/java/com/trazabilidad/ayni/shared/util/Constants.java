@@ -91,6 +91,17 @@ public final class Constants {
         public static final String VALIDATION_ERROR = "Error de validación en los datos proporcionados";
     }
 
+    /**
+     * Generación de ids: cada entidad reserva bloques de la secuencia {tabla}_id_seq (optimizador pooled-lo).
+     * Debe coincidir con el INCREMENT BY de las secuencias (ver V23).
+     */
+    public static final class Persistence {
+        private Persistence() {
+        }
+
+        public static final int ID_ALLOCATION_SIZE = 50;
+    }
+
     /**
      * Configuración de paginación por defecto
      */
@@ -0,0 +1,21 @@
+package com.trazabilidad.ayni.shared.util;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Hilos de los pools internos (subidas, Ghostscript, subconsultas del tablero). Con
+ * {@code spring.threads.virtual.enabled} son virtuales: el tamaño del pool sigue limitando cuántas tareas
+ * corren a la vez, pero la espera de E/S ya no ocupa un hilo de plataforma.
+ */
+public final class WorkerThreads {
+
+    private WorkerThreads() {
+    }
+
+    public static ThreadFactory factory(String prefix, boolean virtual) {
+        if (virtual) {
+            return Thread.ofVirtual().name(prefix, 1).factory();
+        }
+        return Thread.ofPlatform().name(prefix, 1).daemon(true).factory();
+    }
+}
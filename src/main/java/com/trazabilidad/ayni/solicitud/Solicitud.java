@@ -3,6 +3,7 @@ package com.trazabilidad.ayni.solicitud;
 import com.trazabilidad.ayni.shared.enums.EstadoSolicitud;
 import com.trazabilidad.ayni.shared.exception.BadStateTransitionException;
 import com.trazabilidad.ayni.shared.util.Auditable;
+import com.trazabilidad.ayni.shared.util.Constants;
 import com.trazabilidad.ayni.usuario.Usuario;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
@@ -39,7 +40,8 @@ import java.util.List;
 public class Solicitud extends Auditable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "solicitudes_id_seq")
+    @SequenceGenerator(name = "solicitudes_id_seq", sequenceName = "solicitudes_id_seq", allocationSize = Constants.Persistence.ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "El nombre del proyecto es obligatorio")
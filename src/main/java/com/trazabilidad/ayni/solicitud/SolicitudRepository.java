@@ -9,7 +9,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Repositorio para la entidad Solicitud.
@@ -62,11 +64,63 @@ public interface SolicitudRepository extends JpaRepository<Solicitud, Long>,
                         @Param("hasta") LocalDate hasta,
                         Pageable pageable);
 
+        /**
+         * Búsqueda libre indexada (V21) con los mismos filtros que {@link #buscarConFiltros},
+         * ordenada por relevancia; el orden del Pageable, si lo hay, desempata.
+         */
+        @Query(value = "SELECT * FROM solicitudes s " +
+                        "WHERE (f_busqueda_texto(s.nombre_proyecto, s.cliente, s.descripcion) LIKE CONCAT('%', f_unaccent(LOWER(CAST(:search AS text))), '%') " +
+                        "   OR to_tsvector('spanish', f_busqueda_texto(s.nombre_proyecto, s.cliente, s.descripcion)) @@ to_tsquery('spanish', f_unaccent(CAST(:prefijos AS text)))) " +
+                        "  AND (CAST(:estado AS text) IS NULL OR s.estado = CAST(:estado AS text)) " +
+                        "  AND (CAST(:cliente AS text) IS NULL OR LOWER(s.cliente) = LOWER(CAST(:cliente AS text))) " +
+                        "  AND (:responsableId IS NULL OR s.responsable_id = :responsableId) " +
+                        "  AND (CAST(:desde AS date) IS NULL OR s.fecha_solicitud >= CAST(:desde AS date)) " +
+                        "  AND (CAST(:hasta AS date) IS NULL OR s.fecha_solicitud <= CAST(:hasta AS date)) " +
+                        "ORDER BY COALESCE(ts_rank(to_tsvector('spanish', f_busqueda_texto(s.nombre_proyecto, s.cliente, s.descripcion)), to_tsquery('spanish', f_unaccent(CAST(:prefijos AS text)))), 0) " +
+                        "       + word_similarity(f_unaccent(LOWER(CAST(:search AS text))), f_busqueda_texto(s.nombre_proyecto, s.cliente, s.descripcion)) DESC",
+                        countQuery = "SELECT COUNT(*) FROM solicitudes s " +
+                        "WHERE (f_busqueda_texto(s.nombre_proyecto, s.cliente, s.descripcion) LIKE CONCAT('%', f_unaccent(LOWER(CAST(:search AS text))), '%') " +
+                        "   OR to_tsvector('spanish', f_busqueda_texto(s.nombre_proyecto, s.cliente, s.descripcion)) @@ to_tsquery('spanish', f_unaccent(CAST(:prefijos AS text)))) " +
+                        "  AND (CAST(:estado AS text) IS NULL OR s.estado = CAST(:estado AS text)) " +
+                        "  AND (CAST(:cliente AS text) IS NULL OR LOWER(s.cliente) = LOWER(CAST(:cliente AS text))) " +
+                        "  AND (:responsableId IS NULL OR s.responsable_id = :responsableId) " +
+                        "  AND (CAST(:desde AS date) IS NULL OR s.fecha_solicitud >= CAST(:desde AS date)) " +
+                        "  AND (CAST(:hasta AS date) IS NULL OR s.fecha_solicitud <= CAST(:hasta AS date)) ", nativeQuery = true)
+        Page<Solicitud> buscarPorTexto(
+                        @Param("search") String search,
+                        @Param("prefijos") String prefijos,
+                        @Param("estado") String estado,
+                        @Param("cliente") String cliente,
+                        @Param("responsableId") Long responsableId,
+                        @Param("desde") LocalDate desde,
+                        @Param("hasta") LocalDate hasta,
+                        Pageable pageable);
+
         /**
          * Cuenta solicitudes por estado.
          */
         long countByEstado(EstadoSolicitud estado);
 
+        interface ConteoEstado {
+                EstadoSolicitud getEstado();
+                Long getTotal();
+        }
+
+        @Query("select s.estado as estado, count(s) as total from Solicitud s group by s.estado")
+        List<ConteoEstado> findConteosPorEstado();
+
+        /**
+         * Cuenta solicitudes de todos los estados con un solo GROUP BY; los estados sin solicitudes quedan en cero.
+         */
+        default Map<EstadoSolicitud, Long> contarPorEstado() {
+                Map<EstadoSolicitud, Long> conteos = new EnumMap<>(EstadoSolicitud.class);
+                for (EstadoSolicitud estado : EstadoSolicitud.values()) {
+                        conteos.put(estado, 0L);
+                }
+                findConteosPorEstado().forEach(conteo -> conteos.put(conteo.getEstado(), conteo.getTotal()));
+                return conteos;
+        }
+
         /**
          * Busca solicitudes por responsable.
          */
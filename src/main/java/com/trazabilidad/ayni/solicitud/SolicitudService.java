@@ -6,6 +6,7 @@ import com.trazabilidad.ayni.shared.dto.PaginatedResponse;
 import com.trazabilidad.ayni.shared.enums.EstadoSolicitud;
 import com.trazabilidad.ayni.shared.exception.BadRequestException;
 import com.trazabilidad.ayni.shared.exception.EntityNotFoundException;
+import com.trazabilidad.ayni.shared.search.BusquedaTextoService;
 import com.trazabilidad.ayni.shared.security.CurrentUserService;
 import com.trazabilidad.ayni.solicitud.dto.EstadisticasSolicitudResponse;
 import com.trazabilidad.ayni.solicitud.dto.ResponsableResponse;
@@ -46,6 +47,7 @@ public class SolicitudService {
         private final ProyectoRepository proyectoRepository;
         private final ProyectoService proyectoService;
         private final CurrentUserService currentUserService;
+        private final BusquedaTextoService busquedaTextoService;
 
         // Mapeo de propiedades Java a nombres de columnas SQL (snake_case)
         private static final Map<String, String> PROPERTY_TO_COLUMN_MAP = new HashMap<>() {
@@ -98,8 +100,13 @@ public class SolicitudService {
                         LocalDate fechaHasta,
                         Pageable pageable) {
                 Pageable translatedPageable = translatePageable(pageable);
-                Page<Solicitud> page = solicitudRepository.buscarConFiltros(
-                                search, estado != null ? estado.name() : null, cliente, responsableId, fechaDesde, fechaHasta, translatedPageable);
+                String estadoNombre = estado != null ? estado.name() : null;
+                Page<Solicitud> page = busquedaTextoService.usarIndice(search)
+                                ? solicitudRepository.buscarPorTexto(BusquedaTextoService.termino(search),
+                                                BusquedaTextoService.prefijos(search), estadoNombre, cliente, responsableId,
+                                                fechaDesde, fechaHasta, translatedPageable)
+                                : solicitudRepository.buscarConFiltros(
+                                                search, estadoNombre, cliente, responsableId, fechaDesde, fechaHasta, translatedPageable);
 
                 Map<Long, Long> proyectosPorSolicitud = page.getContent().isEmpty()
                                 ? Map.of()
@@ -246,20 +253,15 @@ public class SolicitudService {
          */
         @Transactional(readOnly = true)
         public EstadisticasSolicitudResponse obtenerEstadisticas() {
-                long total = solicitudRepository.count();
-                long pendientes = solicitudRepository.countByEstado(EstadoSolicitud.PENDIENTE);
-                long enProceso = solicitudRepository.countByEstado(EstadoSolicitud.EN_PROCESO);
-                long completadas = solicitudRepository.countByEstado(EstadoSolicitud.COMPLETADO);
-                long canceladas = solicitudRepository.countByEstado(EstadoSolicitud.CANCELADO);
-                long finalizadas = solicitudRepository.countByEstado(EstadoSolicitud.FINALIZADO);
+                Map<EstadoSolicitud, Long> porEstado = solicitudRepository.contarPorEstado();
 
                 return EstadisticasSolicitudResponse.builder()
-                                .totalSolicitudes(total)
-                                .pendientes(pendientes)
-                                .enProceso(enProceso)
-                                .completadas(completadas)
-                                .canceladas(canceladas)
-                                .finalizadas(finalizadas)
+                                .totalSolicitudes(porEstado.values().stream().mapToLong(Long::longValue).sum())
+                                .pendientes(porEstado.get(EstadoSolicitud.PENDIENTE))
+                                .enProceso(porEstado.get(EstadoSolicitud.EN_PROCESO))
+                                .completadas(porEstado.get(EstadoSolicitud.COMPLETADO))
+                                .canceladas(porEstado.get(EstadoSolicitud.CANCELADO))
+                                .finalizadas(porEstado.get(EstadoSolicitud.FINALIZADO))
                                 .build();
         }
 
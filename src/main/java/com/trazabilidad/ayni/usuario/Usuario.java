@@ -3,6 +3,7 @@ package com.trazabilidad.ayni.usuario;
 import com.trazabilidad.ayni.permiso.Permiso;
 import com.trazabilidad.ayni.rol.Rol;
 import com.trazabilidad.ayni.shared.util.Auditable;
+import com.trazabilidad.ayni.shared.util.Constants;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -16,6 +17,7 @@ import jakarta.persistence.JoinTable;
 import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.Email;
@@ -54,7 +56,8 @@ import java.util.stream.Collectors;
 public class Usuario extends Auditable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuarios_id_seq")
+    @SequenceGenerator(name = "usuarios_id_seq", sequenceName = "usuarios_id_seq", allocationSize = Constants.Persistence.ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "El nombre es obligatorio")
@@ -106,6 +109,14 @@ public class Usuario extends Auditable {
     @Builder.Default
     private Boolean activo = true;
 
+    /**
+     * Versión de seguridad embebida en los JWT; solo la incrementa SecurityVersionRegistry con un UPDATE
+     * directo, por eso la entidad nunca la escribe.
+     */
+    @Column(name = "version_seguridad", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint not null default 0")
+    private Long versionSeguridad;
+
     /**
      * Relacion con roles. Se cargan eager para autorizacion.
      */
@@ -3,9 +3,11 @@ package com.trazabilidad.ayni.usuario;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -51,6 +53,26 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     @Query("SELECT u FROM Usuario u JOIN u.roles r WHERE r.id = :rolId")
     List<Usuario> findByRolId(@Param("rolId") Long rolId);
 
+    @Query("SELECT DISTINCT u FROM Usuario u LEFT JOIN FETCH u.roles ORDER BY u.id")
+    List<Usuario> findAllConRoles();
+
+    @Query("SELECT u.versionSeguridad FROM Usuario u WHERE u.id = :id")
+    Optional<Long> findVersionSeguridad(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "UPDATE usuarios SET version_seguridad = version_seguridad + 1 WHERE id = :id", nativeQuery = true)
+    int incrementarVersionSeguridad(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "UPDATE usuarios SET version_seguridad = version_seguridad + 1 WHERE id IN (:ids)", nativeQuery = true)
+    int incrementarVersionSeguridadDeUsuarios(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT u.id FROM Usuario u JOIN u.roles r WHERE r.id = :rolId")
+    List<Long> findIdsByRolId(@Param("rolId") Long rolId);
+
+    @Query("SELECT DISTINCT u.id FROM Usuario u JOIN u.roles r JOIN r.permisos p WHERE p.id = :permisoId")
+    List<Long> findIdsByPermisoId(@Param("permisoId") Long permisoId);
+
     List<Usuario> findByActivoTrue();
 
     List<Usuario> findByActivoFalse();
@@ -1,5 +1,7 @@
 package com.trazabilidad.ayni.usuario;
 
+import com.trazabilidad.ayni.auth.AuthPrincipalCache;
+import com.trazabilidad.ayni.auth.SecurityVersionRegistry;
 import com.trazabilidad.ayni.proyecto.ActividadProyecto;
 import com.trazabilidad.ayni.proyecto.ActividadProyectoRepository;
 import com.trazabilidad.ayni.rol.Rol;
@@ -47,6 +49,8 @@ public class UsuarioService {
         private final SolicitudRepository solicitudRepository;
         private final ProyectoRepository proyectoRepository;
         private final ActividadProyectoRepository actividadProyectoRepository;
+        private final AuthPrincipalCache principalCache;
+        private final SecurityVersionRegistry securityVersionRegistry;
 
         /**
          * Obtiene usuarios paginados con filtros opcionales
@@ -194,6 +198,8 @@ public class UsuarioService {
                 usuarioMapper.updateEntity(usuario, request, rol);
 
                 Usuario usuarioActualizado = usuarioRepository.save(usuario);
+                securityVersionRegistry.incrementarUsuario(id);
+                principalCache.invalidarUsuario(id);
                 log.info("Usuario actualizado exitosamente con ID: {}", id);
 
                 return usuarioMapper.toResponse(usuarioActualizado);
@@ -211,6 +217,8 @@ public class UsuarioService {
 
                 usuario.setActivo(false);
                 usuarioRepository.save(usuario);
+                securityVersionRegistry.incrementarUsuario(id);
+                principalCache.invalidarUsuario(id);
 
                 log.info("Usuario eliminado lógicamente con ID: {}", id);
         }
@@ -259,6 +267,8 @@ public class UsuarioService {
                 usuarioRepository.save(usuario);
 
                 usuarioRepository.delete(usuario);
+                securityVersionRegistry.incrementarUsuario(id);
+                principalCache.invalidarUsuario(id);
                 log.info("Usuario eliminado físicamente con ID: {}", id);
         }
 
@@ -274,6 +284,8 @@ public class UsuarioService {
 
                 usuario.setActivo(activo);
                 Usuario usuarioActualizado = usuarioRepository.save(usuario);
+                securityVersionRegistry.incrementarUsuario(id);
+                principalCache.invalidarUsuario(id);
 
                 log.info("Estado cambiado exitosamente para usuario ID: {}", id);
                 return usuarioMapper.toResponse(usuarioActualizado);
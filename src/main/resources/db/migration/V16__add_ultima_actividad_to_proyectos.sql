@@ -0,0 +1,27 @@
+ALTER TABLE proyectos
+    ADD COLUMN IF NOT EXISTS ultima_actividad TIMESTAMP;
+
+UPDATE proyectos p
+SET ultima_actividad = GREATEST(
+    p.fecha_actualizacion,
+    p.fecha_creacion,
+    CAST(p.fecha_registro AS TIMESTAMP),
+    CAST(p.fecha_inicio AS TIMESTAMP),
+    CAST(p.fecha_finalizacion AS TIMESTAMP),
+    (SELECT MAX(GREATEST(a.fecha_cambio_estado, a.fecha_registro, CAST(a.fecha_inicio AS TIMESTAMP), CAST(a.fecha_fin AS TIMESTAMP)))
+     FROM actividades_proyecto a WHERE a.proyecto_id = p.id),
+    (SELECT MAX(GREATEST(o.fecha_actualizacion, o.fecha_creacion, CAST(o.fecha AS TIMESTAMP)))
+     FROM ordenes_compra o WHERE o.proyecto_id = p.id),
+    (SELECT MAX(GREATEST(c.fecha_comentario, CAST(c.fecha_inicio AS TIMESTAMP), CAST(c.fecha_fin AS TIMESTAMP)))
+     FROM comentarios_actividad c WHERE c.proyecto_id = p.id),
+    (SELECT MAX(GREATEST(m.fecha_actualizacion, m.fecha_creacion, CAST(m.fecha AS TIMESTAMP)))
+     FROM costos_material m WHERE m.proyecto_id = p.id),
+    (SELECT MAX(GREATEST(mo.fecha_actualizacion, mo.fecha_creacion))
+     FROM costos_mano_obra mo WHERE mo.proyecto_id = p.id),
+    (SELECT MAX(GREATEST(ad.fecha_actualizacion, ad.fecha_creacion, CAST(ad.fecha AS TIMESTAMP)))
+     FROM costos_adicional ad WHERE ad.proyecto_id = p.id)
+)
+WHERE p.ultima_actividad IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_proyecto_estado_ultima_actividad
+    ON proyectos (estado, ultima_actividad);
@@ -0,0 +1,15 @@
+-- Un objeto solo se reutiliza dentro del mismo ámbito (quien lo subió).
+CREATE TABLE IF NOT EXISTS archivos_almacenados (
+    id BIGSERIAL PRIMARY KEY,
+    sha256 VARCHAR(64) NOT NULL,
+    ambito VARCHAR(64) NOT NULL,
+    object_key VARCHAR(1024) NOT NULL,
+    nombre_archivo VARCHAR(255),
+    content_type VARCHAR(255),
+    tamano BIGINT,
+    e_tag VARCHAR(255),
+    fecha_creacion TIMESTAMP NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_archivos_almacenados_sha256_ambito
+    ON archivos_almacenados (sha256, ambito);
@@ -0,0 +1,32 @@
+CREATE TABLE IF NOT EXISTS gasto_diario (
+    proyecto_id BIGINT NOT NULL,
+    categoria VARCHAR(30) NOT NULL,
+    fecha DATE NOT NULL,
+    monto NUMERIC(16, 2) NOT NULL DEFAULT 0,
+    cantidad INTEGER NOT NULL DEFAULT 0,
+    CONSTRAINT pk_gasto_diario PRIMARY KEY (proyecto_id, categoria, fecha),
+    CONSTRAINT fk_gasto_diario_proyecto
+        FOREIGN KEY (proyecto_id) REFERENCES proyectos (id)
+        ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_gasto_diario_fecha
+    ON gasto_diario (fecha);
+
+INSERT INTO gasto_diario (proyecto_id, categoria, fecha, monto, cantidad)
+SELECT proyecto_id, categoria, fecha, SUM(monto), COUNT(*)
+FROM (
+    SELECT m.proyecto_id, 'Materiales' AS categoria,
+           COALESCE(m.fecha, CAST(m.fecha_creacion AS DATE)) AS fecha,
+           COALESCE(m.costo_total, 0) AS monto
+    FROM costos_material m
+    UNION ALL
+    SELECT mo.proyecto_id, 'Mano de Obra', CAST(mo.fecha_creacion AS DATE), COALESCE(mo.costo_total, 0)
+    FROM costos_mano_obra mo
+    UNION ALL
+    SELECT a.proyecto_id, 'Otros Costos', COALESCE(a.fecha, CAST(a.fecha_creacion AS DATE)), COALESCE(a.monto, 0)
+    FROM costos_adicional a
+) gastos
+WHERE fecha IS NOT NULL
+GROUP BY proyecto_id, categoria, fecha
+ON CONFLICT (proyecto_id, categoria, fecha) DO NOTHING;
@@ -0,0 +1,10 @@
+-- Fecha efectiva de cada gasto tal como la ordena el listado del tablero; permite que el
+-- cursor (fecha <= :cursorFecha) recorra solo el rango restante en cada tabla.
+CREATE INDEX IF NOT EXISTS idx_costo_mat_fecha_gasto
+    ON costos_material ((COALESCE(fecha, CAST(fecha_creacion AS DATE))) DESC);
+
+CREATE INDEX IF NOT EXISTS idx_costo_mo_fecha_gasto
+    ON costos_mano_obra ((CAST(fecha_creacion AS DATE)) DESC);
+
+CREATE INDEX IF NOT EXISTS idx_costo_adic_fecha_gasto
+    ON costos_adicional ((COALESCE(fecha, CAST(fecha_creacion AS DATE))) DESC);
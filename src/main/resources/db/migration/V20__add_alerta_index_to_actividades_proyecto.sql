@@ -0,0 +1,11 @@
+-- Tareas abiertas ordenadas por la fecha desde la que se mide el tiempo sin cambio de estado.
+-- El predicado coincide con el de AlertaActividadService para que el planificador use el índice.
+CREATE INDEX IF NOT EXISTS idx_actividad_alerta_base
+    ON actividades_proyecto (
+        (COALESCE(fecha_cambio_estado, CAST(fecha_fin AS TIMESTAMP), CAST(fecha_inicio AS TIMESTAMP))),
+        proyecto_id)
+    WHERE LOWER(tipo) = 'tarea'
+      AND (LOWER(COALESCE(estado_actividad, 'Pendiente')) LIKE '%pendiente%'
+        OR LOWER(COALESCE(estado_actividad, 'Pendiente')) LIKE '%proceso%'
+        OR LOWER(COALESCE(estado_actividad, 'Pendiente')) LIKE '%progreso%'
+        OR LOWER(COALESCE(estado_actividad, 'Pendiente')) LIKE '%retras%');
@@ -0,0 +1,34 @@
+-- Búsqueda de texto libre sin distinguir mayúsculas ni acentos para proyectos y solicitudes.
+-- pg_trgm resuelve coincidencias parciales (LIKE '%term%') y el tsvector en español los prefijos
+-- y el ranking; ambos usan índices GIN sobre la misma expresión que consultan los repositorios.
+CREATE EXTENSION IF NOT EXISTS pg_trgm WITH SCHEMA public;
+CREATE EXTENSION IF NOT EXISTS unaccent WITH SCHEMA public;
+
+-- unaccent() es STABLE; el envoltorio fija el diccionario para poder usarlo en índices.
+-- Las funciones IMMUTABLE no deben depender del search_path de quien las llame (restores, pg_dump,
+-- autovacuum), así que todo queda calificado con public; sin SET search_path para que se puedan inlinear.
+CREATE OR REPLACE FUNCTION public.f_unaccent(texto TEXT)
+    RETURNS TEXT
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+AS $$
+    SELECT public.unaccent('public.unaccent'::regdictionary, texto)
+$$;
+
+CREATE OR REPLACE FUNCTION public.f_busqueda_texto(nombre TEXT, cliente TEXT, descripcion TEXT)
+    RETURNS TEXT
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE
+AS $$
+    SELECT public.f_unaccent(LOWER(CONCAT_WS(' ', nombre, cliente, descripcion)))
+$$;
+
+CREATE INDEX IF NOT EXISTS idx_proyectos_busqueda_trgm
+    ON proyectos USING gin (public.f_busqueda_texto(nombre_proyecto, cliente, descripcion) public.gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_proyectos_busqueda_tsv
+    ON proyectos USING gin (to_tsvector('spanish', public.f_busqueda_texto(nombre_proyecto, cliente, descripcion)));
+
+CREATE INDEX IF NOT EXISTS idx_solicitudes_busqueda_trgm
+    ON solicitudes USING gin (public.f_busqueda_texto(nombre_proyecto, cliente, descripcion) public.gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_solicitudes_busqueda_tsv
+    ON solicitudes USING gin (to_tsvector('spanish', public.f_busqueda_texto(nombre_proyecto, cliente, descripcion)));
@@ -0,0 +1,36 @@
+-- Totales acumulados de costos por proyecto; CostoService los actualiza en la misma transacción
+-- que cada alta, edición o baja, y ProyectoCostoTotalesService los reconcilia periódicamente.
+CREATE TABLE IF NOT EXISTS proyecto_costo_totales (
+    proyecto_id BIGINT PRIMARY KEY,
+    total_materiales NUMERIC(16, 2) NOT NULL DEFAULT 0,
+    cantidad_materiales INTEGER NOT NULL DEFAULT 0,
+    total_mano_obra NUMERIC(16, 2) NOT NULL DEFAULT 0,
+    cantidad_mano_obra INTEGER NOT NULL DEFAULT 0,
+    total_adicionales NUMERIC(16, 2) NOT NULL DEFAULT 0,
+    cantidad_adicionales INTEGER NOT NULL DEFAULT 0,
+    fecha_actualizacion TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_proyecto_costo_totales_proyecto
+        FOREIGN KEY (proyecto_id) REFERENCES proyectos (id)
+        ON DELETE CASCADE
+);
+
+INSERT INTO proyecto_costo_totales (proyecto_id, total_materiales, cantidad_materiales, total_mano_obra,
+                                    cantidad_mano_obra, total_adicionales, cantidad_adicionales)
+SELECT p.id,
+       COALESCE(m.total, 0), COALESCE(m.cantidad, 0),
+       COALESCE(mo.total, 0), COALESCE(mo.cantidad, 0),
+       COALESCE(a.total, 0), COALESCE(a.cantidad, 0)
+FROM proyectos p
+LEFT JOIN (
+    SELECT proyecto_id, SUM(COALESCE(costo_total, 0)) AS total, COUNT(*) AS cantidad
+    FROM costos_material GROUP BY proyecto_id
+) m ON m.proyecto_id = p.id
+LEFT JOIN (
+    SELECT proyecto_id, SUM(COALESCE(costo_total, 0)) AS total, COUNT(*) AS cantidad
+    FROM costos_mano_obra GROUP BY proyecto_id
+) mo ON mo.proyecto_id = p.id
+LEFT JOIN (
+    SELECT proyecto_id, SUM(COALESCE(monto, 0)) AS total, COUNT(*) AS cantidad
+    FROM costos_adicional GROUP BY proyecto_id
+) a ON a.proyecto_id = p.id
+ON CONFLICT (proyecto_id) DO NOTHING;
@@ -0,0 +1,48 @@
+-- Las entidades pasan de IDENTITY a secuencias con el optimizador pooled-lo de Hibernate: cada nextval
+-- reserva 50 ids y los INSERT se pueden enviar en lotes JDBC. La secuencia de cada tabla queda como
+-- {tabla}_id_seq (las de V13 conservaban el nombre de la tabla temporal) y sigue siendo el DEFAULT de id,
+-- así los INSERT en SQL plano también toman un bloque propio sin chocar con los de Hibernate.
+DO $$
+DECLARE
+    tabla TEXT;
+    secuencia TEXT;
+    nombre_secuencia TEXT;
+    es_identity BOOLEAN;
+    max_id BIGINT;
+BEGIN
+    FOREACH tabla IN ARRAY ARRAY[
+        'permisos', 'roles', 'usuarios', 'solicitudes', 'proyectos', 'ordenes_compra', 'actividades_proyecto',
+        'comentarios_actividad', 'actividad_adjuntos', 'comentario_actividad_adjuntos', 'orden_compra_adjuntos',
+        'firmas', 'costos_material', 'costos_mano_obra', 'costos_adicional', 'costos_adicional_categoria',
+        'costos_material_tipo', 'costos_mano_obra_oficio', 'proyecto_responsables_historial', 'archivos_almacenados'
+    ] LOOP
+        IF to_regclass(tabla) IS NULL THEN
+            CONTINUE;
+        END IF;
+
+        nombre_secuencia := tabla || '_id_seq';
+        secuencia := pg_get_serial_sequence(tabla, 'id');
+        SELECT a.attidentity <> ''
+        INTO es_identity
+        FROM pg_attribute a
+        WHERE a.attrelid = to_regclass(tabla) AND a.attname = 'id';
+
+        IF secuencia IS NULL THEN
+            EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I OWNED BY %I.id', nombre_secuencia, tabla);
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', tabla, nombre_secuencia);
+        ELSIF NOT es_identity AND (SELECT c.relname FROM pg_class c WHERE c.oid = secuencia::regclass) <> nombre_secuencia THEN
+            EXECUTE format('ALTER SEQUENCE %s RENAME TO %I', secuencia, nombre_secuencia);
+        END IF;
+
+        IF es_identity THEN
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET INCREMENT BY 50', tabla);
+            nombre_secuencia := pg_get_serial_sequence(tabla, 'id');
+        ELSE
+            EXECUTE format('ALTER SEQUENCE %I INCREMENT BY 50', nombre_secuencia);
+        END IF;
+
+        -- El próximo nextval devuelve max(id) + 1 y Hibernate usa desde ahí los siguientes 50 ids
+        EXECUTE format('SELECT COALESCE(MAX(id), 0) FROM %I', tabla) INTO max_id;
+        PERFORM setval(nombre_secuencia::regclass, max_id + 1, false);
+    END LOOP;
+END $$;
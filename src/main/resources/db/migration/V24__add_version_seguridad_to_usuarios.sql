@@ -0,0 +1,4 @@
+-- Versión de seguridad persistida por usuario: se incrementa en la misma transacción que el cambio de
+-- estado, roles o permisos, así todas las instancias la ven y un cambio revertido no invalida tokens.
+ALTER TABLE usuarios
+    ADD COLUMN IF NOT EXISTS version_seguridad BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,89 @@
+package com.trazabilidad.ayni.alerta;
+
+import com.trazabilidad.ayni.alerta.dto.AlertaActividadResponse;
+import com.trazabilidad.ayni.proyecto.ActividadProyecto;
+import com.trazabilidad.ayni.proyecto.Proyecto;
+import com.trazabilidad.ayni.shared.enums.EstadoProyecto;
+import com.trazabilidad.ayni.support.PostgresJpaTest;
+import com.trazabilidad.ayni.support.PostgresTestDatabase;
+import com.trazabilidad.ayni.usuario.Usuario;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ejecuta la consulta de alertas contra el esquema migrado de {@link PostgresJpaTest}: umbrales por estado, tareas
+ * excluidas, la rama de proyectos archivados de la unión y el índice parcial de V20 que la respalda.
+ */
+@PostgresJpaTest
+@Import(AlertaActividadService.class)
+class AlertaActividadPostgresTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private AlertaActividadService service;
+
+    @Test
+    void aplicaUmbralesPorEstadoYAgregaUnaAlertaPorProyectoArchivado() {
+        Usuario responsable = Usuario.builder().nombre("Ana").apellido("Rojas").email("ana@ayni.test")
+                .username("arojas").password("x").build();
+        entityManager.persist(responsable);
+        Proyecto activo = proyecto("Puente", EstadoProyecto.EN_PROCESO, responsable);
+        Proyecto archivado = proyecto("Almacén", EstadoProyecto.ARCHIVADO, responsable);
+        LocalDateTime ahora = LocalDateTime.now();
+
+        tarea(activo, "tarea", "Pendiente", ahora.minusHours(50));
+        tarea(activo, "tarea", "Pendiente", ahora.minusHours(30));
+        tarea(activo, "tarea", "En progreso", ahora.minusHours(170));
+        tarea(activo, "tarea", "Completado", ahora.minusDays(60));
+        tarea(activo, "hito", "Pendiente", ahora.minusDays(60));
+        tarea(archivado, "tarea", "Pendiente", ahora.minusDays(60));
+        entityManager.flush();
+
+        List<AlertaActividadResponse> alertas = service.listarAlertas();
+
+        assertEquals(3, alertas.size());
+        assertEquals(archivado.getId(), alertas.get(0).getProyectoId());
+        assertEquals(0L, alertas.get(0).getNodoId());
+        assertEquals(720L, alertas.get(0).getHorasSinCambio());
+        assertEquals("En progreso", alertas.get(1).getEstado());
+        assertEquals("alta", alertas.get(1).getNivel());
+        assertEquals("Pendiente", alertas.get(2).getEstado());
+        assertEquals("media", alertas.get(2).getNivel());
+        assertEquals(50L, alertas.get(2).getHorasSinCambio());
+        assertEquals(3L, service.listarAlertasPaginadas(0, 2).getTotalElements());
+    }
+
+    @Test
+    void migracionCreaElIndiceParcialDeAlertas() {
+        Object definicion = entityManager.createNativeQuery(
+                        "select indexdef from pg_indexes where schemaname = :esquema and indexname = 'idx_actividad_alerta_base'")
+                .setParameter("esquema", PostgresTestDatabase.SCHEMA).getSingleResult();
+
+        assertTrue(((String) definicion).contains("WHERE"), () -> "índice sin predicado: " + definicion);
+    }
+
+    private Proyecto proyecto(String nombre, EstadoProyecto estado, Usuario responsable) {
+        Proyecto proyecto = Proyecto.builder().nombreProyecto(nombre).cliente("Municipalidad").costo(BigDecimal.TEN)
+                .estado(estado).fechaInicio(LocalDate.of(2024, 1, 1)).fechaFinalizacion(LocalDate.of(2024, 12, 31))
+                .responsable(responsable).build();
+        entityManager.persist(proyecto);
+        return proyecto;
+    }
+
+    private void tarea(Proyecto proyecto, String tipo, String estado, LocalDateTime cambio) {
+        entityManager.persist(ActividadProyecto.builder().proyecto(proyecto).nombre(tipo + " " + estado)
+                .tipo(tipo).estadoActividad(estado).fechaCambioEstado(cambio).build());
+    }
+}
@@ -0,0 +1,90 @@
+package com.trazabilidad.ayni.alerta;
+
+import com.trazabilidad.ayni.alerta.dto.AlertaActividadResponse;
+import com.trazabilidad.ayni.shared.dto.PaginatedResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AlertaActividadServiceTest {
+
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final Query conteo = mock(Query.class, RETURNS_SELF);
+    private final Query datos = mock(Query.class, RETURNS_SELF);
+    private final AlertaActividadService service = new AlertaActividadService(entityManager);
+
+    @Test
+    void paginaFueraDeRangoSeAjustaALaUltimaYUsaSuOffset() {
+        consultas(5L, List.of());
+
+        PaginatedResponse<AlertaActividadResponse> pagina = service.listarAlertasPaginadas(10, 2);
+
+        assertEquals(5L, pagina.getTotalElements());
+        assertEquals(3, pagina.getTotalPages());
+        assertEquals(2, pagina.getPage());
+        assertEquals(2, pagina.getSize());
+        verify(datos).setParameter("limit", 2);
+        verify(datos).setParameter("offset", 4L);
+    }
+
+    @Test
+    void sinAlertasNoConsultaLasFilas() {
+        consultas(0L, List.of());
+
+        PaginatedResponse<AlertaActividadResponse> pagina = service.listarAlertasPaginadas(null, null);
+
+        assertTrue(pagina.getContent().isEmpty());
+        assertEquals(0, pagina.getPage());
+        assertEquals(100, pagina.getSize());
+        verify(datos, never()).getResultList();
+    }
+
+    @Test
+    void nivelSegunUmbralCriticoYMensajePorEstado() {
+        consultas(4L, List.of(
+                fila(1, 7L, "Puente", 11L, "Vaciado", "Pendiente", 130L, 120L),
+                fila(1, 7L, "Puente", 12L, "Encofrado", "En progreso", 80L, 168L),
+                fila(1, 7L, "Puente", 13L, null, "Retrasado", 30L, 24L),
+                fila(0, 8L, "Almacén", 0L, null, null, 720L, null)));
+
+        List<AlertaActividadResponse> alertas = service.listarAlertasPaginadas(0, 10).getContent();
+
+        assertEquals("alta", alertas.get(0).getNivel());
+        assertEquals("Urgente: 5d 10h sin cambio de estado", alertas.get(0).getMensaje());
+        assertEquals("media", alertas.get(1).getNivel());
+        assertEquals("Atencion: 3d 8h sin cambio de estado", alertas.get(1).getMensaje());
+        assertEquals("alta", alertas.get(2).getNivel());
+        assertEquals("Actividad sin nombre", alertas.get(2).getNombreActividad());
+        assertEquals("Urgente: 1d 6h sin cambio de estado a Completado o Cancelado", alertas.get(2).getMensaje());
+
+        AlertaActividadResponse archivado = alertas.get(3);
+        assertEquals(8L, archivado.getProyectoId());
+        assertEquals(0L, archivado.getNodoId());
+        assertEquals("media", archivado.getNivel());
+        assertEquals(720L, archivado.getHorasSinCambio());
+    }
+
+    private void consultas(long total, List<Object[]> filas) {
+        when(entityManager.createNativeQuery(anyString())).thenReturn(datos);
+        when(entityManager.createNativeQuery(startsWith("select count(*)"))).thenReturn(conteo);
+        when(conteo.getSingleResult()).thenReturn(total);
+        when(datos.getResultList()).thenReturn(filas);
+    }
+
+    private static Object[] fila(int origen, Long proyectoId, String proyecto, Long nodoId, String nombre, String estado,
+                                 Long horas, Long critica) {
+        return new Object[] { origen, proyectoId, proyecto, nodoId, nombre, estado, horas, critica };
+    }
+}
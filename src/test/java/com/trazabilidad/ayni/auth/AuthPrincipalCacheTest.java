@@ -0,0 +1,70 @@
+package com.trazabilidad.ayni.auth;
+
+import com.trazabilidad.ayni.usuario.Usuario;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class AuthPrincipalCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger cargas = new AtomicInteger();
+
+    private AuthPrincipalCache crearCache(boolean enabled) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", registry);
+        return new AuthPrincipalCache(enabled, 100, Duration.ofMinutes(5), beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+
+    private Function<String, CustomUserDetails> loader(Long id) {
+        return username -> {
+            cargas.incrementAndGet();
+            return new CustomUserDetails(Usuario.builder().id(id).username(username).build());
+        };
+    }
+
+    @Test
+    void obtenerReutilizaPrincipalYPublicaAciertos() {
+        AuthPrincipalCache cache = crearCache(true);
+
+        CustomUserDetails primero = cache.obtener("admin", loader(1L));
+        CustomUserDetails segundo = cache.obtener("admin", loader(1L));
+
+        assertSame(primero, segundo);
+        assertEquals(1, cargas.get());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", AuthPrincipalCache.CACHE_NAME).tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", AuthPrincipalCache.CACHE_NAME).tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void invalidarUsuarioDescartaSoloSusEntradas() {
+        AuthPrincipalCache cache = crearCache(true);
+        cache.obtener("admin", loader(1L));
+        cache.obtener("admin@ayni.pe", loader(1L));
+        cache.obtener("operador", loader(2L));
+
+        cache.invalidarUsuario(1L);
+
+        assertEquals(1, cache.size());
+        cache.obtener("admin", loader(1L));
+        assertEquals(4, cargas.get());
+    }
+
+    @Test
+    void deshabilitadaSiempreDelegaEnElLoader() {
+        AuthPrincipalCache cache = crearCache(false);
+
+        cache.obtener("admin", loader(1L));
+        cache.obtener("admin", loader(1L));
+
+        assertEquals(2, cargas.get());
+    }
+}
@@ -0,0 +1,98 @@
+package com.trazabilidad.ayni.auth;
+
+import com.trazabilidad.ayni.permiso.Permiso;
+import com.trazabilidad.ayni.rol.Rol;
+import com.trazabilidad.ayni.usuario.Usuario;
+import com.trazabilidad.ayni.usuario.UsuarioRepository;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtTokenProviderTest {
+
+    private final UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+    private final SecurityVersionRegistry securityVersionRegistry =
+            new SecurityVersionRegistry(usuarioRepository, 100, Duration.ofMinutes(1));
+    private final JwtTokenProvider tokenProvider = new JwtTokenProvider(securityVersionRegistry);
+    private CustomUserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        when(usuarioRepository.findVersionSeguridad(7L)).thenReturn(Optional.of(0L));
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", "clave-de-pruebas-con-longitud-suficiente-para-hs256");
+        ReflectionTestUtils.setField(tokenProvider, "claimsEnabled", true);
+
+        Permiso permiso = Permiso.builder().modulo("PROYECTOS").acciones(Set.of("LEER")).build();
+        Rol rol = Rol.builder().nombre("ADMINISTRADOR").permisos(Set.of(permiso)).build();
+        userDetails = new CustomUserDetails(Usuario.builder().id(7L).username("admin").activo(true).roles(Set.of(rol)).build());
+    }
+
+    @Test
+    void principalDesdeClaimsConservaIdYAuthorities() {
+        String token = tokenProvider.generateAccessToken(userDetails, 60_000);
+
+        CustomUserDetails principal = tokenProvider.getPrincipalFromClaims(tokenProvider.getClaimsFromToken(token));
+
+        assertNotNull(principal);
+        assertEquals(7L, principal.getId());
+        assertEquals("admin", principal.getUsername());
+        assertEquals(userDetails.getAuthorities(), principal.getAuthorities());
+        assertTrue(principal.tieneRol("administrador"));
+    }
+
+    @Test
+    void cambioDeVersionInvalidaLosClaims() {
+        Claims claims = tokenProvider.getClaimsFromToken(tokenProvider.generateAccessToken(userDetails, 60_000));
+
+        when(usuarioRepository.findVersionSeguridad(7L)).thenReturn(Optional.of(1L));
+        securityVersionRegistry.incrementarUsuario(7L);
+
+        verify(usuarioRepository).incrementarVersionSeguridad(7L);
+        assertNull(tokenProvider.getPrincipalFromClaims(claims));
+    }
+
+    @Test
+    void cambioRevertidoNoInvalidaLosClaims() {
+        Claims claims = tokenProvider.getClaimsFromToken(tokenProvider.generateAccessToken(userDetails, 60_000));
+
+        when(usuarioRepository.findIdsByRolId(3L)).thenReturn(List.of(7L));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            securityVersionRegistry.incrementarPorRol(3L);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNotNull(tokenProvider.getPrincipalFromClaims(claims));
+    }
+
+    @Test
+    void cambioDeRolSoloIncrementaLaVersionDeSusUsuarios() {
+        when(usuarioRepository.findIdsByRolId(3L)).thenReturn(List.of(7L, 9L));
+
+        securityVersionRegistry.incrementarPorRol(3L);
+        securityVersionRegistry.incrementarPorRol(4L);
+
+        verify(usuarioRepository).incrementarVersionSeguridadDeUsuarios(List.of(7L, 9L));
+        verify(usuarioRepository, never()).incrementarVersionSeguridadDeUsuarios(List.of());
+    }
+}
@@ -0,0 +1,49 @@
+package com.trazabilidad.ayni.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConcurrencyLimitedDataSourceTest {
+
+    private final DataSource target = mock(DataSource.class);
+    private final ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(target, 1, Duration.ofMillis(50));
+
+    @Test
+    void sinPermisosElPedidoEsperaHastaElTimeoutYCerrarLoDevuelve() throws Exception {
+        Connection fisica = mock(Connection.class);
+        when(target.getConnection()).thenReturn(fisica);
+
+        Connection primera = dataSource.getConnection();
+        assertEquals(1, dataSource.getEnUso());
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        primera.close();
+        primera.close();
+        verify(fisica, times(2)).close();
+        assertEquals(0, dataSource.getEnUso());
+
+        dataSource.getConnection().close();
+        verify(target, times(2)).getConnection();
+    }
+
+    @Test
+    void errorAlAbrirDevuelveElPermiso() throws Exception {
+        when(target.getConnection()).thenThrow(new SQLException("pool agotado"));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+
+        assertEquals(0, dataSource.getEnUso());
+    }
+}
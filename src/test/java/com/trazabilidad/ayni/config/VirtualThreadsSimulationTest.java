@@ -0,0 +1,160 @@
+package com.trazabilidad.ayni.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Simulación, no benchmark: modela cómo se encolan las peticiones con hilos de plataforma (pool de 200, como
+ * Tomcat) y con hilos virtuales, con y sin {@link ConcurrencyLimitedDataSource}, ante llegadas a tasa fija de 70%
+ * consultas del dashboard y 30% subidas. No pasa por Tomcat, Hikari, Postgres, R2 ni ningún endpoint: el pool
+ * es un semáforo de 10 permisos detrás de un proxy, las consultas son pausas de 15 ms y la subida es un proceso
+ * {@code sleep}, una pausa de 1,5 s y otra de 5 ms. Las cifras que imprime solo comparan los modos dentro de ese
+ * modelo y no miden el rendimiento de la aplicación. Solo corre con {@code AYNI_SIMULATION=true}.
+ */
+@EnabledOnOs({OS.LINUX, OS.MAC})
+@EnabledIfEnvironmentVariable(named = "AYNI_SIMULATION", matches = "true")
+class VirtualThreadsSimulationTest {
+
+    private static final Duration DURACION = Duration.ofSeconds(10);
+    private static final int POOL_SIZE = 10;
+    private static final Duration CONNECTION_TIMEOUT = Duration.ofSeconds(30);
+
+    @Test
+    void simulaLasColasDeCadaModoDeHilos() throws Exception {
+        ejecutar("calentamiento", Executors::newVirtualThreadPerTaskExecutor, false, 100, Duration.ofSeconds(2));
+
+        List<Resultado> resultados = new ArrayList<>();
+        for (int tasa : new int[] { 300, 600, 900 }) {
+            resultados.add(ejecutar("plataforma (200 hilos)", () -> Executors.newFixedThreadPool(200), false, tasa, DURACION));
+            resultados.add(ejecutar("virtuales", Executors::newVirtualThreadPerTaskExecutor, false, tasa, DURACION));
+            resultados.add(ejecutar("virtuales + limite", Executors::newVirtualThreadPerTaskExecutor, true, tasa, DURACION));
+        }
+
+        System.out.printf("%nSimulacion (E/S simulada, no medida en la aplicacion)%n%-24s %6s %8s %8s %12s %12s %14s %14s%n", "modo", "tasa", "req/s", "errores",
+                "dash p50 ms", "dash p99 ms", "subida p50 ms", "subida p99 ms");
+        for (Resultado r : resultados) {
+            System.out.printf("%-24s %6d %8.0f %8d %12.1f %12.1f %14.1f %14.1f%n", r.modo(), r.tasa(), r.throughput(),
+                    r.errores(), percentil(r.dashboard(), 50), percentil(r.dashboard(), 99),
+                    percentil(r.subidas(), 50), percentil(r.subidas(), 99));
+            assertEquals(r.peticiones(), r.dashboard().length + r.subidas().length + r.errores());
+        }
+    }
+
+    private record Resultado(String modo, int tasa, int peticiones, double throughput, int errores,
+                             long[] dashboard, long[] subidas) {
+    }
+
+    private Resultado ejecutar(String modo, Supplier<ExecutorService> executorFactory, boolean limitar, int tasa,
+                               Duration duracion) throws Exception {
+        DataSource pool = poolSimulado();
+        DataSource dataSource = limitar ? new ConcurrencyLimitedDataSource(pool, POOL_SIZE, CONNECTION_TIMEOUT) : pool;
+        int peticiones = (int) (tasa * duracion.toSeconds());
+        long intervalo = TimeUnit.SECONDS.toNanos(1) / tasa;
+        AtomicInteger errores = new AtomicInteger();
+        List<Future<long[]>> futures = new ArrayList<>(peticiones);
+
+        long inicio = System.nanoTime();
+        try (ExecutorService executor = executorFactory.get()) {
+            for (int i = 0; i < peticiones; i++) {
+                boolean subida = i % 10 < 3;
+                long llegada = inicio + i * intervalo;
+                LockSupport.parkNanos(llegada - System.nanoTime());
+                futures.add(executor.submit(() -> {
+                    try {
+                        if (subida) {
+                            subida(dataSource);
+                        } else {
+                            dashboard(dataSource);
+                        }
+                        return new long[] { subida ? 1 : 0, System.nanoTime() - llegada };
+                    } catch (SQLTransientConnectionException ex) {
+                        errores.incrementAndGet();
+                        return null;
+                    }
+                }));
+            }
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        List<Long> dashboard = new ArrayList<>();
+        List<Long> subidas = new ArrayList<>();
+        for (Future<long[]> future : futures) {
+            long[] medida = future.get();
+            if (medida != null) {
+                (medida[0] == 1 ? subidas : dashboard).add(medida[1]);
+            }
+        }
+        return new Resultado(modo, tasa, peticiones, (dashboard.size() + subidas.size()) / segundos, errores.get(),
+                dashboard.stream().mapToLong(Long::longValue).toArray(), subidas.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    /** Consulta de tablero simulada: una conexión durante 15 ms. */
+    private static void dashboard(DataSource dataSource) throws Exception {
+        try (Connection ignored = dataSource.getConnection()) {
+            Thread.sleep(15);
+        }
+    }
+
+    /** Subida simulada: un proceso externo en lugar de Ghostscript, una pausa en lugar de putObject y otra en lugar del INSERT. */
+    private static void subida(DataSource dataSource) throws Exception {
+        Process process = new ProcessBuilder("sleep", "0.05").start();
+        process.onExit().get(30, TimeUnit.SECONDS);
+        Thread.sleep(1500);
+        try (Connection ignored = dataSource.getConnection()) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static DataSource poolSimulado() {
+        Semaphore conexiones = new Semaphore(POOL_SIZE, false);
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[] { DataSource.class },
+                (proxy, metodo, args) -> {
+                    if (!metodo.getName().equals("getConnection")) {
+                        throw new UnsupportedOperationException(metodo.getName());
+                    }
+                    if (!conexiones.tryAcquire(CONNECTION_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                        throw new SQLTransientConnectionException("Connection is not available, request timed out");
+                    }
+                    AtomicBoolean cerrada = new AtomicBoolean();
+                    return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                            (conexion, llamada, ignorados) -> {
+                                if (llamada.getName().equals("close") && cerrada.compareAndSet(false, true)) {
+                                    conexiones.release();
+                                }
+                                return null;
+                            });
+                });
+    }
+
+    private static double percentil(long[] latencias, int percentil) {
+        if (latencias.length == 0) {
+            return 0;
+        }
+        long[] ordenadas = latencias.clone();
+        Arrays.sort(ordenadas);
+        int indice = (int) Math.ceil(percentil / 100.0 * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, indice)] / 1e6;
+    }
+}
@@ -0,0 +1,136 @@
+package com.trazabilidad.ayni.costo;
+
+import com.trazabilidad.ayni.proyecto.Proyecto;
+import com.trazabilidad.ayni.support.PostgresJpaTest;
+import com.trazabilidad.ayni.usuario.Usuario;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica contra un PostgreSQL local que los ids por secuencia (pooled-lo) permiten a Hibernate agrupar
+ * los INSERT en lotes JDBC, con las secuencias tal como las deja V23 en el esquema migrado de {@link PostgresJpaTest}.
+ */
+@PostgresJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.jdbc.batch_size=20")
+@Import(CostoBatchInsertPostgresTest.ContadorConfig.class)
+class CostoBatchInsertPostgresTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CostoMaterialRepository costoMaterialRepository;
+
+    @Test
+    void materialesSeInsertanEnLotesYLosIdsSeReservanPorBloques() {
+        Usuario responsable = Usuario.builder().nombre("Ana").apellido("Rojas").email("ana@ayni.test")
+                .username("arojas").password("x").build();
+        entityManager.persist(responsable);
+        Proyecto proyecto = Proyecto.builder().nombreProyecto("Puente").cliente("Municipalidad").costo(BigDecimal.TEN)
+                .fechaInicio(LocalDate.of(2024, 1, 1)).fechaFinalizacion(LocalDate.of(2024, 12, 31)).responsable(responsable).build();
+        entityManager.persist(proyecto);
+        entityManager.flush();
+        ContadorConfig.sentencias.clear();
+
+        List<CostoMaterial> materiales = new ArrayList<>();
+        for (int i = 1; i <= 120; i++) {
+            materiales.add(CostoMaterial.builder().material("Cemento " + i).cantidad(BigDecimal.ONE)
+                    .costoUnitario(new BigDecimal("25.50")).proyecto(proyecto).build());
+        }
+        costoMaterialRepository.saveAll(materiales);
+        entityManager.flush();
+
+        Predicate<String> insertMaterial = sql -> sql.matches("insert into (\\w+\\.)?costos_material \\(.*");
+        assertEquals(120, ContadorConfig.contar(insertMaterial, "addBatch"));
+        assertEquals(6, ContadorConfig.contar(insertMaterial, "executeBatch"));
+        assertEquals(0, ContadorConfig.contar(insertMaterial, "executeUpdate"));
+        long nextval = ContadorConfig.contar(sql -> sql.contains("costos_material_id_seq"), "executeQuery");
+        assertTrue(nextval <= 3, "nextval llamado " + nextval + " veces para 120 ids");
+    }
+
+    /** Envuelve el DataSource para registrar cada ejecución JDBC junto con su SQL. */
+    @TestConfiguration
+    static class ContadorConfig {
+
+        private record Sentencia(String sql, String metodo) {
+        }
+
+        private static final List<Sentencia> sentencias = Collections.synchronizedList(new ArrayList<>());
+
+        static long contar(Predicate<String> sql, String metodo) {
+            synchronized (sentencias) {
+                return sentencias.stream().filter(s -> s.metodo().equals(metodo) && sql.test(s.sql())).count();
+            }
+        }
+
+        @Bean
+        static BeanPostProcessor contadorDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return proxy(DataSource.class, dataSource, (metodo, resultado, args) ->
+                            resultado instanceof Connection connection
+                                    ? proxy(Connection.class, connection, ContadorConfig::sentencia)
+                                    : resultado);
+                }
+            };
+        }
+
+        private static Object sentencia(Method metodo, Object resultado, Object[] args) {
+            if (!(resultado instanceof PreparedStatement statement) || !metodo.getName().startsWith("prepare")) {
+                return resultado;
+            }
+            String sql = ((String) args[0]).toLowerCase(Locale.ROOT).trim();
+            return proxy(PreparedStatement.class, statement, (llamada, valor, ignorados) -> {
+                if (List.of("addBatch", "executeBatch", "executeUpdate", "executeQuery", "execute").contains(llamada.getName())) {
+                    sentencias.add(new Sentencia(sql, llamada.getName()));
+                }
+                return valor;
+            });
+        }
+
+        @FunctionalInterface
+        private interface Despues {
+            Object aplicar(Method metodo, Object resultado, Object[] args);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> tipo, T destino, Despues despues) {
+            InvocationHandler handler = (instancia, metodo, args) -> {
+                try {
+                    return despues.aplicar(metodo, metodo.invoke(destino, args), args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getCause();
+                }
+            };
+            return (T) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[] { tipo }, handler);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.trazabilidad.ayni.costo;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CostoCatalogoCacheTest {
+
+    private final AtomicInteger cargas = new AtomicInteger();
+
+    private final CostoCatalogoCache cache = new CostoCatalogoCache(true, 100, Duration.ofMinutes(10),
+            new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+
+    @AfterEach
+    void limpiarSincronizacion() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Supplier<List<String>> loader(String... nombres) {
+        return () -> {
+            cargas.incrementAndGet();
+            return List.of(nombres);
+        };
+    }
+
+    @Test
+    void reutilizaElCatalogoYSuEtagHastaInvalidar() {
+        CostoCatalogoCache.Catalogo<String> primero = cache.obtener(CostoCatalogoCache.TIPOS_MATERIAL, loader("Acero", "Cemento"));
+        CostoCatalogoCache.Catalogo<String> segundo = cache.obtener(CostoCatalogoCache.TIPOS_MATERIAL, loader("Otro"));
+
+        assertSame(primero, segundo);
+        assertEquals(1, cargas.get());
+
+        cache.invalidarTiposMaterial();
+        CostoCatalogoCache.Catalogo<String> tercero = cache.obtener(CostoCatalogoCache.TIPOS_MATERIAL, loader("Acero", "Arena"));
+
+        assertEquals(List.of("Acero", "Arena"), tercero.items());
+        assertNotEquals(primero.etag(), tercero.etag());
+    }
+
+    @Test
+    void elEtagDependeSoloDelContenido() {
+        String etag = cache.obtener(CostoCatalogoCache.OFICIOS, loader("Albañil")).etag();
+
+        assertEquals(CostoCatalogoCache.etag(List.of("Albañil")), etag);
+        assertEquals('"', etag.charAt(0));
+    }
+
+    @Test
+    void dentroDeUnaTransaccionInvalidaRecienAlConfirmar() {
+        cache.obtener(CostoCatalogoCache.categorias(7L), loader("Transporte"));
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.invalidarCategorias(7L);
+        cache.obtener(CostoCatalogoCache.categorias(7L), loader("Transporte", "Viaticos"));
+        assertEquals(1, cargas.get());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        cache.obtener(CostoCatalogoCache.categorias(7L), loader("Transporte", "Viaticos"));
+        assertEquals(2, cargas.get());
+    }
+}
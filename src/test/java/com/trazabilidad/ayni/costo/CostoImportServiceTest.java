@@ -0,0 +1,175 @@
+package com.trazabilidad.ayni.costo;
+
+import com.trazabilidad.ayni.costo.dto.ImportacionCostosResponse;
+import com.trazabilidad.ayni.proyecto.ProyectoLifecycleService;
+import com.trazabilidad.ayni.proyecto.ProyectoRepository;
+import com.trazabilidad.ayni.shared.exception.BadRequestException;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CostoImportServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ProyectoRepository proyectoRepository = mock(ProyectoRepository.class);
+    private final ProyectoLifecycleService proyectoLifecycleService = mock(ProyectoLifecycleService.class);
+    private final CostoMaterialTipoRepository costoMaterialTipoRepository = mock(CostoMaterialTipoRepository.class);
+    private final CostoManoObraOficioRepository costoManoObraOficioRepository = mock(CostoManoObraOficioRepository.class);
+    private final CostoAdicionalCategoriaRepository costoAdicionalCategoriaRepository = mock(CostoAdicionalCategoriaRepository.class);
+    private final GastoDiarioService gastoDiarioService = mock(GastoDiarioService.class);
+    private final ProyectoCostoTotalesService proyectoCostoTotalesService = mock(ProyectoCostoTotalesService.class);
+    private final List<List<Object[]>> lotes = new ArrayList<>();
+
+    private CostoImportService service;
+
+    @BeforeEach
+    void setUp() {
+        when(proyectoRepository.existsById(7L)).thenReturn(true);
+        CostoMaterialTipo cemento = CostoMaterialTipo.builder().id(3L).nombre("Cemento").build();
+        when(costoMaterialTipoRepository.findAllByOrderByNombreAsc()).thenReturn(List.of(cemento));
+        when(costoManoObraOficioRepository.findAllByOrderByNombreAsc()).thenReturn(List.of());
+        when(costoAdicionalCategoriaRepository.findByProyectoIdOrderByNombreAsc(7L)).thenReturn(List.of());
+        doAnswer(invocation -> {
+            List<Object[]> filas = invocation.getArgument(1);
+            lotes.add(new ArrayList<>(filas));
+            return new int[filas.size()];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList(), any(int[].class));
+        service = new CostoImportService(jdbcTemplate, proyectoRepository, proyectoLifecycleService, costoMaterialTipoRepository,
+                costoManoObraOficioRepository, costoAdicionalCategoriaRepository, gastoDiarioService, proyectoCostoTotalesService,
+                mock(CostoCatalogoCache.class), 2, 10);
+    }
+
+    @Test
+    void importacionParcialInsertaEnLotesYReportaLasFilasInvalidas() throws Exception {
+        MockMultipartFile archivo = libro(workbook -> {
+            CellStyle fecha = workbook.createCellStyle();
+            fecha.setDataFormat(workbook.createDataFormat().getFormat("dd/mm/yyyy"));
+            Sheet materiales = workbook.createSheet("Materiales");
+            fila(materiales, 0, "Fecha", "Tipo", "Producto", "Cantidad", "Costo unitario");
+            Row primera = fila(materiales, 1, null, "cemento", "Cemento Sol", null, null);
+            primera.createCell(0).setCellValue(LocalDate.of(2024, 3, 5));
+            primera.getCell(0).setCellStyle(fecha);
+            primera.createCell(3).setCellValue(4);
+            primera.createCell(4).setCellValue(25.5);
+            fila(materiales, 2, "06/03/2024", "Acero", "Fierro 1/2", "2", "31,90");
+            fila(materiales, 3, null, null, "Clavos", "abc", "5");
+            fila(materiales, 4, null, null, "Arena", null, "80");
+            Sheet manoObra = workbook.createSheet("Mano de obra");
+            fila(manoObra, 0, "Trabajador", "Oficio", "Días trabajados", "Costo por día");
+            fila(manoObra, 1, "Juan Quispe", "Operario", "3", "120");
+            fila(manoObra, 2, "Rosa Mamani", "Ayudante", null, "90");
+        });
+
+        ImportacionCostosResponse response = service.importar(7L, archivo, true);
+
+        assertTrue(response.isGuardado());
+        assertEquals(3, response.getMaterialesImportados());
+        assertEquals(2, response.getManoObraImportada());
+        assertEquals(1, response.getFilasConError());
+        assertEquals("Materiales", response.getErrores().get(0).getHoja());
+        assertEquals(4, response.getErrores().get(0).getFila());
+        assertTrue(response.getErrores().get(0).getMensaje().startsWith("Cantidad no es un numero"));
+
+        assertEquals(3, lotes.size());
+        Object[] cemento = lotes.get(0).get(0);
+        assertEquals("Cemento Sol", cemento[0]);
+        assertEquals("Cemento", cemento[1]);
+        assertEquals(3L, cemento[2]);
+        assertEquals(new BigDecimal("102.00"), cemento[6]);
+        assertEquals(LocalDate.of(2024, 3, 5), cemento[7]);
+        Object[] fierro = lotes.get(0).get(1);
+        assertEquals("Acero", fierro[1]);
+        assertNull(fierro[2]);
+        assertEquals(new BigDecimal("63.80"), fierro[6]);
+        // La mano de obra llena su lote antes de que se vacíe el último material
+        assertEquals(new BigDecimal("360.00"), lotes.get(1).get(0)[4]);
+        assertNull(lotes.get(1).get(1)[2]);
+        assertEquals(new BigDecimal("0.00"), lotes.get(1).get(1)[4]);
+        assertEquals(new BigDecimal("1.00"), lotes.get(2).get(0)[4]);
+        verify(proyectoLifecycleService).marcarProyectoComoModificado(7L);
+    }
+
+    @Test
+    void sinParcialUnErrorCancelaTodaLaImportacion() throws Exception {
+        MockMultipartFile archivo = libro(workbook -> {
+            Sheet adicionales = workbook.createSheet("Otros costos");
+            fila(adicionales, 0, "Categoría", "Descripción", "Cantidad", "Costo unitario");
+            fila(adicionales, 1, "Transporte", "Flete", "1", "350");
+            fila(adicionales, 2, null, "Sin categoria", "1", "-5");
+        });
+
+        ImportacionCostosResponse response = service.importar(7L, archivo, false);
+
+        assertFalse(response.isGuardado());
+        assertEquals(1, response.getAdicionalesImportados());
+        assertEquals(3, response.getErrores().get(0).getFila());
+        assertEquals("Categoria es obligatorio; Costo unitario debe ser mayor a cero", response.getErrores().get(0).getMensaje());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), any(int[].class));
+        verify(proyectoLifecycleService, never()).marcarProyectoComoModificado(7L);
+    }
+
+    @Test
+    void archivoQueNoEsXlsxSeRechazaConservandoLaCausa() {
+        MockMultipartFile archivo = new MockMultipartFile("archivo", "costos.xlsx",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "material;cantidad".getBytes());
+
+        BadRequestException ex = assertThrows(BadRequestException.class, () -> service.importar(7L, archivo, true));
+
+        assertEquals("El archivo no es un libro Excel (.xlsx) valido", ex.getMessage());
+        assertNotNull(ex.getCause());
+    }
+
+    @Test
+    void numerosAceptanSeparadoresLocales() {
+        assertEquals(new BigDecimal("1234.50"), CostoImportService.numero("1.234,50"));
+        assertEquals(new BigDecimal("1234.50"), CostoImportService.numero("1,234.50"));
+        assertEquals(new BigDecimal("12.5"), CostoImportService.numero("S/ 12,5"));
+        assertNull(CostoImportService.numero("doce"));
+    }
+
+    private static MockMultipartFile libro(Consumer<XSSFWorkbook> contenido) throws Exception {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream salida = new ByteArrayOutputStream()) {
+            contenido.accept(workbook);
+            workbook.write(salida);
+            return new MockMultipartFile("archivo", "costos.xlsx",
+                    "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", salida.toByteArray());
+        }
+    }
+
+    private static Row fila(Sheet sheet, int numero, String... valores) {
+        Row row = sheet.createRow(numero);
+        for (int i = 0; i < valores.length; i++) {
+            if (valores[i] != null) {
+                row.createCell(i).setCellValue(valores[i]);
+            }
+        }
+        return row;
+    }
+}
@@ -1,6 +1,8 @@
 package com.trazabilidad.ayni.costo;
 
+import com.trazabilidad.ayni.costo.dto.CostoAdicionalRequest;
 import com.trazabilidad.ayni.costo.dto.CostoCatalogoRequest;
+import com.trazabilidad.ayni.costo.dto.ResumenCostoResponse;
 import com.trazabilidad.ayni.proyecto.Proyecto;
 import com.trazabilidad.ayni.proyecto.ProyectoLifecycleService;
 import com.trazabilidad.ayni.proyecto.ProyectoRepository;
@@ -10,6 +12,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -45,6 +50,15 @@ class CostoServiceTest {
     @Mock
     private ProyectoLifecycleService proyectoLifecycleService;
 
+    @Mock
+    private GastoDiarioService gastoDiarioService;
+
+    @Mock
+    private ProyectoCostoTotalesService proyectoCostoTotalesService;
+
+    @Mock
+    private CostoCatalogoCache costoCatalogoCache;
+
     @InjectMocks
     private CostoService costoService;
 
@@ -102,6 +116,59 @@ class CostoServiceTest {
         verify(costoManoObraOficioRepository).delete(oficio);
         verify(proyectoLifecycleService).marcarProyectoComoModificado(1L);
     }
+
+    @Test
+    void actualizarAdicionalMueveElGastoDiarioDelDiaAnteriorAlNuevo() {
+        Proyecto proyecto = proyecto(1L);
+        CostoAdicional adicional = CostoAdicional.builder()
+                .id(3L)
+                .categoria("Transporte")
+                .monto(new BigDecimal("50.00"))
+                .fecha(LocalDate.of(2024, 3, 1))
+                .proyecto(proyecto)
+                .build();
+        CostoAdicionalRequest request = CostoAdicionalRequest.builder()
+                .categoria("Transporte")
+                .cantidad(new BigDecimal("2"))
+                .costoUnitario(new BigDecimal("40.00"))
+                .fecha(LocalDate.of(2024, 3, 5))
+                .build();
+
+        when(costoAdicionalRepository.findById(3L)).thenReturn(Optional.of(adicional));
+        when(costoAdicionalRepository.saveAndFlush(adicional)).thenReturn(adicional);
+
+        costoService.actualizarAdicional(1L, 3L, request);
+
+        verify(gastoDiarioService).aplicar(List.of(
+                new GastoDiarioService.Movimiento(1L, GastoDiarioService.OTROS_COSTOS, LocalDate.of(2024, 3, 1), new BigDecimal("-50.00"), -1),
+                new GastoDiarioService.Movimiento(1L, GastoDiarioService.OTROS_COSTOS, LocalDate.of(2024, 3, 5), new BigDecimal("80.00"), 1)));
+        verify(proyectoCostoTotalesService).aplicar(List.of(
+                new GastoDiarioService.Movimiento(1L, GastoDiarioService.OTROS_COSTOS, LocalDate.of(2024, 3, 1), new BigDecimal("-50.00"), -1),
+                new GastoDiarioService.Movimiento(1L, GastoDiarioService.OTROS_COSTOS, LocalDate.of(2024, 3, 5), new BigDecimal("80.00"), 1)));
+    }
+
+    @Test
+    void obtenerResumenLeeLosTotalesDelProyectoSinSumarCostos() {
+        Proyecto proyecto = proyecto(1L);
+        proyecto.setCosto(new BigDecimal("1000.00"));
+        when(proyectoRepository.findById(1L)).thenReturn(Optional.of(proyecto));
+        when(proyectoCostoTotalesService.obtener(1L)).thenReturn(ProyectoCostoTotales.builder()
+                .proyectoId(1L)
+                .totalMateriales(new BigDecimal("300.00"))
+                .cantidadMateriales(2)
+                .totalManoObra(new BigDecimal("150.00"))
+                .cantidadManoObra(1)
+                .build());
+
+        ResumenCostoResponse resumen = costoService.obtenerResumen(1L);
+
+        assertEquals(new BigDecimal("450.00"), resumen.getCostoTotalProyecto());
+        assertEquals(new BigDecimal("550.00"), resumen.getDiferencia());
+        assertEquals(2, resumen.getCantidadItemsMateriales());
+        assertEquals(0, resumen.getCantidadItemsAdicionales());
+        verify(costoMaterialRepository, never()).sumCostoTotalByProyectoId(any());
+    }
+
     private Proyecto proyecto(Long id) {
         Proyecto proyecto = new Proyecto();
         proyecto.setId(id);
@@ -0,0 +1,55 @@
+package com.trazabilidad.ayni.dashboard;
+
+import com.trazabilidad.ayni.dashboard.dto.DashboardCostoDetalleResponse;
+import com.trazabilidad.ayni.dashboard.dto.DashboardFiltrosRequest;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class DashboardExcelExportServiceTest {
+
+    private final DashboardGastoQueryService gastoQueryService = mock(DashboardGastoQueryService.class);
+    private final DashboardFiltrosRequest filtros = new DashboardFiltrosRequest(null, null, null, null, null, null, null, null, null, null, null, null);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void gastosSeEscribenCompletosAunqueSuperenLaVentanaDeFilas() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<DashboardCostoDetalleResponse> consumidor = invocation.getArgument(1);
+            for (long id = 1; id <= 250; id++) {
+                consumidor.accept(DashboardCostoDetalleResponse.builder().id(id).proyecto("Puente").categoria("Materiales")
+                        .descripcion("Cemento " + id).monto(new BigDecimal("10.50")).fecha(LocalDate.of(2024, 3, 5)).build());
+            }
+            return 250L;
+        }).when(gastoQueryService).recorrerGastos(eq(filtros), any(Consumer.class));
+        DashboardExcelExportService service = new DashboardExcelExportService(mock(DashboardIndicadorQueryService.class), gastoQueryService, 10);
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        long filas = service.gastos(filtros, salida);
+
+        assertEquals(250, filas);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(salida.toByteArray()))) {
+            Sheet sheet = workbook.getSheet("Gastos");
+            assertEquals(250, sheet.getLastRowNum());
+            assertEquals("Monto", sheet.getRow(0).getCell(5).getStringCellValue());
+            assertEquals("Cemento 1", sheet.getRow(1).getCell(4).getStringCellValue());
+            assertEquals(250.0, sheet.getRow(250).getCell(0).getNumericCellValue());
+            assertEquals(10.5, sheet.getRow(250).getCell(5).getNumericCellValue());
+            assertTrue(sheet.getRow(250).getCell(1).getLocalDateTimeCellValue().toLocalDate().isEqual(LocalDate.of(2024, 3, 5)));
+            assertTrue(sheet.getRow(250).getCell(6) == null || sheet.getRow(250).getCell(6).getStringCellValue().isEmpty());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.trazabilidad.ayni.dashboard;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.trazabilidad.ayni.dashboard.dto.DashboardCostoDetalleResponse;
+import com.trazabilidad.ayni.dashboard.dto.DashboardFiltrosRequest;
+import com.trazabilidad.ayni.shared.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class DashboardGastoExportServiceTest {
+
+    private final DashboardGastoQueryService gastoQueryService = mock(DashboardGastoQueryService.class);
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final DashboardGastoExportService service = new DashboardGastoExportService(gastoQueryService, objectMapper,
+            mock(DashboardExcelExportService.class));
+    private final DashboardFiltrosRequest filtros = new DashboardFiltrosRequest(null, null, null, null, null, null, null, null, null, null, null, null);
+
+    @Test
+    void csvEscapaComillasSaltosYFormulas() throws Exception {
+        entregar(gasto("Cemento, \"Sol\"\nbolsa x 42"), gasto("=HYPERLINK(\"x\")"));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        long filas = service.exportar(filtros, DashboardGastoExportService.Formato.CSV, salida);
+
+        assertEquals(2, filas);
+        assertEquals("id,proyecto_id,proyecto,categoria,descripcion,monto,fecha,responsable\r\n"
+                + "7,1,Puente,Materiales,\"Cemento, \"\"Sol\"\"\nbolsa x 42\",120.50,2024-03-05,Ana\r\n"
+                + "7,1,Puente,Materiales,\"'=HYPERLINK(\"\"x\"\")\",120.50,2024-03-05,Ana\r\n",
+                salida.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void ndjsonEscribeUnObjetoPorLinea() throws Exception {
+        entregar(gasto("Cemento"), gasto("Arena"));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        service.exportar(filtros, DashboardGastoExportService.Formato.NDJSON, salida);
+
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lineas.length);
+        assertEquals("Arena", objectMapper.readTree(lineas[1]).get("descripcion").asText());
+        assertEquals("2024-03-05", objectMapper.readTree(lineas[0]).get("fecha").asText());
+    }
+
+    @Test
+    void formatoDesconocidoEsBadRequest() {
+        assertThrows(BadRequestException.class, () -> DashboardGastoExportService.Formato.of("xml"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void entregar(DashboardCostoDetalleResponse... gastos) {
+        doAnswer(invocation -> {
+            Consumer<DashboardCostoDetalleResponse> consumidor = invocation.getArgument(1);
+            for (DashboardCostoDetalleResponse gasto : gastos) {
+                consumidor.accept(gasto);
+            }
+            return (long) gastos.length;
+        }).when(gastoQueryService).recorrerGastos(eq(filtros), any(Consumer.class));
+    }
+
+    private DashboardCostoDetalleResponse gasto(String descripcion) {
+        return DashboardCostoDetalleResponse.builder().id(7L).proyectoId(1L).proyecto("Puente").categoria("Materiales")
+                .descripcion(descripcion).monto(new BigDecimal("120.50")).fecha(LocalDate.of(2024, 3, 5)).responsable("Ana").build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.trazabilidad.ayni.dashboard;
+
+import com.trazabilidad.ayni.costo.CostoMaterial;
+import com.trazabilidad.ayni.dashboard.dto.DashboardCostoDetalleResponse;
+import com.trazabilidad.ayni.dashboard.dto.DashboardCursorResponse;
+import com.trazabilidad.ayni.dashboard.dto.DashboardFiltrosRequest;
+import com.trazabilidad.ayni.proyecto.Proyecto;
+import com.trazabilidad.ayni.support.PostgresJpaTest;
+import com.trazabilidad.ayni.support.PostgresTestDatabase;
+import com.trazabilidad.ayni.usuario.Usuario;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Compara el listado de gastos por cursor con el paginado por offset contra el esquema migrado de
+ * {@link PostgresJpaTest}, con los índices de expresión de V19 que recorre el cursor.
+ */
+@PostgresJpaTest
+@Import(DashboardGastoQueryService.class)
+class DashboardGastoQueryPostgresTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DashboardGastoQueryService service;
+
+    @Test
+    void cursorDevuelveLasMismasFilasQueOffsetIncluidasLasSinFecha() {
+        Usuario responsable = Usuario.builder().nombre("Ana").apellido("Rojas").email("ana@ayni.test")
+                .username("arojas").password("x").build();
+        entityManager.persist(responsable);
+        Proyecto proyecto = Proyecto.builder().nombreProyecto("Puente").cliente("Municipalidad").costo(BigDecimal.TEN)
+                .fechaInicio(LocalDate.of(2024, 1, 1)).fechaFinalizacion(LocalDate.of(2024, 12, 31)).responsable(responsable).build();
+        entityManager.persist(proyecto);
+        for (LocalDate fecha : new LocalDate[] { LocalDate.of(2024, 3, 5), null, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 5), null }) {
+            entityManager.persist(CostoMaterial.builder().material("Cemento").costoUnitario(BigDecimal.ONE).fecha(fecha).proyecto(proyecto).build());
+        }
+        entityManager.flush();
+        // Filas históricas sin fecha ni fecha de creación: quedan al final del orden (nulls last)
+        entityManager.createNativeQuery("alter table costos_material alter column fecha_creacion drop not null").executeUpdate();
+        entityManager.createNativeQuery("update costos_material set fecha_creacion = null where fecha is null").executeUpdate();
+
+        List<Long> porOffset = ids(service.gastos(filtros(100)).content());
+        List<DashboardCostoDetalleResponse> porCursor = new ArrayList<>();
+        String cursor = null;
+        do {
+            DashboardCursorResponse<DashboardCostoDetalleResponse> pagina = service.gastosPorCursor(filtros(2), cursor, false);
+            porCursor.addAll(pagina.content());
+            cursor = pagina.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(5, porOffset.size());
+        assertEquals(porOffset, ids(porCursor));
+        assertNull(porCursor.get(3).getFecha());
+        assertNull(porCursor.get(4).getFecha());
+    }
+
+    @Test
+    void migracionCreaLosIndicesPorFechaDeGasto() {
+        List<?> indices = entityManager.createNativeQuery(
+                        "select indexname from pg_indexes where schemaname = :esquema and indexname like 'idx_costo_%_fecha_gasto' order by indexname")
+                .setParameter("esquema", PostgresTestDatabase.SCHEMA).getResultList();
+
+        assertEquals(List.of("idx_costo_adic_fecha_gasto", "idx_costo_mat_fecha_gasto", "idx_costo_mo_fecha_gasto"), indices);
+    }
+
+    private static DashboardFiltrosRequest filtros(int size) {
+        return new DashboardFiltrosRequest(0, size, null, null, null, null, null, null, null, null, null, null);
+    }
+
+    private static List<Long> ids(List<DashboardCostoDetalleResponse> gastos) {
+        return gastos.stream().map(DashboardCostoDetalleResponse::getId).toList();
+    }
+}
@@ -0,0 +1,157 @@
+package com.trazabilidad.ayni.dashboard;
+
+import com.trazabilidad.ayni.costo.CostoAdicional;
+import com.trazabilidad.ayni.costo.CostoAdicionalRepository;
+import com.trazabilidad.ayni.costo.CostoManoObra;
+import com.trazabilidad.ayni.costo.CostoManoObraRepository;
+import com.trazabilidad.ayni.costo.CostoMaterial;
+import com.trazabilidad.ayni.costo.CostoMaterialRepository;
+import com.trazabilidad.ayni.costo.GastoDiarioService;
+import com.trazabilidad.ayni.costo.ProyectoCostoTotalesService;
+import com.trazabilidad.ayni.dashboard.dto.ProyectoIndicadorResponse;
+import com.trazabilidad.ayni.proyecto.ActividadProyecto;
+import com.trazabilidad.ayni.proyecto.Proyecto;
+import com.trazabilidad.ayni.proyecto.ProyectoMapper;
+import com.trazabilidad.ayni.proyecto.ProyectoRepository;
+import com.trazabilidad.ayni.support.PostgresJpaTest;
+import com.trazabilidad.ayni.usuario.Usuario;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara los indicadores agregados en base de datos con el cálculo anterior en memoria (entidades y sumas por
+ * proyecto) contra el esquema migrado de {@link PostgresJpaTest}.
+ */
+@PostgresJpaTest
+@Import({ DashboardIndicadorQueryService.class, ProyectoCostoTotalesService.class })
+class DashboardIndicadorQueryPostgresTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DashboardIndicadorQueryService service;
+
+    @Autowired
+    private ProyectoCostoTotalesService proyectoCostoTotalesService;
+
+    @Autowired
+    private ProyectoRepository proyectoRepository;
+
+    @Autowired
+    private CostoMaterialRepository costoMaterialRepository;
+
+    @Autowired
+    private CostoManoObraRepository costoManoObraRepository;
+
+    @Autowired
+    private CostoAdicionalRepository costoAdicionalRepository;
+
+    @Test
+    void indicadoresCoincidenConElCalculoEnMemoria() {
+        Usuario responsable = Usuario.builder().nombre("Ana").apellido("Rojas").email("ana@ayni.test")
+                .username("arojas").password("x").build();
+        entityManager.persist(responsable);
+        Proyecto conCostos = proyecto("Puente", new BigDecimal("1000.00"), responsable);
+        conCostos.getAreas().addAll(List.of("Obras", "Electricidad"));
+        entityManager.persist(conCostos);
+        entityManager.persist(proyecto("Almacén", null, responsable));
+        Proyecto sobrecosto = proyecto("Sobrecosto", new BigDecimal("50.00"), responsable);
+        entityManager.persist(sobrecosto);
+
+        List<GastoDiarioService.Movimiento> movimientos = new ArrayList<>();
+        for (String costo : new String[] { "120.50", "80.25" }) {
+            CostoMaterial material = CostoMaterial.builder().material("Cemento").cantidad(new BigDecimal("2"))
+                    .costoUnitario(new BigDecimal(costo)).proyecto(conCostos).build();
+            entityManager.persist(material);
+            movimientos.add(GastoDiarioService.material(material, 1));
+        }
+        CostoManoObra manoObra = CostoManoObra.builder().trabajador("Luis").horasTrabajadas(new BigDecimal("8"))
+                .costoHora(new BigDecimal("15.00")).proyecto(conCostos).build();
+        entityManager.persist(manoObra);
+        movimientos.add(GastoDiarioService.manoObra(manoObra, 1));
+        CostoAdicional adicional = CostoAdicional.builder().categoria("Transporte").tipoGasto("Flete")
+                .monto(new BigDecimal("33.33")).proyecto(conCostos).build();
+        entityManager.persist(adicional);
+        movimientos.add(GastoDiarioService.adicional(adicional, 1));
+        CostoAdicional excedente = CostoAdicional.builder().categoria("Multas").tipoGasto("Multa")
+                .monto(new BigDecimal("75.00")).proyecto(sobrecosto).build();
+        entityManager.persist(excedente);
+        movimientos.add(GastoDiarioService.adicional(excedente, 1));
+        proyectoCostoTotalesService.aplicar(movimientos);
+
+        actividad(conCostos, "tarea", "Completado");
+        actividad(conCostos, "Tarea", "completado");
+        actividad(conCostos, "tarea", "En progreso");
+        actividad(conCostos, "hito", "Completado");
+        entityManager.flush();
+        entityManager.clear();
+
+        Map<Long, ProyectoIndicadorResponse> indicadores = service.indicadores().stream()
+                .collect(Collectors.toMap(ProyectoIndicadorResponse::getId, Function.identity()));
+
+        List<Proyecto> proyectos = proyectoRepository.findAll();
+        assertEquals(proyectos.size(), indicadores.size());
+        for (Proyecto proyecto : proyectos) {
+            ProyectoIndicadorResponse indicador = indicadores.get(proyecto.getId());
+            BigDecimal gasto = suma(costoMaterialRepository.sumCostoTotalByProyectoId(proyecto.getId()))
+                    .add(suma(costoManoObraRepository.sumCostoTotalByProyectoId(proyecto.getId())))
+                    .add(suma(costoAdicionalRepository.sumCostoTotalByProyectoId(proyecto.getId())));
+            BigDecimal inversion = proyecto.getCosto() != null ? proyecto.getCosto() : BigDecimal.ZERO;
+            BigDecimal retorno = inversion.subtract(gasto);
+            int tasaRetorno = inversion.compareTo(BigDecimal.ZERO) > 0
+                    ? retorno.multiply(new BigDecimal("100")).divide(inversion, RoundingMode.HALF_UP).intValue()
+                    : 0;
+
+            assertEquals(proyecto.getNombreProyecto(), indicador.getNombre());
+            assertEquals(proyecto.getEstado().name(), indicador.getEstado());
+            assertEquals(proyecto.getResponsable().getNombreCompleto(), indicador.getResponsable());
+            assertEquals(proyecto.getResponsable().getId(), indicador.getResponsableId());
+            assertEquals(0, inversion.compareTo(indicador.getInversion()));
+            assertEquals(0, gasto.compareTo(indicador.getGasto()), proyecto.getNombreProyecto());
+            assertEquals(0, retorno.compareTo(indicador.getRetorno()));
+            assertEquals(tasaRetorno, indicador.getTasaRetorno());
+            assertEquals(proyecto.calcularProgreso(), indicador.getAvance());
+            assertEquals(proyecto.getFechaInicio(), indicador.getDurationStart());
+            assertEquals(proyecto.getFechaFinalizacion(), indicador.getDurationEnd());
+            assertEquals(ProyectoMapper.resolveFechaRegistro(proyecto), indicador.getFechaRegistro());
+            assertEquals(proyecto.getAreas().stream().sorted().toList(), indicador.getAreas().stream().sorted().toList());
+        }
+
+        ProyectoIndicadorResponse puente = indicadores.values().stream()
+                .filter(indicador -> Objects.equals("Puente", indicador.getNombre())).findFirst().orElseThrow();
+        assertEquals(3L, puente.getTareasTotal());
+        assertEquals(2L, puente.getTareasCompletadas());
+        assertEquals(66, puente.getAvance());
+        double promedio = proyectos.stream().mapToInt(Proyecto::calcularProgreso).average().orElse(0);
+        assertEquals(BigDecimal.valueOf(promedio).setScale(2, RoundingMode.HALF_UP).doubleValue(), service.promedioProgreso());
+    }
+
+    private static Proyecto proyecto(String nombre, BigDecimal costo, Usuario responsable) {
+        return Proyecto.builder().nombreProyecto(nombre).cliente("Municipalidad").costo(costo)
+                .fechaInicio(LocalDate.of(2024, 1, 1)).fechaFinalizacion(LocalDate.of(2024, 12, 31)).responsable(responsable).build();
+    }
+
+    private void actividad(Proyecto proyecto, String tipo, String estado) {
+        entityManager.persist(ActividadProyecto.builder().proyecto(proyecto).nombre(tipo + " " + estado)
+                .tipo(tipo).estadoActividad(estado).build());
+    }
+
+    private static BigDecimal suma(BigDecimal valor) {
+        return valor != null ? valor : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,97 @@
+package com.trazabilidad.ayni.dashboard;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class DashboardSubconsultasTest {
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final DashboardSubconsultas subconsultas = new DashboardSubconsultas(
+            transactionManager, 2, 10, Duration.ofMillis(500), false, new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        subconsultas.shutdown();
+    }
+
+    @Test
+    void lasSubconsultasCorrenALaVezEnTransaccionesDeSoloLectura() {
+        CountDownLatch ambas = new CountDownLatch(2);
+
+        var primera = subconsultas.iniciar("primera", () -> {
+            ambas.countDown();
+            return esperar(ambas);
+        });
+        var segunda = subconsultas.iniciar("segunda", () -> {
+            ambas.countDown();
+            return esperar(ambas);
+        });
+
+        assertTrue(primera.resultado());
+        assertTrue(segunda.resultado());
+        ArgumentCaptor<TransactionDefinition> definicion = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager, atLeastOnce()).getTransaction(definicion.capture());
+        assertTrue(definicion.getValue().isReadOnly());
+        assertEquals(1, definicion.getValue().getTimeout());
+    }
+
+    @Test
+    void subconsultaLentaExcedeElPlazoYLaExcepcionDeOtraSePropaga() {
+        var lenta = subconsultas.iniciar("lenta", () -> esperar(new CountDownLatch(1)));
+        var fallida = subconsultas.iniciar("fallida", () -> {
+            throw new IllegalArgumentException("filtro invalido");
+        });
+
+        assertThrows(QueryTimeoutException.class, lenta::resultado);
+        assertEquals("filtro invalido", assertThrows(IllegalArgumentException.class, fallida::resultado).getMessage());
+    }
+
+    @Test
+    void siUnaFallaLasDemasSeCancelan() throws Exception {
+        CountDownLatch iniciada = new CountDownLatch(1);
+        CountDownLatch interrumpida = new CountDownLatch(1);
+        var lenta = subconsultas.iniciar("lenta", () -> {
+            iniciada.countDown();
+            try {
+                return new CountDownLatch(1).await(2, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                interrumpida.countDown();
+                return false;
+            }
+        });
+        assertTrue(iniciada.await(1, TimeUnit.SECONDS));
+        var fallida = subconsultas.iniciar("fallida", () -> {
+            throw new IllegalArgumentException("filtro invalido");
+        });
+
+        assertThrows(IllegalArgumentException.class, () -> DashboardSubconsultas.esperarTodas(fallida, lenta));
+        assertThrows(CancellationException.class, lenta::resultado);
+        assertTrue(interrumpida.await(1, TimeUnit.SECONDS));
+    }
+
+    private static boolean esperar(CountDownLatch latch) {
+        try {
+            return latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.trazabilidad.ayni.proyecto;
+
+import com.trazabilidad.ayni.shared.enums.EstadoProyecto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProyectoLifecycleServiceTest {
+
+    @Mock
+    private ProyectoRepository proyectoRepository;
+
+    @InjectMocks
+    private ProyectoLifecycleService proyectoLifecycleService;
+
+    @Test
+    void archivarProyectosInactivosUsaActualizacionMasivaConFechaDeCorte() {
+        when(proyectoRepository.archivarInactivos(eq(EstadoProyecto.ARCHIVADO), any(), any(), any())).thenReturn(3);
+
+        int archivados = proyectoLifecycleService.archivarProyectosInactivos();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<EstadoProyecto>> estados = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<LocalDateTime> corte = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> ahora = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(proyectoRepository).archivarInactivos(eq(EstadoProyecto.ARCHIVADO), estados.capture(), corte.capture(), ahora.capture());
+
+        assertEquals(3, archivados);
+        assertTrue(estados.getValue().contains(EstadoProyecto.PENDIENTE));
+        assertTrue(estados.getValue().contains(EstadoProyecto.EN_PROCESO));
+        assertFalse(estados.getValue().contains(EstadoProyecto.COMPLETADO));
+        assertEquals(ahora.getValue().minusDays(ProyectoLifecycleService.DIAS_INACTIVIDAD_ARCHIVADO), corte.getValue());
+    }
+
+    @Test
+    void prepararProyectoParaModificacionReactivaArchivadoYRegistraActividad() {
+        Proyecto proyecto = new Proyecto();
+        proyecto.setEstado(EstadoProyecto.ARCHIVADO);
+        proyecto.setFechaInicio(LocalDate.now().minusMonths(6));
+        proyecto.setFechaFinalizacion(LocalDate.now().minusMonths(2));
+        LocalDateTime antes = LocalDateTime.now();
+
+        proyectoLifecycleService.prepararProyectoParaModificacion(proyecto);
+
+        assertEquals(EstadoProyecto.EN_PROCESO, proyecto.getEstado());
+        assertFalse(proyecto.getUltimaActividad().isBefore(antes));
+        assertEquals(proyecto.getFechaActualizacion(), proyecto.getUltimaActividad());
+    }
+
+    @Test
+    void registrarActividadConservaFechaFinalizacionPlanificadaFutura() {
+        Proyecto proyecto = new Proyecto();
+        LocalDate finalizacion = LocalDate.now().plusMonths(3);
+        proyecto.setFechaInicio(LocalDate.now().minusDays(10));
+        proyecto.setFechaFinalizacion(finalizacion);
+
+        proyecto.registrarActividad(LocalDateTime.now());
+
+        assertEquals(finalizacion.atStartOfDay(), proyecto.getUltimaActividad());
+    }
+}
@@ -0,0 +1,126 @@
+package com.trazabilidad.ayni.shared.search;
+
+import com.trazabilidad.ayni.proyecto.ProyectoRepository;
+import com.trazabilidad.ayni.shared.enums.EstadoProyecto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Ejecuta la migración V21 y la consulta real de {@link ProyectoRepository#buscarPorTexto} contra
+ * un PostgreSQL local (por ejemplo {@code docker run -p 5432:5432 -e POSTGRES_PASSWORD=postgres postgres:16}).
+ * Se omite si no se define {@code AYNI_TEST_POSTGRES_URL}; trabaja en un esquema temporal que borra al final.
+ */
+@EnabledIfEnvironmentVariable(named = "AYNI_TEST_POSTGRES_URL", matches = ".+")
+class BusquedaTextoPostgresTest {
+
+    private static final String ESQUEMA = "ayni_busqueda_test";
+
+    private Connection connection;
+
+    @BeforeEach
+    void crearEsquema() throws Exception {
+        connection = DriverManager.getConnection(System.getenv("AYNI_TEST_POSTGRES_URL"),
+                System.getenv().getOrDefault("AYNI_TEST_POSTGRES_USER", "postgres"),
+                System.getenv().getOrDefault("AYNI_TEST_POSTGRES_PASSWORD", "postgres"));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + ESQUEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + ESQUEMA);
+            statement.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm SCHEMA public");
+            statement.execute("CREATE EXTENSION IF NOT EXISTS unaccent SCHEMA public");
+            statement.execute("SET search_path TO " + ESQUEMA + ", public");
+            statement.execute("CREATE TABLE proyectos (id BIGSERIAL PRIMARY KEY, nombre_proyecto TEXT, cliente TEXT, "
+                    + "descripcion TEXT, estado TEXT, responsable_id BIGINT)");
+            statement.execute("CREATE TABLE solicitudes (id BIGSERIAL PRIMARY KEY, nombre_proyecto TEXT, cliente TEXT, descripcion TEXT)");
+            statement.execute(migracion());
+            statement.execute("INSERT INTO proyectos (nombre_proyecto, cliente, descripcion, estado) VALUES "
+                    + "('Construcción de puente', 'Municipalidad de Lima', 'Obra vial', 'EN_PROCESO'), "
+                    + "('Mantenimiento eléctrico', 'Minera Sur', 'Revisión de tableros', 'PENDIENTE'), "
+                    + "('Ampliación de almacén', 'Constructora Andina', NULL, 'EN_PROCESO')");
+        }
+    }
+
+    @AfterEach
+    void borrarEsquema() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + ESQUEMA + " CASCADE");
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    void encuentraSinAcentosNiMayusculas() throws Exception {
+        assertEquals(List.of("Mantenimiento eléctrico"), buscar("ELECTRICO", null));
+    }
+
+    @Test
+    void encuentraPorPrefijoEnCualquierColumna() throws Exception {
+        List<String> nombres = buscar("constru", null);
+
+        assertEquals(Set.of("Construcción de puente", "Ampliación de almacén"), Set.copyOf(nombres));
+    }
+
+    @Test
+    void aplicaLosFiltrosDelListado() throws Exception {
+        assertEquals(List.of("Mantenimiento eléctrico"), buscar("e", "PENDIENTE"));
+    }
+
+    private List<String> buscar(String search, String estado) throws Exception {
+        String sql = ProyectoRepository.class
+                .getMethod("buscarPorTexto", String.class, String.class,
+                        EstadoProyecto.class, Long.class, Pageable.class)
+                .getAnnotation(Query.class).value();
+        List<String> parametros = new ArrayList<>();
+        Matcher matcher = Pattern.compile(":(search|prefijos|estado|responsableId)\\b").matcher(sql);
+        while (matcher.find()) {
+            parametros.add(matcher.group(1));
+        }
+
+        List<String> nombres = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(matcher.replaceAll("?"))) {
+            for (int i = 0; i < parametros.size(); i++) {
+                switch (parametros.get(i)) {
+                    case "search" -> statement.setString(i + 1, BusquedaTextoService.termino(search));
+                    case "prefijos" -> statement.setString(i + 1, BusquedaTextoService.prefijos(search));
+                    case "estado" -> statement.setString(i + 1, estado);
+                    default -> statement.setNull(i + 1, Types.BIGINT);
+                }
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    nombres.add(rs.getString("nombre_proyecto"));
+                }
+            }
+        }
+        return nombres;
+    }
+
+    private static String migracion() throws Exception {
+        try (InputStream in = BusquedaTextoPostgresTest.class
+                .getResourceAsStream("/db/migration/V21__add_full_text_search_to_proyectos_and_solicitudes.sql")) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8)
+                    .replace("CREATE EXTENSION IF NOT EXISTS pg_trgm;", "")
+                    .replace("CREATE EXTENSION IF NOT EXISTS unaccent;", "");
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.trazabilidad.ayni.shared.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BusquedaTextoServiceTest {
+
+    @Test
+    void prefijosConviertePalabrasEnConsultaTsquery() {
+        assertEquals("constru:* & lima:*", BusquedaTextoService.prefijos("  Constru LIMA "));
+        assertEquals("construcción:* & s:* & a:*", BusquedaTextoService.prefijos("Construcción S.A."));
+    }
+
+    @Test
+    void prefijosDescartaOperadoresDeTsquery() {
+        assertEquals("obra:* & norte:*", BusquedaTextoService.prefijos("obra & !norte | (:*"));
+        assertNull(BusquedaTextoService.prefijos("&|!"));
+        assertNull(BusquedaTextoService.prefijos("   "));
+    }
+
+    @Test
+    void usaIndiceSoloConTerminoYHabilitado() {
+        assertTrue(new BusquedaTextoService(true).usarIndice("obra"));
+        assertFalse(new BusquedaTextoService(true).usarIndice(" "));
+        assertFalse(new BusquedaTextoService(false).usarIndice("obra"));
+    }
+}
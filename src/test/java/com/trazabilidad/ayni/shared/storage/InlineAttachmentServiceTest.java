@@ -0,0 +1,170 @@
+package com.trazabilidad.ayni.shared.storage;
+
+import com.trazabilidad.ayni.shared.exception.BadRequestException;
+import com.trazabilidad.ayni.shared.storage.dto.UploadObjectResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class InlineAttachmentServiceTest {
+
+    private final R2PresignService r2PresignService = mock(R2PresignService.class);
+    private final R2ClientProvider r2ClientProvider = mock(R2ClientProvider.class);
+
+    @Test
+    void dataUrlPequenoSeGuardaEnLinea() {
+        InlineAttachmentService service = service("offload");
+        String dataUrl = dataUrl(new byte[100]);
+
+        InlineAttachmentService.StoredAttachment stored = service.store(null, dataUrl, "a.png", "image/png", 100L);
+
+        assertNull(stored.objectKey());
+        assertEquals(dataUrl, stored.dataUrl());
+        verifyNoInteractions(r2PresignService);
+    }
+
+    @Test
+    void subidaPreviaReescribeElAdjuntoYStoreSoloGuardaObjectKey() throws Exception {
+        InlineAttachmentService service = service("offload");
+        byte[] contenido = new byte[4096];
+        contenido[10] = 42;
+        byte[][] subido = new byte[1][];
+        when(r2ClientProvider.isConfigured()).thenReturn(true);
+        when(r2PresignService.uploadLocalFile(any(Path.class), eq("foto.png"), eq("image/png"), isNull(), eq(1L), eq(2L), isNull(), eq(true)))
+                .thenAnswer(invocation -> {
+                    subido[0] = Files.readAllBytes(invocation.getArgument(0));
+                    return new UploadObjectResponse("proyectos/1/foto.webp", null, "etag", 1200L, "foto.webp", "image/webp");
+                });
+        Adjunto adjunto = new Adjunto("foto.png", dataUrl(contenido));
+
+        String resultado = service.prepare().offload(List.of(adjunto), 1L, 2L).run(() -> "ok");
+        InlineAttachmentService.StoredAttachment stored =
+                service.store(adjunto.getObjectKey(), adjunto.getDataUrl(), adjunto.getNombre(), adjunto.tipo, adjunto.tamano);
+
+        assertEquals("ok", resultado);
+        assertArrayEquals(contenido, subido[0]);
+        assertEquals("proyectos/1/foto.webp", stored.objectKey());
+        assertNull(stored.dataUrl());
+        assertEquals("foto.webp", stored.nombre());
+        assertEquals("image/webp", stored.tipo());
+        assertEquals(1200L, stored.tamano());
+        verify(r2PresignService, never()).deleteObject(any());
+    }
+
+    @Test
+    void objetosSubidosSeEliminanSiLaOperacionFalla() {
+        InlineAttachmentService service = service("offload");
+        when(r2ClientProvider.isConfigured()).thenReturn(true);
+        when(r2PresignService.uploadLocalFile(any(Path.class), any(), any(), any(), any(), any(), any(), eq(true)))
+                .thenReturn(new UploadObjectResponse("proyectos/1/foto.png", null, "etag", 4096L, "foto.png", "image/png"));
+        InlineAttachmentService.OffloadBatch batch =
+                service.prepare().offload(List.of(new Adjunto("foto.png", dataUrl(new byte[4096]))), 1L, 2L);
+
+        assertThrows(IllegalStateException.class, () -> batch.run(() -> {
+            throw new IllegalStateException("rollback");
+        }));
+        verify(r2PresignService).deleteObject("proyectos/1/foto.png");
+    }
+
+    @Test
+    void storeNoSubeNadaDentroDeLaTransaccion() {
+        InlineAttachmentService service = service("offload");
+        when(r2ClientProvider.isConfigured()).thenReturn(true);
+        String dataUrl = dataUrl(new byte[4096]);
+
+        InlineAttachmentService.StoredAttachment stored = service.store(null, dataUrl, "foto.png", "image/png", 4096L);
+
+        assertEquals(dataUrl, stored.dataUrl());
+        verifyNoInteractions(r2PresignService);
+    }
+
+    @Test
+    void modoRejectRechazaDataUrlGrande() {
+        InlineAttachmentService service = service("reject");
+        Adjunto adjunto = new Adjunto("foto.png", dataUrl(new byte[4096]));
+
+        service.prepare().offload(List.of(adjunto), 1L, null);
+
+        assertThrows(BadRequestException.class,
+                () -> service.store(null, adjunto.getDataUrl(), "foto.png", "image/png", 4096L));
+        verifyNoInteractions(r2PresignService);
+    }
+
+    private InlineAttachmentService service(String mode) {
+        return new InlineAttachmentService(r2PresignService, r2ClientProvider, DataSize.ofKilobytes(1), mode);
+    }
+
+    private static String dataUrl(byte[] content) {
+        return "data:image/png;base64," + Base64.getEncoder().encodeToString(content);
+    }
+
+    private static final class Adjunto implements InlineAttachmentService.InlineAttachment {
+        private String nombre;
+        private String tipo = "image/png";
+        private Long tamano = 4096L;
+        private String objectKey;
+        private String dataUrl;
+
+        private Adjunto(String nombre, String dataUrl) {
+            this.nombre = nombre;
+            this.dataUrl = dataUrl;
+        }
+
+        @Override
+        public String getNombre() {
+            return nombre;
+        }
+
+        @Override
+        public String getObjectKey() {
+            return objectKey;
+        }
+
+        @Override
+        public String getDataUrl() {
+            return dataUrl;
+        }
+
+        @Override
+        public void setNombre(String nombre) {
+            this.nombre = nombre;
+        }
+
+        @Override
+        public void setTipo(String tipo) {
+            this.tipo = tipo;
+        }
+
+        @Override
+        public void setTamano(Long tamano) {
+            this.tamano = tamano;
+        }
+
+        @Override
+        public void setObjectKey(String objectKey) {
+            this.objectKey = objectKey;
+        }
+
+        @Override
+        public void setDataUrl(String dataUrl) {
+            this.dataUrl = dataUrl;
+        }
+    }
+}
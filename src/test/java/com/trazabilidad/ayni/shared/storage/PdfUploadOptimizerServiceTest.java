@@ -0,0 +1,99 @@
+package com.trazabilidad.ayni.shared.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnabledOnOs({OS.LINUX, OS.MAC})
+class PdfUploadOptimizerServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void eligePerfilDeMayorCalidadQueCumpleElLimite() throws Exception {
+        assertPerfilGanador(false);
+    }
+
+    @Test
+    void carreraParalelaRespetaElOrdenDeCalidad() throws Exception {
+        assertPerfilGanador(true, false);
+    }
+
+    @Test
+    void carreraParalelaEnHilosVirtuales() throws Exception {
+        assertPerfilGanador(true, true);
+    }
+
+    private void assertPerfilGanador(boolean parallel) throws Exception {
+        assertPerfilGanador(parallel, false);
+    }
+
+    private void assertPerfilGanador(boolean parallel, boolean virtualThreads) throws Exception {
+        Path log = tempDir.resolve("perfiles.log");
+        PdfUploadOptimizerService service = new PdfUploadOptimizerService(
+                DataSize.ofBytes(2000), DataSize.ofMegabytes(1), true, fakeGhostscript(log).toString(), 30, parallel, virtualThreads);
+
+        try {
+            PreparedUploadObject primero = prepare(service, "medio", 5000);
+            assertEquals(1500, primero.size());
+            assertEquals("optimized-ebook.pdf", primero.content().getFileName().toString());
+
+            // Un archivo que solo /screen reduce no debe hacer perder calidad a los siguientes del tramo
+            PreparedUploadObject dificil = prepare(service, "dificil", 10000);
+            assertEquals("optimized-screen.pdf", dificil.content().getFileName().toString());
+
+            Files.deleteIfExists(log);
+            PreparedUploadObject facil = prepare(service, "facil", 3000);
+            assertEquals(1800, facil.size());
+            assertEquals("optimized-printer.pdf", facil.content().getFileName().toString());
+            assertTrue(Files.readAllLines(log).contains("/printer"));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private PreparedUploadObject prepare(PdfUploadOptimizerService service, String nombre, int bytes) throws Exception {
+        Path workDir = Files.createDirectory(tempDir.resolve(nombre));
+        Path source = workDir.resolve("source");
+        Files.write(source, new byte[bytes]);
+        return service.prepareForUpload(source, nombre + ".pdf", "application/pdf", workDir);
+    }
+
+    /**
+     * Simula Ghostscript: el tamaño de salida es una fracción del origen según el perfil y registra cada
+     * perfil ejecutado.
+     */
+    private Path fakeGhostscript(Path log) throws Exception {
+        Path script = tempDir.resolve("fake-gs.sh");
+        Files.write(script, List.of(
+                "#!/bin/sh",
+                "for arg in \"$@\"; do",
+                "  case \"$arg\" in",
+                "    -dPDFSETTINGS=*) profile=\"${arg#-dPDFSETTINGS=}\" ;;",
+                "    -sOutputFile=*) output=\"${arg#-sOutputFile=}\" ;;",
+                "  esac",
+                "  input=\"$arg\"",
+                "done",
+                "original=$(wc -c < \"$input\")",
+                "echo \"$profile\" >> \"" + log + "\"",
+                "case \"$profile\" in",
+                "  /printer) size=$((original * 60 / 100)) ;;",
+                "  /ebook) size=$((original * 30 / 100)) ;;",
+                "  *) size=$((original * 10 / 100)) ;;",
+                "esac",
+                "head -c \"$size\" /dev/zero > \"$output\""));
+        Files.setPosixFilePermissions(script, PosixFilePermissions.fromString("rwx------"));
+        return script;
+    }
+}
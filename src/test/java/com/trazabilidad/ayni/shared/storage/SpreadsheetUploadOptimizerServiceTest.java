@@ -0,0 +1,63 @@
+package com.trazabilidad.ayni.shared.storage;
+
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SpreadsheetUploadOptimizerServiceTest {
+
+    private static final String XLSX_MIME = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    private final SpreadsheetUploadOptimizerService service = new SpreadsheetUploadOptimizerService(
+            DataSize.ofMegabytes(25), DataSize.ofMegabytes(50));
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void normalizaLibroEnDiscoCuandoNoLlegaComoXlsx() throws Exception {
+        Path source = workDir.resolve("source");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream output = Files.newOutputStream(source)) {
+            workbook.getProperties().getCoreProperties().setCreator("Proveedor");
+            workbook.createSheet("Costos").createRow(0).createCell(0).setCellValue("Cemento");
+            workbook.write(output);
+        }
+
+        byte[] original = Files.readAllBytes(source);
+
+        PreparedUploadObject prepared = service.prepareForUpload(source, "costos", "application/vnd.ms-excel", workDir);
+
+        assertArrayEquals(original, Files.readAllBytes(source));
+
+        assertEquals("costos.xlsx", prepared.fileName());
+        assertEquals(XLSX_MIME, prepared.contentType());
+        assertEquals(Files.size(prepared.content()), prepared.size());
+        try (Workbook optimized = WorkbookFactory.create(prepared.content().toFile(), null, true)) {
+            assertEquals("Cemento", optimized.getSheet("Costos").getRow(0).getCell(0).getStringCellValue());
+            assertNull(((XSSFWorkbook) optimized).getProperties().getCoreProperties().getCreator());
+        }
+    }
+
+    @Test
+    void xlsxDentroDelLimiteSeSubeSinReescribir() throws Exception {
+        Path source = workDir.resolve("source");
+        Files.write(source, new byte[]{1, 2, 3});
+
+        PreparedUploadObject prepared = service.prepareForUpload(source, "costos.xlsx", XLSX_MIME, workDir);
+
+        assertSame(source, prepared.content());
+        assertEquals(3, prepared.size());
+    }
+}
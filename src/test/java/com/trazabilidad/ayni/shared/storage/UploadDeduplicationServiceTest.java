@@ -0,0 +1,65 @@
+package com.trazabilidad.ayni.shared.storage;
+
+import com.trazabilidad.ayni.shared.storage.dto.UploadObjectResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UploadDeduplicationServiceTest {
+
+    private final ArchivoAlmacenadoRepository repository = mock(ArchivoAlmacenadoRepository.class);
+    private final UploadDeduplicationService service =
+            new UploadDeduplicationService(repository, new StorageUrlResolver(""), true);
+
+    @Test
+    void hashRepetidoDelMismoUsuarioReutilizaObjetoConNombreDelQueSube() {
+        String ambito = service.ambito(3L);
+        when(repository.findBySha256AndAmbito("abc", ambito)).thenReturn(Optional.of(ArchivoAlmacenado.builder()
+                .sha256("abc")
+                .ambito(ambito)
+                .objectKey("planos/2026-10/p1-a2-u3-x-original.pdf")
+                .nombreArchivo("original.pdf")
+                .contentType("application/pdf")
+                .tamano(1200L)
+                .eTag("etag")
+                .build()));
+
+        UploadObjectResponse reutilizado = service.find("abc", ambito, "copia.pdf").orElseThrow();
+
+        assertEquals("planos/2026-10/p1-a2-u3-x-original.pdf", reutilizado.objectKey());
+        assertEquals("copia.pdf", reutilizado.fileName());
+        assertEquals("application/pdf", reutilizado.contentType());
+        assertEquals(1200L, reutilizado.fileSize());
+    }
+
+    @Test
+    void hashDeOtroUsuarioNoSeReutiliza() {
+        String ambitoOriginal = service.ambito(3L);
+        String otroUsuario = service.ambito(4L);
+        when(repository.findBySha256AndAmbito("abc", ambitoOriginal))
+                .thenReturn(Optional.of(ArchivoAlmacenado.builder().objectKey("planos/k").build()));
+
+        assertNotEquals(ambitoOriginal, otroUsuario);
+        assertTrue(service.find("abc", otroUsuario, "a.pdf").isEmpty());
+        assertTrue(service.find(null, ambitoOriginal, "a.pdf").isEmpty());
+    }
+
+    @Test
+    void registroConcurrenteDelMismoHashNoFallaLaSubida() {
+        when(repository.save(any(ArchivoAlmacenado.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_archivos_almacenados_sha256_ambito"));
+        UploadObjectResponse subido =
+                new UploadObjectResponse("planos/k", "planos/k", "etag", 10L, "a.pdf", "application/pdf");
+
+        assertDoesNotThrow(() -> service.register("abc", service.ambito(3L), subido));
+    }
+}
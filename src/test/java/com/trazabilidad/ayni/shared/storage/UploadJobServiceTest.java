@@ -0,0 +1,90 @@
+package com.trazabilidad.ayni.shared.storage;
+
+import com.trazabilidad.ayni.shared.exception.EntityNotFoundException;
+import com.trazabilidad.ayni.shared.exception.RateLimitExceededException;
+import com.trazabilidad.ayni.shared.storage.dto.UploadJobResponse;
+import com.trazabilidad.ayni.shared.storage.dto.UploadObjectResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UploadJobServiceTest {
+
+    private final UploadJobService service = new UploadJobService(1, 1, Duration.ofMinutes(5), false, new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void trabajoCompletadoExponeResultadoYLimpiaTemporales() throws Exception {
+        CountDownLatch limpiado = new CountDownLatch(1);
+        UploadObjectResponse resultado = new UploadObjectResponse("evidencias/a.pdf", null, "etag", 10L, "a.pdf", "application/pdf");
+
+        UploadJobResponse job = service.submit(5L, () -> resultado, limpiado::countDown);
+
+        assertTrue(limpiado.await(5, TimeUnit.SECONDS));
+        UploadJobResponse estado = service.getJob(job.jobId(), 5L);
+        assertEquals(UploadJobService.Status.COMPLETED.name(), estado.status());
+        assertEquals(resultado, estado.result());
+    }
+
+    @Test
+    void colaLlenaRechazaYLimpiaTemporales() throws Exception {
+        CountDownLatch bloqueo = new CountDownLatch(1);
+        AtomicInteger limpiezas = new AtomicInteger();
+        service.submit(5L, () -> {
+            await(bloqueo);
+            return null;
+        }, limpiezas::incrementAndGet);
+        service.submit(5L, () -> null, limpiezas::incrementAndGet);
+
+        assertThrows(RateLimitExceededException.class,
+                () -> service.submit(5L, () -> null, limpiezas::incrementAndGet));
+        assertEquals(1, limpiezas.get());
+        bloqueo.countDown();
+    }
+
+    @Test
+    void trabajoEnProcesoNoExpiraYLaRetencionCorreDesdeQueTermina() throws Exception {
+        UploadJobService corto = new UploadJobService(1, 1, Duration.ofMillis(200), false, new SimpleMeterRegistry());
+        try {
+            CountDownLatch bloqueo = new CountDownLatch(1);
+            CountDownLatch limpiado = new CountDownLatch(1);
+            UploadJobResponse job = corto.submit(5L, () -> {
+                await(bloqueo);
+                return null;
+            }, limpiado::countDown);
+
+            Thread.sleep(400);
+            assertEquals(UploadJobService.Status.PROCESSING.name(), corto.getJob(job.jobId(), 5L).status());
+
+            bloqueo.countDown();
+            assertTrue(limpiado.await(5, TimeUnit.SECONDS));
+            Thread.sleep(50);
+            assertEquals(UploadJobService.Status.COMPLETED.name(), corto.getJob(job.jobId(), 5L).status());
+            Thread.sleep(400);
+            assertThrows(EntityNotFoundException.class, () -> corto.getJob(job.jobId(), 5L));
+        } finally {
+            corto.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
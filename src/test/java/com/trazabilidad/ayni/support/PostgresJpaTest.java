@@ -0,0 +1,36 @@
+package com.trazabilidad.ayni.support;
+
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Prueba JPA contra un PostgreSQL local con el esquema creado por las migraciones de Flyway (índices de
+ * expresión, parciales y funciones incluidos). Se omite si no se define {@code AYNI_TEST_POSTGRES_URL}; el
+ * esquema {@value PostgresTestDatabase#SCHEMA} se limpia y se migra al levantar cada contexto, y cada prueba se
+ * revierte al terminar. Las propiedades propias de una prueba van en {@code @TestPropertySource}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@EnabledIfEnvironmentVariable(named = "AYNI_TEST_POSTGRES_URL", matches = ".+")
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.flyway.schemas=" + PostgresTestDatabase.SCHEMA,
+        "spring.flyway.create-schemas=true",
+        "spring.flyway.clean-disabled=false",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.default_schema=" + PostgresTestDatabase.SCHEMA,
+        "spring.datasource.hikari.connection-init-sql=set search_path to " + PostgresTestDatabase.SCHEMA + ", public"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = PostgresTestDatabase.class)
+public @interface PostgresJpaTest {
+}
@@ -0,0 +1,29 @@
+package com.trazabilidad.ayni.support;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Apunta el contexto de {@link PostgresJpaTest} a la base de {@code AYNI_TEST_POSTGRES_URL} y rehace su esquema
+ * de pruebas desde cero, para que una migración editada no choque con el historial de una corrida anterior.
+ */
+public class PostgresTestDatabase implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    public static final String SCHEMA = "ayni_test";
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context) {
+        TestPropertyValues.of(
+                "spring.datasource.url=" + System.getenv("AYNI_TEST_POSTGRES_URL"),
+                "spring.datasource.username=" + System.getenv().getOrDefault("AYNI_TEST_POSTGRES_USER", "postgres"),
+                "spring.datasource.password=" + System.getenv().getOrDefault("AYNI_TEST_POSTGRES_PASSWORD", "postgres"))
+                .applyTo(context);
+        FlywayMigrationStrategy limpiarYMigrar = flyway -> {
+            flyway.clean();
+            flyway.migrate();
+        };
+        context.getBeanFactory().registerSingleton("postgresTestMigrationStrategy", limpiarYMigrar);
+    }
+}